@@ -0,0 +1,105 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.framework.BaseActor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-actor methods of BaseActor called from act and update, each applied once to every actor
+ * of a {@link CollisionField}. Narrowphase tests pair each actor with the next one of the field;
+ * the field is moved by every invocation, so that a share of the pairs overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int actorCount;
+
+    private CollisionField field;
+    private BaseActor[] actors;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        field = new CollisionField(actorCount, 42);
+        BaseActor.setWorldBounds(field.worldSize, field.worldSize);
+
+        actors = new BaseActor[actorCount];
+        System.arraycopy(field.lasers, 0, actors, 0, field.lasers.length);
+        System.arraycopy(field.rocks, 0, actors, field.lasers.length, field.rocks.length);
+        // shuffle lasers among rocks, so that neighbours are of any kind
+        MathUtils.random.setSeed(42);
+        for (int i = actorCount - 1; i > 0; i--) {
+            int j = MathUtils.random(i);
+            BaseActor actor = actors[i];
+            actors[i] = actors[j];
+            actors[j] = actor;
+        }
+
+        for (BaseActor actor : actors) {
+            actor.setAcceleration(400);
+            actor.setMaxSpeed(300);
+            actor.setDeceleration(400);
+            actor.setMotionAngle(MathUtils.random(360f));
+            actor.setSpeed(100);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        field.stage.dispose();
+    }
+
+    @Benchmark
+    public int overlaps() {
+        field.move();
+        int count = 0;
+        for (int i = 1; i < actors.length; i++) {
+            if (actors[i - 1].overlaps(actors[i])) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int preventOverlap() {
+        field.move();
+        int count = 0;
+        for (int i = 1; i < actors.length; i++) {
+            if (actors[i - 1].preventOverlap(actors[i]) != null) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int isWithinDistance() {
+        field.move();
+        int count = 0;
+        for (int i = 1; i < actors.length; i++) {
+            if (actors[i - 1].isWithinDistance(50, actors[i])) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public void applyPhysics() {
+        for (int i = 0; i < actors.length; i++) {
+            // half of the actors accelerate, the other half decelerate
+            if ((i & 1) == 0) actors[i].accelerateForward();
+            actors[i].applyPhysics(1 / 60f);
+        }
+    }
+
+    @Benchmark
+    public void wrapAroundWorld() {
+        // moves every actor across the border of the world and back
+        for (BaseActor actor : actors) {
+            actor.moveBy(field.worldSize, 0);
+            actor.wrapAroundWorld();
+            actor.moveBy(0, -field.worldSize);
+            actor.wrapAroundWorld();
+        }
+    }
+}
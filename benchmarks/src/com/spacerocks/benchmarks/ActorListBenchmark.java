@@ -0,0 +1,72 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+import com.framework.World;
+import com.spacerocks.Laser;
+import com.spacerocks.Rock;
+import com.spacerocks.Warp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up the actors of one type, as LevelScreen.update does every tick:
+ * through the registry by class, and through the deprecated lookups by class name.
+ * The stage holds rocks, one laser per ten rocks and one warp effect per hundred.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActorListBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int rockCount;
+
+    @Param({"class", "name"})
+    public String lookup;
+
+    private World world;
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        world = new World(42);
+        world.setBounds(1920, 1080);
+        stage = world.getMainStage();
+
+        for (int i = 0; i < rockCount; i++) {
+            float x = world.random(1920f);
+            float y = world.random(1080f);
+            new Rock(x, y, stage);
+            if (i % 10 == 0) new Laser(x, y, stage);
+            if (i % 100 == 0) new Warp(x, y, stage);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public float getList() {
+        float sum = 0;
+        if (lookup.equals("class")) {
+            for (Laser laser : BaseActor.getList(stage, Laser.class)) sum += laser.getX();
+        } else {
+            for (BaseActor laser : BaseActor.getList(stage, "com.spacerocks.Laser")) sum += laser.getX();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public int count() {
+        if (lookup.equals("class")) return BaseActor.count(stage, Rock.class);
+        return BaseActor.count(stage, "com.spacerocks.Rock");
+    }
+}
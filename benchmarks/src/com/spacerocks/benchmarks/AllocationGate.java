@@ -0,0 +1,183 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.framework.ActorPool;
+import com.framework.BaseActor;
+import com.framework.ParticleSystem;
+import com.framework.SnapshotRing;
+import com.framework.World;
+import com.spacerocks.Laser;
+import com.spacerocks.LevelScreen;
+import com.spacerocks.Rock;
+import com.spacerocks.Warp;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation regression gate: plays a scripted LevelScreen (flying, strafing, shooting, warping)
+ * for thousands of ticks, including drawing, and fails when the ticks which spawn
+ * no actor (particles of explosions and exhaust included), or the ticks adding pooled actors (lasers, warps),
+ * allocate more than the budget on average. Ticks changing the UI (end message) are not budgeted, nor are
+ * ticks in which the world grows beyond its largest size so far (e.g. a wave of rocks): the pools miss,
+ * the slots of the rewind ring and the lists sized by the actors grow, once.
+ * <p>
+ * Usage: <code>AllocationGate [ticks] [budget bytes per tick]</code>, run from <code>core/assets</code>.
+ */
+public class AllocationGate {
+
+    private static final float DT = 1 / 60f;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 6000;
+        long budget = args.length > 1 ? Long.parseLong(args[1]) : 2;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        ScriptedInput input = new ScriptedInput();
+        Headless.setInput(input);
+        GateScreen screen = new GateScreen(new World(1));
+
+        // let the JIT settle and the pools and scratch objects fill up
+        int warmup = ticks / 5;
+        for (int tick = 0; tick < warmup; tick++) tick(screen, input, tick);
+        // the first actors to overlap load the polygon intersection code, once, maybe after the warmup
+        float[] square = {0, 0, 1, 0, 1, 1, 0, 1};
+        Intersector.overlapConvexPolygons(new Polygon(square), new Polygon(square));
+
+        long overhead = threads.getThreadAllocatedBytes(thread);
+        overhead = threads.getThreadAllocatedBytes(thread) - overhead;
+
+        long steadyBytes = 0;
+        long steadyMax = 0;
+        int steadyTicks = 0;
+        long spawnBytes = 0;
+        int spawnTicks = 0;
+
+        int uiTicks = 0;
+        int growthTicks = 0;
+        SnapshotRing rewind = screen.getRewindBuffer();
+        Stage stage = screen.getWorld().getMainStage();
+        int peakActors = 0;
+
+        for (int tick = warmup; tick < ticks; tick++) {
+            int before = screen.signature();
+            int uiBefore = screen.uiSignature();
+            long reserved = rewind.getReservedBytes();
+            int misses = misses(stage);
+            int actors = stage.getRoot().getChildren().size;
+            long start = threads.getThreadAllocatedBytes(thread);
+            tick(screen, input, tick);
+            long bytes = threads.getThreadAllocatedBytes(thread) - start - overhead;
+            // actors spawned during the tick count too: they are in the broadphase before it ends
+            actors = Math.max(actors, stage.getRoot().getChildren().size);
+            boolean peak = actors > peakActors;
+            peakActors = Math.max(peakActors, actors);
+
+            if (screen.uiSignature() != uiBefore) {
+                // end message: loaded once, not pooled
+                uiTicks++;
+            } else if (peak || misses(stage) != misses || rewind.getReservedBytes() != reserved) {
+                // the world grew: allocated once, until it grows again
+                growthTicks++;
+            } else if (screen.signature() != before) {
+                spawnBytes += bytes;
+                spawnTicks++;
+            } else {
+                steadyBytes += bytes;
+                steadyMax = Math.max(steadyMax, bytes);
+                steadyTicks++;
+            }
+        }
+
+        double steadyMean = steadyTicks == 0 ? 0 : (double) steadyBytes / steadyTicks;
+        System.out.println("steady ticks: " + steadyTicks + ", mean " + String.format("%.1f", steadyMean)
+                + " B/tick, max " + steadyMax + " B");
+        System.out.println("spawn ticks:  " + spawnTicks + ", mean "
+                + (spawnTicks == 0 ? 0 : spawnBytes / spawnTicks) + " B/tick");
+        System.out.println("ui ticks:     " + uiTicks + " (not budgeted)");
+        System.out.println("growth ticks: " + growthTicks + " (not budgeted)");
+
+        System.out.println("pools: laser " + stats(Laser.getPool(stage)) + ", warp " + stats(Warp.getPool(stage))
+                + ", rock " + stats(Rock.getPool(stage)));
+        ParticleSystem particles = screen.getWorld().getParticleSystem();
+        System.out.println("particles: " + particles.getLiveCount() + " alive of " + particles.getMaxParticles()
+                + ", " + particles.getDropped() + " dropped");
+
+        if (steadyMean > budget) {
+            System.out.println("FAILED: steady state allocates more than " + budget + " B/tick");
+            System.exit(1);
+        }
+        if (spawnTicks > 0 && spawnBytes / spawnTicks > budget) {
+            System.out.println("FAILED: spawning pooled actors allocates more than " + budget + " B/tick");
+            System.exit(1);
+        }
+        System.out.println("PASSED (budget " + budget + " B/tick)");
+        System.exit(0);
+    }
+
+    private static int misses(Stage stage) {
+        return Laser.getPool(stage).getMisses() + Warp.getPool(stage).getMisses() + Rock.getPool(stage).getMisses();
+    }
+
+    private static String stats(ActorPool<?> pool) {
+        return pool.getHits() + " hits/" + pool.getMisses() + " misses";
+    }
+
+    private static void tick(GateScreen screen, ScriptedInput input, int tick) {
+        input.script(tick);
+        if (tick % 30 == 0) screen.keyDown(Input.Keys.CONTROL_LEFT);
+        if (tick % 240 == 200) screen.keyDown(Input.Keys.PAGE_UP);
+        if (tick % 240 == 220) screen.keyDown(Input.Keys.PAGE_DOWN);
+        if (tick % 600 == 300) screen.keyDown(Input.Keys.X);
+        screen.render(DT);
+    }
+
+    /**
+     * LevelScreen exposing a cheap fingerprint of its stages: actors are appended
+     * to the stage root, so a spawn changes the size or the last actor.
+     * Once the rocks are destroyed it sends waves of rocks, and the spaceship keeps its shield up, so that the scripted play lasts through them.
+     */
+    private static class GateScreen extends LevelScreen {
+
+        private static final int[] WAVES = {24, 96};
+
+        private int wave;
+
+        GateScreen(World world) {
+            super(world);
+            // recording the rewind history is budgeted too
+            setRewindEnabled(true);
+        }
+
+        @Override
+        public void update(float dt) {
+            getSpaceship(0).setShieldPower(100);
+            if (wave < WAVES.length && !getWaves().isSpawning()
+                    && BaseActor.count(mainStage, Rock.class) + getRockField().size() == 0) {
+                startWave(WAVES[wave++]);
+            }
+            super.update(dt);
+        }
+
+        int signature() {
+            return signature(mainStage);
+        }
+
+        int uiSignature() {
+            return signature(uiStage);
+        }
+
+        private static int signature(Stage stage) {
+            SnapshotArray<Actor> actors = stage.getRoot().getChildren();
+            if (actors.size == 0) return 0;
+            return actors.size * 31 + System.identityHashCode(actors.peek());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.BaseActor;
+import com.framework.Broadphase;
+import com.framework.SweepAndPruneBroadphase;
+import com.framework.UniformGridBroadphase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One rock/laser collision pass through each broadphase implementation.
+ * Compare with {@link PairwiseCollisionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadphaseBenchmark {
+
+    private static final int ROCK = 1;
+    private static final int LASER = 2;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int actorCount;
+
+    @Param({"grid", "sap"})
+    public String broadphase;
+
+    private CollisionField field;
+    private Broadphase phase;
+    private int overlaps;
+
+    private final Broadphase.Listener counter = new Broadphase.Listener() {
+        @Override
+        public void overlap(BaseActor a, BaseActor b) {
+            overlaps++;
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        field = new CollisionField(actorCount, 42);
+        if (broadphase.equals("grid")) phase = new UniformGridBroadphase(128);
+        else phase = new SweepAndPruneBroadphase();
+
+        for (BaseActor laser : field.lasers) phase.add(laser, LASER, ROCK);
+        for (BaseActor rock : field.rocks) phase.add(rock, ROCK, LASER);
+    }
+
+    @Benchmark
+    public int collisionPass() {
+        field.move();
+        overlaps = 0;
+        phase.findOverlaps(counter);
+        return overlaps;
+    }
+}
@@ -0,0 +1,99 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.framework.BaseActor;
+import com.framework.World;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A tick of actors running the spin and lifetime built into BaseActor (<code>setAngularSpeed</code>,
+ * <code>setLifetime</code>), against the same behaviour run by scene2d actions:
+ * <code>spinningRocks</code> acts 50000 rocks spinning forever, <code>fadingLasers</code> 5000 lasers
+ * in the fading part of their lifetime, which is made long enough that none is removed during the trial.
+ * The actors do nothing else, so that only the behaviour is measured.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BuiltInBehaviourBenchmark {
+
+    private static final float LIFETIME = 1e6f;
+
+    @State(Scope.Benchmark)
+    public static class Rocks {
+
+        @Param({"50000"})
+        public int rockCount;
+
+        @Param({"builtin", "actions"})
+        public String behaviour;
+
+        private World world;
+        private Stage stage;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Headless.boot();
+            world = new World(42);
+            world.setBounds(1920, 1080);
+            stage = world.getMainStage();
+            for (int i = 0; i < rockCount; i++) {
+                BaseActor rock = new BaseActor(world.random(1920f), world.random(1080f), stage);
+                rock.loadTexture("rock.png");
+                float spin = 30 + world.random(30f);
+                if (behaviour.equals("builtin")) rock.setAngularSpeed(spin);
+                else rock.addAction(Actions.forever(Actions.rotateBy(spin, 1)));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            world.dispose();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lasers {
+
+        @Param({"5000"})
+        public int laserCount;
+
+        @Param({"builtin", "actions"})
+        public String behaviour;
+
+        private World world;
+        private Stage stage;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Headless.boot();
+            world = new World(42);
+            world.setBounds(1920, 1080);
+            stage = world.getMainStage();
+            for (int i = 0; i < laserCount; i++) {
+                BaseActor laser = new BaseActor(world.random(1920f), world.random(1080f), stage);
+                laser.loadTexture("laser.png");
+                if (behaviour.equals("builtin")) laser.setLifetime(LIFETIME, LIFETIME);
+                else laser.addAction(Actions.sequence(Actions.fadeOut(LIFETIME), Actions.removeActor()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            world.dispose();
+        }
+    }
+
+    @Benchmark
+    public void spinningRocks(Rocks state) {
+        state.stage.act(1 / 60f);
+    }
+
+    @Benchmark
+    public void fadingLasers(Lasers state) {
+        state.stage.act(1 / 60f);
+    }
+}
@@ -0,0 +1,76 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+
+/**
+ * Field of moving rocks and lasers (one in ten) at constant density,
+ * one actor per 200x200 pixels by default, shared by the collision benchmarks.
+ */
+public class CollisionField {
+
+    public final Stage stage;
+    public final BaseActor[] rocks;
+    public final BaseActor[] lasers;
+    public final float worldSize;
+
+    private final float[] dx;
+    private final float[] dy;
+
+    public CollisionField(int actorCount, long seed) {
+        this(actorCount, seed, 200);
+    }
+
+    /**
+     * @param spacing side of the square holding one actor on average (pixels); actors are 64 pixels wide
+     */
+    public CollisionField(int actorCount, long seed, float spacing) {
+        stage = Headless.newStage();
+        RandomXS128 random = new RandomXS128(seed);
+        worldSize = (float) Math.sqrt(actorCount) * spacing;
+
+        int laserCount = actorCount / 10;
+        rocks = new BaseActor[actorCount - laserCount];
+        lasers = new BaseActor[laserCount];
+        dx = new float[actorCount];
+        dy = new float[actorCount];
+
+        for (int i = 0; i < actorCount; i++) {
+            BaseActor actor = new BaseActor(random.nextFloat() * worldSize, random.nextFloat() * worldSize, stage);
+            float angle = random.nextFloat() * MathUtils.PI2;
+            float speed;
+            if (i < laserCount) {
+                actor.setSize(48, 8);
+                actor.setBoundaryRectangle();
+                lasers[i] = actor;
+                speed = 30;
+            } else {
+                actor.setSize(64, 64);
+                actor.setBoundaryPolygon(8);
+                rocks[i - laserCount] = actor;
+                speed = 1;
+            }
+            dx[i] = MathUtils.cos(angle) * speed;
+            dy[i] = MathUtils.sin(angle) * speed;
+        }
+    }
+
+    /**
+     * Moves every actor by one step, wrapping around the field.
+     */
+    public void move() {
+        int laserCount = lasers.length;
+        for (int i = 0; i < laserCount; i++) step(lasers[i], dx[i], dy[i]);
+        for (int i = 0; i < rocks.length; i++) step(rocks[i], dx[laserCount + i], dy[laserCount + i]);
+    }
+
+    private void step(BaseActor actor, float x, float y) {
+        actor.moveBy(x, y);
+        if (actor.getX() < 0) actor.setX(worldSize);
+        if (actor.getX() > worldSize) actor.setX(0);
+        if (actor.getY() < 0) actor.setY(worldSize);
+        if (actor.getY() > worldSize) actor.setY(0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Minimal libGDX environment for benchmarks: natives, files, mock graphics and input,
+ * and a no-op GL ({@link NullGL20}). Enough to build screens, load textures
+ * and run SpriteBatch without a window or a GPU.
+ */
+public final class Headless {
+
+    private static final InvocationHandler NO_OP = new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            // identity semantics, since libGDX keys its managed shaders and textures by application
+            if (method.getName().equals("equals") && args != null && args.length == 1) return proxy == args[0];
+            if (method.getName().equals("hashCode") && args == null) return System.identityHashCode(proxy);
+            return defaultValue(method.getReturnType());
+        }
+    };
+
+    private Headless() {
+    }
+
+    /**
+     * Installs the mock environment once per JVM. Internal files are resolved
+     * from the working directory, which should be <code>core/assets</code>.
+     */
+    public static synchronized void boot() {
+        if (Gdx.gl != null) return;
+        GdxNativesLoader.load();
+        Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(),
+                new Class<?>[]{Application.class}, NO_OP);
+        Gdx.files = new HeadlessFiles();
+        Gdx.graphics = new MockGraphics();
+        Gdx.input = new MockInput();
+        Gdx.gl = Gdx.gl20 = new NullGL20();
+    }
+
+    /**
+     * Replaces the input polled by actors, e.g. with a scripted one.
+     *
+     * @param input input to install
+     */
+    public static void setInput(Input input) {
+        boot();
+        Gdx.input = input;
+    }
+
+    /**
+     * @return a stage which can hold and act actors but never draws
+     */
+    public static Stage newStage() {
+        boot();
+        Batch batch = (Batch) Proxy.newProxyInstance(Batch.class.getClassLoader(),
+                new Class<?>[]{Batch.class}, NO_OP);
+        return new Stage(new ScreenViewport(), batch);
+    }
+
+    /**
+     * @return a stage drawing through a real SpriteBatch into the no-op GL,
+     * so that drawing costs everything but the GPU
+     */
+    public static Stage newDrawingStage() {
+        boot();
+        return new Stage(new ScreenViewport(), new SpriteBatch());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == float.class) return 0f;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
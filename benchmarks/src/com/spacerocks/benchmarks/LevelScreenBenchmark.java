@@ -0,0 +1,69 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The game itself: LevelScreen with extra rocks scattered over the world.
+ * <code>update</code> is the collision pass alone (broadphase, rock field and laser lookups);
+ * <code>tick</code> fires a laser and steps the whole simulation, actors included.
+ * Each iteration starts from a new world with the same seed, since rocks get destroyed.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LevelScreenBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int rockCount;
+
+    private BenchmarkScreen screen;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        Headless.boot();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        World world = new World(42);
+        world.setInput(new ScriptedInput());
+        screen = new BenchmarkScreen(world);
+        for (int i = 0; i < rockCount; i++) screen.addRock(world.random(1920f), world.random(1080f));
+        // first contacts are resolved here, so that iterations measure the same steady state
+        screen.step(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        screen.dispose();
+    }
+
+    @Benchmark
+    public void update() {
+        screen.update(1 / 60f);
+    }
+
+    @Benchmark
+    public void tick() {
+        screen.keyDown(Input.Keys.CONTROL_LEFT);
+        screen.step(1);
+    }
+
+    private static class BenchmarkScreen extends LevelScreen {
+
+        BenchmarkScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void addRock(float x, float y) {
+            super.addRock(x, y);
+        }
+    }
+}
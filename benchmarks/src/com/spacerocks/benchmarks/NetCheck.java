@@ -0,0 +1,278 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.framework.NetServer;
+import com.framework.NetSnapshot;
+import com.framework.World;
+import com.framework.BaseActor;
+import com.framework.WorldSnapshot;
+import com.spacerocks.LevelClient;
+import com.spacerocks.LevelScreen;
+import com.spacerocks.LevelServer;
+import com.spacerocks.Rock;
+import com.spacerocks.Spaceship;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Multiplayer gate, entirely over loopback: serves a LevelScreen to two remote pilots, one on a clean link
+ * and one through a relay dropping a share of the datagrams both ways, and fails unless
+ * <ul>
+ * <li>every state a client decodes equals the state the server sent, despite the losses,</li>
+ * <li>updates are mostly deltas against acknowledged baselines,</li>
+ * <li>both remote spaceships join and fly with the input they sent,</li>
+ * <li>a shot of a remote pilot destroys the rock in front of its spaceship,</li>
+ * <li>a snapshot of the game with three players restores to the same bytes.</li>
+ * </ul>
+ * Usage: <code>NetCheck [ticks] [loss percent]</code>, run from <code>core/assets</code>.
+ */
+public class NetCheck {
+
+    public static void main(String[] args) throws IOException {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+        int loss = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        ScriptedInput input = new ScriptedInput();
+        Headless.setInput(input);
+        World world = new World(1234);
+        world.setInput(input);
+        LevelScreen screen = new LevelScreen(world);
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        NetServer server = new NetServer(new InetSocketAddress(loopback, 0), LevelServer.FIELDS);
+        LevelServer levelServer = new LevelServer(screen, server, 1);
+        InetSocketAddress serverAddress = new InetSocketAddress(loopback, server.getPort());
+
+        LossyRelay relay = new LossyRelay(serverAddress, loss);
+        LevelClient[] clients = {new LevelClient(serverAddress), new LevelClient(relay.getAddress())};
+        int[] checked = new int[clients.length];
+        int[] lastSeq = {-1, -1};
+        float[] spawnX = new float[clients.length];
+        boolean failed = false;
+
+        RandomXS128 random = new RandomXS128(7);
+        for (int tick = 0; tick < ticks; tick++) {
+            input.script(tick);
+            for (int c = 0; c < clients.length; c++) {
+                LevelClient client = clients[c];
+                client.setControls(tick % 120 < 60 ? Spaceship.TURN_LEFT | Spaceship.THRUST : Spaceship.THRUST);
+                if (random.nextInt(20) == 0) client.shoot();
+                if (random.nextInt(90) == 0) client.strafe(random.nextBoolean());
+                client.update();
+            }
+            relay.pump();
+            screen.step(1);
+            if (tick == 0) {
+                for (int c = 0; c < clients.length && c + 1 < screen.getPlayerCount(); c++) {
+                    spawnX[c] = screen.getSpaceship(c + 1).getX();
+                }
+            }
+            relay.pump();
+
+            for (int c = 0; c < clients.length; c++) {
+                clients[c].getClient().poll();
+                int seq = clients[c].getClient().getSeq();
+                if (seq == lastSeq[c]) continue;
+                lastSeq[c] = seq;
+                NetSnapshot sent = server.getSent(seq);
+                if (sent == null) continue;
+                checked[c]++;
+                if (!clients[c].getClient().getState().sameState(sent)) {
+                    System.out.println(String.format("client %d: state %d differs from the one sent", c + 1, seq));
+                    failed = true;
+                }
+            }
+        }
+
+        for (int c = 0; c < clients.length; c++) {
+            int client = indexOf(server, clients[c].getClient().getPlayer());
+            long updates = client < 0 ? 0 : server.getUpdatesSent(client);
+            long full = client < 0 ? 0 : server.getFullUpdates(client);
+            long bytes = client < 0 ? 0 : server.getBytesSent(client);
+            System.out.println(String.format("client %d (%s): player %d, %d/%d updates decoded and checked,"
+                            + " %d dropped, %d full, %.1f KB/s", c + 1, c == 0 ? "clean link" : loss + "% loss",
+                    clients[c].getClient().getPlayer(), checked[c], updates,
+                    clients[c].getClient().getUpdatesDropped(), full, bytes / 1024.0 / (ticks / 60.0)));
+            if (checked[c] < updates / 2 || full > updates / 4) {
+                System.out.println("client " + (c + 1) + ": too few updates decoded, or too many sent in full");
+                failed = true;
+            }
+        }
+
+        if (screen.getPlayerCount() != 3) {
+            System.out.println("expected 3 players, got " + screen.getPlayerCount());
+            failed = true;
+        } else {
+            for (int player = 1; player < 3; player++) {
+                Spaceship ship = screen.getSpaceship(player);
+                if (!ship.isRemote() || ship.getX() == spawnX[player - 1] || ship.getRotation() == 0) {
+                    System.out.println("player " + player + " did not fly with its input");
+                    failed = true;
+                }
+            }
+        }
+
+        WorldSnapshot snapshot = screen.getSnapshot();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        snapshot.write(buffer);
+        byte[] saved = Arrays.copyOf(buffer.array(), buffer.position());
+        buffer.flip();
+        snapshot.read(buffer);
+        buffer.clear();
+        snapshot.write(buffer);
+        if (!Arrays.equals(saved, Arrays.copyOf(buffer.array(), buffer.position()))) {
+            System.out.println("a snapshot with 3 players does not restore to the same bytes");
+            failed = true;
+        }
+
+        for (LevelClient client : clients) client.close();
+        relay.close();
+        levelServer.close();
+        screen.dispose();
+
+        if (!remoteShotHits(input)) {
+            System.out.println("the shot of a remote pilot did not destroy the rock in front of it");
+            failed = true;
+        }
+
+        if (failed) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    /**
+     * Serves a new game to a single client, places a rock in front of its spaceship, and shoots.
+     *
+     * @return true if the laser destroyed the rock
+     */
+    private static boolean remoteShotHits(ScriptedInput input) throws IOException {
+        World world = new World(99);
+        world.setInput(input);
+        ShotScreen screen = new ShotScreen(world);
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        NetServer server = new NetServer(new InetSocketAddress(loopback, 0), LevelServer.FIELDS);
+        LevelServer levelServer = new LevelServer(screen, server, 1);
+        LevelClient client = new LevelClient(new InetSocketAddress(loopback, server.getPort()));
+
+        for (int tick = 0; tick < 60 && screen.getPlayerCount() < 2; tick++) {
+            client.update();
+            screen.step(1);
+            client.getClient().poll();
+        }
+        boolean hit = false;
+        if (screen.getPlayerCount() == 2) {
+            // far from the opening rocks, facing right, with a rock 300 pixels ahead
+            Spaceship ship = screen.getSpaceship(1);
+            ship.setPosition(1200, 800);
+            ship.setRotation(0);
+            ship.resetInterpolation();
+            Rock rock = screen.placeRock(1500, 800);
+
+            client.shoot();
+            for (int tick = 0; tick < 60 && !rock.isRemoved(); tick++) {
+                client.update();
+                screen.step(1);
+                client.getClient().poll();
+            }
+            hit = rock.isRemoved();
+        }
+
+        client.close();
+        levelServer.close();
+        screen.dispose();
+        return hit;
+    }
+
+    /**
+     * @return index of the client of the server flying the given player, -1 if none
+     */
+    private static int indexOf(NetServer server, int player) {
+        for (int i = 0; i < server.getClientCount(); i++) {
+            if (server.getPlayer(i) == player) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * LevelScreen placing rocks where the check needs them.
+     */
+    private static class ShotScreen extends LevelScreen {
+
+        ShotScreen(World world) {
+            super(world);
+        }
+
+        /**
+         * Places a rock between ticks, with the rocks of the game.
+         */
+        Rock placeRock(float x, float y) {
+            addRock(x, y);
+            for (Rock rock : BaseActor.getList(mainStage, Rock.class)) {
+                if (rock.getX() == x && rock.getY() == y) return rock;
+            }
+            throw new IllegalStateException("The rock was not placed");
+        }
+    }
+
+    /**
+     * Stand-in for a lossy network between one client and the server: forwards datagrams both ways,
+     * dropping a share of them. The server sees the relay as the client.
+     */
+    static class LossyRelay {
+
+        private final DatagramChannel channel;
+        private final SocketAddress server;
+        private final int loss;
+        private final RandomXS128 random;
+        private final ByteBuffer datagram;
+        private SocketAddress client;
+
+        /**
+         * @param server address of the server
+         * @param loss   share of the datagrams dropped, in percent
+         */
+        LossyRelay(InetSocketAddress server, int loss) throws IOException {
+            this.server = server;
+            this.loss = loss;
+            random = new RandomXS128(42);
+            datagram = ByteBuffer.allocate(2048);
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(new InetSocketAddress(server.getAddress(), 0));
+        }
+
+        /**
+         * @return address the client sends to
+         */
+        InetSocketAddress getAddress() throws IOException {
+            return (InetSocketAddress) channel.getLocalAddress();
+        }
+
+        /**
+         * Forwards the datagrams received since the last call.
+         */
+        void pump() throws IOException {
+            SocketAddress from;
+            while ((from = channel.receive(datagram)) != null) {
+                datagram.flip();
+                boolean fromServer = from.equals(server);
+                if (!fromServer) client = from;
+                if (random.nextInt(100) >= loss && client != null) channel.send(datagram, fromServer ? client : server);
+                datagram.clear();
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.LatencyHistogram;
+import com.framework.NetClient;
+import com.framework.NetServer;
+import com.framework.World;
+import com.spacerocks.LevelClient;
+import com.spacerocks.LevelScreen;
+import com.spacerocks.LevelServer;
+import com.spacerocks.Spaceship;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Cost of serving a LevelScreen as the rock count grows: plays it headless with remote pilots over loopback,
+ * and reports per client the bandwidth of the updates (without UDP/IP headers) and how far behind the server
+ * its state is, and per tick the time taken by the whole tick, by the quantization of the game,
+ * and by the encoding and sending of the updates.
+ * <p>
+ * Usage: <code>NetRunner [ticks] [clients] [send interval] [rock counts...]</code>, run from <code>core/assets</code>.
+ */
+public class NetRunner {
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int sendInterval = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int[] rockCounts = {100, 1000, 10000};
+        if (args.length > 3) {
+            rockCounts = new int[args.length - 3];
+            for (int i = 3; i < args.length; i++) rockCounts[i - 3] = Integer.parseInt(args[i]);
+        }
+
+        Headless.boot();
+        System.out.println(String.format("%d ticks, %d clients, a state every %d tick(s)", ticks, clients, sendInterval));
+        System.out.println("   rocks   KB/s/client  B/update  behind (ticks)   tick p50/p99 (us)"
+                + "   capture p50 (us)   encode+send p50/p99 (us)   decode p50 (us)");
+        // warm up the JIT
+        run(ticks, clients, sendInterval, rockCounts[0], false);
+        for (int rocks : rockCounts) run(ticks, clients, sendInterval, rocks, true);
+        System.exit(0);
+    }
+
+    private static void run(int ticks, int clientCount, int sendInterval, int rocks, boolean report) {
+        World world = new World(42);
+        world.setInput(new ScriptedInput());
+        BenchmarkScreen screen = new BenchmarkScreen(world);
+        for (int i = 0; i < rocks; i++) screen.addRock(world.random(1920f), world.random(1080f));
+
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        NetServer server = new NetServer(new InetSocketAddress(loopback, 0), LevelServer.FIELDS);
+        LevelServer levelServer = new LevelServer(screen, server, sendInterval);
+        LevelClient[] clients = new LevelClient[clientCount];
+        for (int c = 0; c < clientCount; c++) {
+            clients[c] = new LevelClient(new InetSocketAddress(loopback, server.getPort()));
+            clients[c].setControls(Spaceship.TURN_LEFT | Spaceship.THRUST);
+        }
+
+        LatencyHistogram tickLatency = new LatencyHistogram();
+        long behind = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (LevelClient client : clients) {
+                if (tick % 30 == 0) client.shoot();
+                client.update();
+            }
+            long start = System.nanoTime();
+            screen.step(1);
+            tickLatency.record(System.nanoTime() - start);
+            for (LevelClient client : clients) {
+                client.getClient().poll();
+                behind += screen.getTicks() - client.getClient().getSeq();
+            }
+        }
+
+        if (report) {
+            long bytes = 0;
+            long updates = 0;
+            for (int c = 0; c < server.getClientCount(); c++) {
+                bytes += server.getBytesSent(c);
+                updates += server.getUpdatesSent(c);
+            }
+            LatencyHistogram send = server.getSendLatency();
+            NetClient first = clients[0].getClient();
+            System.out.println(String.format("%8d %13.1f %9d %15.2f %10.0f /%7.0f %18.1f %15.1f /%7.1f %17.1f",
+                    rocks, bytes / 1024.0 / clientCount / (ticks / 60.0), updates == 0 ? 0 : bytes / updates,
+                    (double) behind / ticks / clientCount,
+                    tickLatency.getValueAtPercentile(50) / 1e3, tickLatency.getValueAtPercentile(99) / 1e3,
+                    levelServer.getCaptureLatency().getValueAtPercentile(50) / 1e3,
+                    send.getValueAtPercentile(50) / 1e3, send.getValueAtPercentile(99) / 1e3,
+                    first.getDecodeLatency().getValueAtPercentile(50) / 1e3));
+        }
+
+        for (LevelClient client : clients) client.close();
+        levelServer.close();
+        screen.dispose();
+    }
+
+    private static class BenchmarkScreen extends LevelScreen {
+
+        BenchmarkScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void addRock(float x, float y) {
+            super.addRock(x, y);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.BaseActor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline for {@link BroadphaseBenchmark}: every rock against every laser,
+ * as LevelScreen.update used to do. Quadratic, so stops at 10k actors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PairwiseCollisionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int actorCount;
+
+    private CollisionField field;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        field = new CollisionField(actorCount, 42);
+    }
+
+    @Benchmark
+    public int collisionPass() {
+        field.move();
+        int overlaps = 0;
+        for (BaseActor rock : field.rocks) {
+            for (BaseActor laser : field.lasers) {
+                if (laser.overlaps(rock)) overlaps++;
+            }
+        }
+        return overlaps;
+    }
+}
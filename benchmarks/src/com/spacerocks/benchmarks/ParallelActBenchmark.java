@@ -0,0 +1,73 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.BaseScreen;
+import com.framework.World;
+import com.spacerocks.Rock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of a screen full of moving rocks, acted on one thread or with the integrate step
+ * on a fork-join pool of the given size (0 for all cores). Collisions are left out.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelActBenchmark {
+
+    @Param({"20000", "100000"})
+    public int rockCount;
+
+    @Param({"serial", "parallel"})
+    public String act;
+
+    @Param({"0"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private BaseScreen screen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        World world = new World(42);
+        screen = new RockScreen(world);
+        for (int i = 0; i < rockCount; i++) new Rock(world.random(1920f), world.random(1080f), world.getMainStage());
+
+        if (act.equals("parallel")) {
+            pool = threads > 0 ? new ForkJoinPool(threads) : new ForkJoinPool();
+            screen.setParallelAct(pool);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        screen.dispose();
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public void tick() {
+        screen.step(1);
+    }
+
+    private static class RockScreen extends BaseScreen {
+
+        RockScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void initialize() {
+            world.setBounds(1920, 1080);
+            setFixedTimestep(60, 5);
+        }
+
+        @Override
+        public void update(float dt) {
+        }
+    }
+}
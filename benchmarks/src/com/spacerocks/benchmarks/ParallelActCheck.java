@@ -0,0 +1,101 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.ParticleSystem;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plays the same seeded LevelScreen, crowded with extra rocks, single-threaded and with a parallel
+ * act and narrowphase, and compares the position and rotation of every actor and particle
+ * after each tick. Fails at the first difference.
+ * <p>
+ * Usage: <code>ParallelActCheck [rocks] [ticks]</code>, run from <code>core/assets</code>.
+ */
+public class ParallelActCheck {
+
+    public static void main(String[] args) {
+        int rocks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+
+        Headless.boot();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        CheckScreen serial = new CheckScreen(rocks);
+        CheckScreen parallel = new CheckScreen(rocks);
+        parallel.setParallelAct(pool);
+
+        for (int tick = 0; tick < ticks; tick++) {
+            serial.play(tick);
+            parallel.play(tick);
+            String difference = compare(serial.getWorld().getMainStage(), parallel.getWorld().getMainStage());
+            if (difference != null) {
+                System.out.println("FAILED at tick " + tick + ": " + difference);
+                System.exit(1);
+            }
+        }
+        System.out.println(rocks + " rocks, " + ticks + " ticks on " + pool.getParallelism() + " threads: identical");
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    /**
+     * @return description of the first difference, null if none
+     */
+    private static String compare(Stage a, Stage b) {
+        if (a.getActors().size != b.getActors().size) {
+            return a.getActors().size + " actors instead of " + b.getActors().size;
+        }
+        for (int i = 0; i < a.getActors().size; i++) {
+            Actor expected = a.getActors().get(i);
+            Actor actual = b.getActors().get(i);
+            if (expected.getClass() != actual.getClass()
+                    || Float.floatToIntBits(expected.getX()) != Float.floatToIntBits(actual.getX())
+                    || Float.floatToIntBits(expected.getY()) != Float.floatToIntBits(actual.getY())
+                    || Float.floatToIntBits(expected.getRotation()) != Float.floatToIntBits(actual.getRotation())) {
+                return "actor " + i + " (" + expected.getClass().getSimpleName() + ") at " + expected.getX() + ", "
+                        + expected.getY() + " instead of " + actual.getX() + ", " + actual.getY();
+            }
+            if (expected instanceof ParticleSystem) {
+                String difference = compare((ParticleSystem) expected, (ParticleSystem) actual);
+                if (difference != null) return difference;
+            }
+        }
+        return null;
+    }
+
+    private static String compare(ParticleSystem a, ParticleSystem b) {
+        if (a.getLiveCount() != b.getLiveCount()) return a.getLiveCount() + " particles instead of " + b.getLiveCount();
+        for (int i = 0; i < a.getLiveCount(); i++) {
+            if (Float.floatToIntBits(a.getParticleX(i)) != Float.floatToIntBits(b.getParticleX(i))
+                    || Float.floatToIntBits(a.getParticleY(i)) != Float.floatToIntBits(b.getParticleY(i))
+                    || Float.floatToIntBits(a.getParticleRotation(i)) != Float.floatToIntBits(b.getParticleRotation(i))) {
+                return "particle " + i + " at " + a.getParticleX(i) + ", " + a.getParticleY(i)
+                        + " instead of " + b.getParticleX(i) + ", " + b.getParticleY(i);
+            }
+        }
+        return null;
+    }
+
+    private static class CheckScreen extends LevelScreen {
+
+        private final ScriptedInput input;
+
+        CheckScreen(int rocks) {
+            super(new World(1));
+            input = new ScriptedInput();
+            world.setInput(input);
+            for (int i = 0; i < rocks; i++) addRock(world.random(1920f), world.random(1080f));
+        }
+
+        void play(int tick) {
+            input.script(tick);
+            if (tick % 10 == 0) keyDown(Input.Keys.CONTROL_LEFT);
+            if (tick % 600 == 300) keyDown(Input.Keys.X);
+            step(1);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.BaseActor;
+import com.framework.Broadphase;
+import com.framework.UniformGridBroadphase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A collision pass with many candidate pairs: a crowded {@link CollisionField} in which rocks
+ * collide with rocks as well as lasers, through the grid broadphase with the narrowphase run
+ * serially or on a fork-join pool of the given size (0 for all cores).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelNarrowphaseBenchmark {
+
+    private static final int ROCK = 1;
+    private static final int LASER = 2;
+
+    @Param({"10000", "50000"})
+    public int actorCount;
+
+    @Param({"serial", "parallel"})
+    public String narrowphase;
+
+    @Param({"0"})
+    public int threads;
+
+    private CollisionField field;
+    private Broadphase phase;
+    private ForkJoinPool pool;
+    private int overlaps;
+
+    private final Broadphase.Listener counter = new Broadphase.Listener() {
+        @Override
+        public void overlap(BaseActor a, BaseActor b) {
+            overlaps++;
+        }
+    };
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // about 3 candidate pairs per actor, two thirds of them overlapping
+        field = new CollisionField(actorCount, 42, 50);
+        phase = new UniformGridBroadphase(128);
+        for (BaseActor laser : field.lasers) phase.add(laser, LASER, ROCK);
+        for (BaseActor rock : field.rocks) phase.add(rock, ROCK, ROCK | LASER);
+
+        if (narrowphase.equals("parallel")) pool = threads > 0 ? new ForkJoinPool(threads) : new ForkJoinPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) pool.shutdown();
+    }
+
+    @Benchmark
+    public int collisionPass() {
+        field.move();
+        overlaps = 0;
+        phase.findOverlaps(counter, pool);
+        return overlaps;
+    }
+}
@@ -0,0 +1,94 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+import com.framework.ParticleEffect;
+import com.framework.ParticleSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving and drawing many debris of explosions, emitted into a {@link ParticleSystem} or as one actor each.
+ * Particles live through the whole trial, so that the count stays the same.
+ * Drawing goes through a SpriteBatch into the no-op GL, so it measures the CPU side only.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParticleBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int particleCount;
+
+    @Param({"system", "actors"})
+    public String storage;
+
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        BaseActor.setWorldBounds(1920, 1080);
+        MathUtils.random.setSeed(42);
+        stage = Headless.newDrawingStage();
+
+        if (storage.equals("system")) {
+            ParticleSystem particles = new ParticleSystem(stage, particleCount);
+            ParticleEffect debris = particles.addEffect(particles.loadTexture("rock.png"));
+            debris.setLife(1e9f, 1e9f);
+            debris.setSpeed(60, 180);
+            debris.setSpin(360);
+            debris.setScale(0.2f, 0.1f);
+            debris.setFade(true);
+            for (int i = 0; i < particleCount; i++) {
+                particles.burst(debris, MathUtils.random(1920f), MathUtils.random(1080f), 1);
+            }
+        } else {
+            for (int i = 0; i < particleCount; i++) {
+                new Debris(MathUtils.random(1920f), MathUtils.random(1080f), stage);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stage.dispose();
+    }
+
+    @Benchmark
+    public void act() {
+        stage.act(1 / 60f);
+    }
+
+    @Benchmark
+    public void draw() {
+        stage.draw();
+    }
+
+    /**
+     * A debris particle as an actor: drifts and spins, scaled down.
+     */
+    private static class Debris extends BaseActor {
+
+        private final float angularSpeed;
+
+        Debris(float x, float y, Stage s) {
+            super(x, y, s);
+            loadTexture("rock.png");
+            setScale(0.2f);
+            setSpeed(MathUtils.random(60f, 180f));
+            setMotionAngle(MathUtils.random(360f));
+            setDeceleration(0);
+            angularSpeed = MathUtils.random(-360f, 360f);
+        }
+
+        @Override
+        protected void integrate(float dt) {
+            applyPhysics(dt);
+            rotateBy(angularSpeed * dt);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.framework.BaseScreen;
+import com.framework.InputRecorder;
+import com.framework.InputReplay;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Record and replay gate: plays a LevelScreen the way the desktop game does, through render with
+ * irregular frame times (including hitches dropping ticks) and input events delivered between frames,
+ * records it, then replays the log headless and fails if the replayed game ends in a different state.
+ * The rewind is enabled in both games, so that its keys are played too.
+ * <p>
+ * Usage: <code>ReplayCheck [frames]</code>, run from <code>core/assets</code>.
+ */
+public class ReplayCheck {
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+
+        ScriptedInput input = new ScriptedInput();
+        Headless.setInput(input);
+        input.setInputProcessor(new InputMultiplexer());
+
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        LevelScreen recorded = new LevelScreen(new World(1234));
+        recorded.setRewindEnabled(true);
+        recorded.setInputRecorder(new InputRecorder(log));
+        recorded.show();
+        play(recorded, input, frames);
+        long recordedState = state(recorded);
+        long ticks = recorded.getTicks();
+        recorded.hide();
+        recorded.dispose();
+
+        InputReplay replay = new InputReplay(log.toByteArray());
+        boolean failed = false;
+        for (int run = 1; run <= 2; run++) {
+            LevelScreen replayed = new LevelScreen(new World(replay.getSeed()));
+            replayed.setRewindEnabled(true);
+            long played = replay.play(replayed);
+            long replayedState = state(replayed);
+            replayed.dispose();
+            System.out.println(String.format("replay %d: %d/%d ticks, %s", run, played, ticks,
+                    replayedState == recordedState ? "identical" : "DIFFERENT"));
+            if (played != ticks || replayedState != recordedState) failed = true;
+        }
+        System.out.println(String.format("%d frames, %d ticks recorded in %d bytes", frames, ticks, log.size()));
+
+        if (failed) {
+            System.out.println("FAILED: the replay does not reproduce the recorded game");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    /**
+     * @return hash of the actors of both stages of the screen, equal for identical games
+     */
+    static long state(BaseScreen screen) {
+        World world = screen.getWorld();
+        long state = screen.getTicks();
+        for (Actor actor : world.getMainStage().getActors()) {
+            state = 31 * state + Float.floatToIntBits(actor.getX());
+            state = 31 * state + Float.floatToIntBits(actor.getY());
+            state = 31 * state + Float.floatToIntBits(actor.getRotation());
+        }
+        return 31 * state + world.getUiStage().getActors().size;
+    }
+
+    /**
+     * A player at a varying frame rate: turns and thrusts (polled keys), shoots, strafes, warps,
+     * quick saves, quick loads and rewinds (events).
+     */
+    private static void play(LevelScreen screen, ScriptedInput input, int frames) {
+        RandomXS128 random = new RandomXS128(7);
+        InputProcessor events = input.getInputProcessor();
+        float time = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            float dt = random.nextInt(50) == 0 ? 0.2f : 1 / 144f + random.nextFloat() * (1 / 20f - 1 / 144f);
+
+            input.script((int) (time * 60));
+            if (random.nextInt(20) == 0) events.keyDown(Input.Keys.CONTROL_LEFT);
+            if (random.nextInt(60) == 0) events.keyDown(random.nextBoolean() ? Input.Keys.PAGE_UP : Input.Keys.PAGE_DOWN);
+            if (random.nextInt(400) == 0) events.keyDown(Input.Keys.X);
+            if (random.nextInt(10) == 0) events.mouseMoved(random.nextInt(1920), random.nextInt(1080));
+            if (random.nextInt(300) == 0) events.keyDown(Input.Keys.F5);
+            if (random.nextInt(500) == 0) events.keyDown(random.nextBoolean() ? Input.Keys.F9 : Input.Keys.BACKSPACE);
+
+            screen.render(dt);
+            time += dt;
+        }
+    }
+}
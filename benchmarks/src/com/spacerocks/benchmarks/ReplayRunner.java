@@ -0,0 +1,49 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.framework.InputReplay;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+
+import java.io.File;
+
+/**
+ * Turns a recorded session (<code>DesktopLauncher --record file</code>) into a benchmark: replays it
+ * headless several times, as fast as possible, and reports the ticks/s of each run.
+ * Fails if two runs end in different states.
+ * <p>
+ * Usage: <code>ReplayRunner file [runs]</code>, run from <code>core/assets</code>.
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: ReplayRunner file [runs]");
+            System.exit(2);
+        }
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Headless.boot();
+        InputReplay replay = new InputReplay(Gdx.files.absolute(new File(args[0]).getAbsolutePath()));
+        System.out.println(args[0] + ": seed " + replay.getSeed());
+
+        long firstState = 0;
+        for (int run = 1; run <= runs; run++) {
+            LevelScreen screen = new LevelScreen(new World(replay.getSeed()));
+            long start = System.nanoTime();
+            long ticks = replay.play(screen);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long state = ReplayCheck.state(screen);
+            screen.dispose();
+
+            System.out.println(String.format("run %d: %d ticks in %.3f s, %.0f ticks/s", run, ticks, seconds,
+                    ticks / seconds));
+            if (run == 1) firstState = state;
+            else if (state != firstState) {
+                System.out.println("FAIL: run " + run + " ended in a different state");
+                System.exit(1);
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+import com.spacerocks.Rock;
+import com.spacerocks.RockField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moving and drawing many rocks, stored in a {@link RockField} or as one {@link Rock} actor each.
+ * Drawing goes through a SpriteBatch into the no-op GL, so it measures the CPU side only.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RockFieldBenchmark {
+
+    @Param({"10000", "50000", "100000"})
+    public int rockCount;
+
+    @Param({"field", "actors"})
+    public String storage;
+
+    private Stage stage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        BaseActor.setWorldBounds(1920, 1080);
+        MathUtils.random.setSeed(42);
+        stage = Headless.newDrawingStage();
+
+        RockField field = storage.equals("field") ? new RockField(stage) : null;
+        for (int i = 0; i < rockCount; i++) {
+            float x = MathUtils.random(1920);
+            float y = MathUtils.random(1080);
+            if (field != null) field.spawn(x, y);
+            else new Rock(x, y, stage);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stage.dispose();
+    }
+
+    @Benchmark
+    public void act() {
+        stage.act(1 / 60f);
+    }
+
+    @Benchmark
+    public void draw() {
+        stage.draw();
+    }
+}
@@ -0,0 +1,54 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+
+/**
+ * Input polled by actors whose key states are set by a script before each tick.
+ */
+public class ScriptedInput extends MockInput {
+
+    private final boolean[] pressed = new boolean[256];
+    private InputProcessor processor;
+
+    /**
+     * Releases every key; call at the start of each tick.
+     */
+    public void clear() {
+        for (int i = 0; i < pressed.length; i++) pressed[i] = false;
+    }
+
+    public void press(int key) {
+        pressed[key] = true;
+    }
+
+    /**
+     * Flies the ship in a repeating 4 second pattern: turn, thrust, counter-turn, thrust, coast.
+     *
+     * @param tick index of the tick about to run
+     */
+    public void script(int tick) {
+        clear();
+        int t = tick % 240;
+        if (t < 60) press(Input.Keys.LEFT);
+        else if (t < 90) press(Input.Keys.UP);
+        else if (t < 150) press(Input.Keys.RIGHT);
+        else if (t < 180) press(Input.Keys.UP);
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        return key >= 0 && key < pressed.length && pressed[key];
+    }
+
+    @Override
+    public void setInputProcessor(InputProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public InputProcessor getInputProcessor() {
+        return processor;
+    }
+}
@@ -0,0 +1,77 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.World;
+import com.framework.WorldSnapshot;
+import com.spacerocks.LevelScreen;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of saving and restoring LevelScreen with extra Rock actors: <code>write</code> is what the rewind
+ * history pays every 6 ticks; <code>rewind</code> restores the snapshot then runs a tick, which drops
+ * the broadphase entries of the replaced actors, to compare with <code>tick</code> alone.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int rockCount;
+
+    private BenchmarkScreen screen;
+    private WorldSnapshot snapshot;
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        World world = new World(42);
+        world.setInput(new ScriptedInput());
+        screen = new BenchmarkScreen(world);
+        for (int i = 0; i < rockCount; i++) screen.addRock(world.random(1920f), world.random(1080f));
+        screen.step(1);
+
+        snapshot = screen.getSnapshot();
+        buffer = ByteBuffer.allocate(100 * rockCount + 4096);
+        snapshot.write(buffer);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        screen.dispose();
+    }
+
+    @Benchmark
+    public int write() {
+        buffer.clear();
+        return snapshot.write(buffer);
+    }
+
+    @Benchmark
+    public void rewind() {
+        buffer.rewind();
+        snapshot.read(buffer);
+        screen.step(1);
+    }
+
+    @Benchmark
+    public void tick() {
+        screen.step(1);
+    }
+
+    private static class BenchmarkScreen extends LevelScreen {
+
+        BenchmarkScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void addRock(float x, float y) {
+            super.addRock(x, y);
+        }
+    }
+}
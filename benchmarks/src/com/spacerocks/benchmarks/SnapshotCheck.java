@@ -0,0 +1,98 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.framework.SnapshotRing;
+import com.framework.World;
+import com.framework.WorldSnapshot;
+import com.spacerocks.LevelScreen;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Snapshot gate: saves a scripted LevelScreen, plays on, restores it, and fails unless the restored
+ * game saves to the same bytes and then plays on to the same state as the first time.
+ * Also restores the snapshot into another screen. Reports the cost of a snapshot and
+ * the memory used by the rewind history, enabled for the check.
+ * <p>
+ * Usage: <code>SnapshotCheck [ticks]</code>, run from <code>core/assets</code>.
+ */
+public class SnapshotCheck {
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1200;
+
+        ScriptedInput input = new ScriptedInput();
+        World world = new World(11);
+        world.setInput(input);
+        Headless.boot();
+        LevelScreen screen = new LevelScreen(world);
+        screen.setRewindEnabled(true);
+        WorldSnapshot snapshot = screen.getSnapshot();
+
+        play(screen, input, 0, ticks);
+        byte[] saved = save(snapshot);
+        play(screen, input, ticks, 2 * ticks);
+        byte[] later = save(snapshot);
+
+        boolean failed = false;
+        snapshot.read(ByteBuffer.wrap(saved));
+        long readNanos = snapshot.getLastReadNanos();
+        failed |= !check("restored game saves the same", save(snapshot), saved);
+        play(screen, input, ticks, 2 * ticks);
+        failed |= !check("restored game plays on the same", save(snapshot), later);
+
+        World otherWorld = new World(99);
+        otherWorld.setInput(new ScriptedInput());
+        LevelScreen other = new LevelScreen(otherWorld);
+        other.getSnapshot().read(ByteBuffer.wrap(saved));
+        failed |= !check("other screen restores the same", save(other.getSnapshot()), saved);
+        other.dispose();
+
+        SnapshotRing ring = screen.getRewindBuffer();
+        System.out.println(String.format("snapshot: %d bytes, write %.1f us, restore %.1f us",
+                saved.length, ring.getMeanSnapshotNanos() / 1000, readNanos / 1000.0));
+        System.out.println(String.format("rewind: %d/%d snapshots, %.1f s, %.0f bytes per second of history,"
+                        + " %d bytes reserved", ring.getSize(), ring.getCapacity(), ring.getSeconds(),
+                ring.getBytesPerSecond(), ring.getReservedBytes()));
+        int size = ring.getSize();
+        ring.rewind(10);
+        failed |= !check("rewind drops the newer snapshots", ring.getSize() == size - 9);
+        screen.dispose();
+
+        if (failed) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    private static byte[] save(WorldSnapshot snapshot) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        snapshot.write(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static boolean check(String what, byte[] actual, byte[] expected) {
+        return check(what, Arrays.equals(actual, expected));
+    }
+
+    private static boolean check(String what, boolean ok) {
+        System.out.println(what + ": " + (ok ? "yes" : "NO"));
+        return ok;
+    }
+
+    /**
+     * The pilot of WorldRunner, by tick index: the same ticks play the same game.
+     */
+    private static void play(LevelScreen screen, ScriptedInput input, int from, int to) {
+        for (int tick = from; tick < to; tick++) {
+            input.script(tick);
+            if (tick % 30 == 0) screen.keyDown(Input.Keys.CONTROL_LEFT);
+            if (tick % 240 == 200) screen.keyDown(Input.Keys.PAGE_UP);
+            if (tick % 600 == 300) screen.keyDown(Input.Keys.X);
+            screen.step(1);
+        }
+    }
+}
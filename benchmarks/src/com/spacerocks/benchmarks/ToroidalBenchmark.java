@@ -0,0 +1,127 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.framework.BaseActor;
+import com.framework.BaseScreen;
+import com.framework.Broadphase;
+import com.framework.SweepAndPruneBroadphase;
+import com.framework.UniformGridBroadphase;
+import com.framework.World;
+import com.spacerocks.Rock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of joining the edges of the world (see <code>World.setToroidal</code>), against the same work
+ * in a world with edges:
+ * <code>collisionPass</code> is the rock/laser pass of {@link BroadphaseBenchmark}, matching pairs across
+ * the edges; <code>frame</code> is a frame (a tick, then drawing) of rocks wrapping around a world the size
+ * of the viewport, drawing again those straddling an edge.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToroidalBenchmark {
+
+    private static final int ROCK = 1;
+    private static final int LASER = 2;
+
+    @State(Scope.Benchmark)
+    public static class Collision {
+
+        @Param({"1000", "10000", "50000"})
+        public int actorCount;
+
+        @Param({"grid", "sap"})
+        public String broadphase;
+
+        @Param({"off", "on"})
+        public String wrap;
+
+        private CollisionField field;
+        private Broadphase phase;
+        private int overlaps;
+
+        private final Broadphase.Listener counter = new Broadphase.Listener() {
+            @Override
+            public void overlap(BaseActor a, BaseActor b) {
+                overlaps++;
+            }
+        };
+
+        @Setup(Level.Trial)
+        public void setup() {
+            field = new CollisionField(actorCount, 42);
+            if (broadphase.equals("grid")) phase = new UniformGridBroadphase(128);
+            else phase = new SweepAndPruneBroadphase();
+            if (wrap.equals("on")) phase.setWrap(field.worldSize, field.worldSize);
+
+            for (BaseActor laser : field.lasers) phase.add(laser, LASER, ROCK);
+            for (BaseActor rock : field.rocks) phase.add(rock, ROCK, LASER);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Drawing {
+
+        @Param({"1000", "10000"})
+        public int rockCount;
+
+        @Param({"off", "on"})
+        public String wrap;
+
+        private BaseScreen screen;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Headless.boot();
+            World world = new World(42);
+            world.setBounds(1920, 1080);
+            world.setToroidal(wrap.equals("on"));
+            screen = new RockScreen(world);
+            for (int i = 0; i < rockCount; i++) {
+                new Rock(world.random(1920f), world.random(1080f), world.getMainStage());
+            }
+            // headless, the viewport has the size of no window
+            Viewport viewport = world.getMainStage().getViewport();
+            viewport.setWorldSize(1920, 1080);
+            viewport.setScreenSize(1920, 1080);
+            viewport.apply(true);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            screen.dispose();
+        }
+    }
+
+    @Benchmark
+    public int collisionPass(Collision state) {
+        state.field.move();
+        state.overlaps = 0;
+        state.phase.findOverlaps(state.counter);
+        return state.overlaps;
+    }
+
+    @Benchmark
+    public void frame(Drawing state) {
+        state.screen.render(1 / 60f);
+    }
+
+    private static class RockScreen extends BaseScreen {
+
+        RockScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void initialize() {
+            setFixedTimestep(60, 1);
+        }
+
+        @Override
+        public void update(float dt) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+import com.spacerocks.Laser;
+import com.spacerocks.Rock;
+
+/**
+ * Fires lasers at rocks at several tick rates, with and without continuous collision,
+ * and reports the hit rates. Every shot is aimed inside the rock, so anything below 100%
+ * is tunnelling. Fails if continuous collision misses any shot.
+ * At 30 Hz the game's lasers still move less than a rock and their own length per tick, so the check
+ * also fires lasers twice as fast at 30 Hz, and fails unless discrete collision misses some of them.
+ * <p>
+ * Usage: <code>TunnelingCheck [shots]</code>, run from <code>core/assets</code>.
+ */
+public class TunnelingCheck {
+
+    private static final int[] TICK_RATES = {240, 120, 60, 30, 15, 10};
+
+    // Speed of the lasers of the game, and of lasers stepping over rocks at 30 Hz (pixels per second)
+    private static final float LASER_SPEED = 2000;
+    private static final float FAST_LASER_SPEED = 4000;
+
+    public static void main(String[] args) {
+        int shots = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        Stage stage = Headless.newStage();
+        BaseActor.setWorldBounds(100000, 100000);
+
+        boolean failed = false;
+        for (int rate : TICK_RATES) {
+            float discrete = hitRate(stage, shots, rate, LASER_SPEED, false);
+            float continuous = hitRate(stage, shots, rate, LASER_SPEED, true);
+            System.out.println(String.format("%4d Hz: discrete %5.1f%%, continuous %5.1f%%",
+                    rate, discrete * 100, continuous * 100));
+            if (continuous < 1) failed = true;
+        }
+
+        float discrete = hitRate(stage, shots, 30, FAST_LASER_SPEED, false);
+        float continuous = hitRate(stage, shots, 30, FAST_LASER_SPEED, true);
+        System.out.println(String.format("  30 Hz, lasers at %.0f px/s: discrete %5.1f%%, continuous %5.1f%%",
+                FAST_LASER_SPEED, discrete * 100, continuous * 100));
+        if (continuous < 1) failed = true;
+
+        if (failed) {
+            System.out.println("FAILED: continuous collision missed shots");
+            System.exit(1);
+        }
+        if (discrete == 1) {
+            System.out.println("FAILED: discrete collision hit every fast shot at 30 Hz, so nothing tunnelled");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    private static float hitRate(Stage stage, int shots, int rate, float laserSpeed, boolean continuous) {
+        RandomXS128 random = new RandomXS128(rate);
+        MathUtils.random.setSeed(rate);
+        float dt = 1f / rate;
+        int hits = 0;
+
+        for (int shot = 0; shot < shots; shot++) {
+            // spinning but not drifting, so that every shot aimed inside is a hit
+            Rock rock = new Rock(0, 0, stage);
+            rock.centerAtPosition(50000, 50000);
+            rock.setSpeed(0);
+
+            // from 200 to 600 pixels away, aimed within 80% of the circle inscribed in the rock
+            float angle = random.nextFloat() * 360;
+            float distance = 200 + random.nextFloat() * 400;
+            float offset = (random.nextFloat() * 2 - 1) * Math.min(rock.getWidth(), rock.getHeight()) / 2 * 0.8f;
+            Laser laser = new Laser(0, 0, stage);
+            laser.setContinuousCollision(continuous);
+            laser.setMaxSpeed(laserSpeed);
+            laser.setSpeed(laserSpeed);
+            laser.centerAtPosition(
+                    50000 - MathUtils.cosDeg(angle) * distance - MathUtils.sinDeg(angle) * offset,
+                    50000 - MathUtils.sinDeg(angle) * distance + MathUtils.cosDeg(angle) * offset);
+            laser.setRotation(angle);
+            laser.setMotionAngle(angle);
+
+            // the laser fades out and removes itself after 0.75 second
+            while (laser.getStage() != null) {
+                rock.act(dt);
+                laser.act(dt);
+                if (laser.overlaps(rock)) {
+                    hits++;
+                    break;
+                }
+            }
+            laser.remove();
+            rock.remove();
+        }
+        return hits / (float) shots;
+    }
+}
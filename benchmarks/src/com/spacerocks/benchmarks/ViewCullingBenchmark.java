@@ -0,0 +1,83 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.framework.BaseActor;
+import com.framework.BaseScreen;
+import com.framework.World;
+import com.spacerocks.Rock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame (a tick, then drawing) of a world of moving rocks, with the camera at its center,
+ * drawing every actor or only those in the view of the camera (see {@link com.framework.ViewCuller}).
+ * The world is <code>worldScale</code> viewports wide and high, so about 1 / worldScale&sup2;
+ * of the rocks are in view; at scale 1 culling only adds its cost. A background covers the world,
+ * as in the game, and is drawn whatever the view.
+ * Drawing goes through a SpriteBatch into the no-op GL, so it measures the CPU side only.
+ * Run from <code>core/assets</code> (the jmh task does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ViewCullingBenchmark {
+
+    @Param({"10000", "50000"})
+    public int rockCount;
+
+    @Param({"1", "4"})
+    public int worldScale;
+
+    @Param({"on", "off"})
+    public String culling;
+
+    private BaseScreen screen;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Headless.boot();
+        World world = new World(42);
+        world.setBounds(1920 * worldScale, 1080 * worldScale);
+        screen = new RockScreen(world);
+        screen.setViewCulling(culling.equals("on"));
+        BaseActor space = new BaseActor(0, 0, world.getMainStage());
+        space.loadTexture("space.png");
+        space.setSize(world.getBounds().width, world.getBounds().height);
+        for (int i = 0; i < rockCount; i++) {
+            new Rock(world.random(world.getBounds().width), world.random(world.getBounds().height), world.getMainStage());
+        }
+        // headless, the viewport has the size of no window
+        Viewport viewport = world.getMainStage().getViewport();
+        viewport.setWorldSize(1920, 1080);
+        viewport.setScreenSize(1920, 1080);
+        viewport.apply();
+        world.getMainStage().getCamera().position.set(world.getBounds().width / 2, world.getBounds().height / 2, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        screen.dispose();
+    }
+
+    @Benchmark
+    public void frame() {
+        screen.render(1 / 60f);
+    }
+
+    private static class RockScreen extends BaseScreen {
+
+        RockScreen(World world) {
+            super(world);
+        }
+
+        @Override
+        public void initialize() {
+            setFixedTimestep(60, 1);
+        }
+
+        @Override
+        public void update(float dt) {
+        }
+    }
+}
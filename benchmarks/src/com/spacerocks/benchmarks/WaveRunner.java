@@ -0,0 +1,69 @@
+package com.spacerocks.benchmarks;
+
+import com.framework.LatencyHistogram;
+import com.framework.WaveDirector;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+
+/**
+ * Frame-time impact of a large wave of rocks: plays a LevelScreen headless, sends a wave, and reports
+ * how long the wave took to spawn, the time spent spawning per tick, and the tick times before, during
+ * and after the wave, for the wave spawned at once, under the default count budget, and under a count
+ * and time budget.
+ * <p>
+ * Usage: <code>WaveRunner [wave size] [time budget (microseconds)]</code>, run from <code>core/assets</code>.
+ */
+public class WaveRunner {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int budgetMicros = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+
+        Headless.boot();
+        System.out.println(String.format("wave of %d rocks", size));
+        System.out.println("budget                 wave (ticks, ms)   spawn/tick p50/max (us)   max spawns/tick"
+                + "   tick p99 before/during/after (us)   tick max during (us)");
+        // warm up the JIT
+        run(size, Integer.MAX_VALUE, 0, null);
+        run(size, Integer.MAX_VALUE, 0, "all at once");
+        run(size, 256, 0, "256 spawns");
+        run(size, 1024, budgetMicros * 1000L, "1024 spawns, " + budgetMicros + " us");
+        System.exit(0);
+    }
+
+    private static void run(int size, int maxSpawns, long maxNanos, String label) {
+        World world = new World(42);
+        world.setInput(new ScriptedInput());
+        LevelScreen screen = new LevelScreen(world);
+        WaveDirector waves = screen.getWaves();
+        waves.setBudget(maxSpawns, maxNanos);
+
+        LatencyHistogram before = new LatencyHistogram();
+        LatencyHistogram during = new LatencyHistogram();
+        LatencyHistogram after = new LatencyHistogram();
+        for (int i = 0; i < 300; i++) before.record(tick(screen));
+
+        int maxSpawnsPerTick = 0;
+        screen.startWave(size);
+        while (waves.isSpawning()) {
+            during.record(tick(screen));
+            maxSpawnsPerTick = Math.max(maxSpawnsPerTick, waves.getLastSpawns());
+        }
+        for (int i = 0; i < 300; i++) after.record(tick(screen));
+        screen.dispose();
+
+        if (label == null) return;
+        LatencyHistogram spawn = waves.getSpawnTime();
+        System.out.println(String.format("%-22s %6d, %8.1f %14.0f /%8.0f %17d %14.0f /%7.0f /%7.0f %22.0f",
+                label, waves.getLastWaveTicks(), waves.getLastWaveNanos() / 1e6,
+                spawn.getValueAtPercentile(50) / 1e3, spawn.getMax() / 1e3, maxSpawnsPerTick,
+                before.getValueAtPercentile(99) / 1e3, during.getValueAtPercentile(99) / 1e3,
+                after.getValueAtPercentile(99) / 1e3, during.getMax() / 1e3));
+    }
+
+    private static long tick(LevelScreen screen) {
+        long start = System.nanoTime();
+        screen.step(1);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,140 @@
+package com.spacerocks.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.framework.World;
+import com.spacerocks.LevelScreen;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Batch simulation: plays many independent LevelScreen worlds headless, one per thread at a time,
+ * each with its own seed and scripted pilot, and reports the simulation throughput.
+ * Runs once on a single thread, then on every core, to show how throughput scales,
+ * and checks that a world plays the same game whichever thread runs it.
+ * <p>
+ * Usage: <code>WorldRunner [worlds] [ticks per world] [threads]</code>, run from <code>core/assets</code>.
+ */
+public class WorldRunner {
+
+    // Stages own a SpriteBatch, whose shader is registered in a static map of libGDX
+    private static final Object glLock = new Object();
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : cores;
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 4 * threads;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 3600;
+
+        Headless.boot();
+        System.out.println(worlds + " worlds x " + ticks + " ticks, " + cores + " cores");
+
+        // warm up the JIT and the asset cache
+        run(Math.min(worlds, threads), ticks / 4, threads);
+
+        Result single = run(Math.max(1, worlds / threads), ticks, 1);
+        double singleRate = report("1 thread", single, 1);
+        if (threads > 1) {
+            Result parallel = run(worlds, ticks, threads);
+            double parallelRate = report(threads + " threads", parallel, Math.min(threads, cores));
+            System.out.println(String.format("scaling efficiency: %.0f%%", 100 * parallelRate / singleRate));
+
+            for (int i = 0; i < single.states.length; i++) {
+                if (single.states[i] != parallel.states[i]) {
+                    System.out.println("FAIL: world " + (i + 1) + " diverged when run concurrently");
+                    System.exit(1);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return ticks/s per core, wall clock
+     */
+    private static double report(String label, Result result, int coresUsed) {
+        double seconds = result.wallNanos / 1e9;
+        double perCore = result.ticks / seconds / coresUsed;
+        System.out.println(String.format("%-10s %8d ticks in %6.2f s: %10.0f ticks/s, %9.0f ticks/s per core"
+                        + " (%9.0f per CPU second)", label, result.ticks, seconds, result.ticks / seconds,
+                perCore, result.ticks / (result.cpuNanos / 1e9)));
+        return perCore;
+    }
+
+    private static Result run(int worlds, final int ticks, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> games = new ArrayList<Future<long[]>>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < worlds; i++) {
+            final long seed = i + 1;
+            games.add(executor.submit(new Callable<long[]>() {
+                @Override
+                public long[] call() {
+                    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                    long cpu = bean.getCurrentThreadCpuTime();
+                    long state = play(seed, ticks);
+                    return new long[]{bean.getCurrentThreadCpuTime() - cpu, state};
+                }
+            }));
+        }
+
+        Result result = new Result();
+        result.states = new long[worlds];
+        for (int i = 0; i < worlds; i++) {
+            long[] game = games.get(i).get();
+            result.cpuNanos += game[0];
+            result.states[i] = game[1];
+        }
+        result.wallNanos = System.nanoTime() - start;
+        result.ticks = (long) worlds * ticks;
+        executor.shutdown();
+        return result;
+    }
+
+    /**
+     * Plays one game: the pilot of AllocationGate flies, shoots every half second and warps every 10 s.
+     *
+     * @return hash of the final positions of the actors, equal for equal seeds
+     */
+    private static long play(long seed, int ticks) {
+        World world = new World(seed);
+        ScriptedInput input = new ScriptedInput();
+        world.setInput(input);
+        LevelScreen screen;
+        synchronized (glLock) {
+            screen = new LevelScreen(world);
+        }
+
+        for (int tick = 0; tick < ticks; tick++) {
+            input.script(tick);
+            if (tick % 30 == 0) screen.keyDown(Input.Keys.CONTROL_LEFT);
+            if (tick % 600 == 300) screen.keyDown(Input.Keys.X);
+            screen.step(1);
+        }
+
+        long state = 0;
+        for (Actor actor : world.getMainStage().getActors()) {
+            state = 31 * state + Float.floatToIntBits(actor.getX());
+            state = 31 * state + Float.floatToIntBits(actor.getY());
+        }
+        synchronized (glLock) {
+            screen.dispose();
+        }
+        return state;
+    }
+
+    private static class Result {
+        long ticks;
+        long wallNanos;
+        long cpuNanos;
+        long[] states;
+    }
+}
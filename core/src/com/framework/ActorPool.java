@@ -0,0 +1,154 @@
+package com.framework;
+
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Recycles short-lived actors (lasers, explosions, effects) instead of constructing new ones.
+ * An actor created by the pool returns to it by itself when it is removed from its stage,
+ * and is <code>reset()</code> before being placed on a stage again.
+ * Hits and misses are counted, so that sustained spawning can be checked to stop allocating.
+ *
+ * @param <T> pooled class
+ */
+public abstract class ActorPool<T extends BaseActor> {
+
+    private final Array<T> freeActors;
+    private final int max;
+    private int reserved; // capacity of freeActors
+
+    // Statistics
+    private int hits;
+    private int misses;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public ActorPool() {
+        this(256);
+    }
+
+    /**
+     * @param max maximum number of free actors kept; extra ones are left to the garbage collector
+     */
+    public ActorPool(int max) {
+        this.max = max;
+        freeActors = new Array<T>(false, 16);
+        reserved = 16;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of obtain calls served by a recycled actor
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of obtain calls which had to construct a new actor
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of actors waiting to be reused
+     */
+    public int getFree() {
+        return freeActors.size;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Places a recycled actor, or a new one if none is free, on the given stage.
+     * During a tick of the world, either is placed at the end of the tick by the command buffer of the world,
+     * so that the actors obtained in a tick are placed in the order they were obtained (e.g. the order a snapshot
+     * restores them in, whatever the hits and misses).
+     *
+     * @param s stage to add the actor to
+     * @return actor in the state of a newly constructed one, at position (0, 0)
+     */
+    public T obtain(Stage s) {
+        if (freeActors.size == 0) {
+            misses++;
+            // room to free every actor created, so that freeing them never allocates
+            if (reserved < Math.min(misses, max)) {
+                reserved = Math.min(Math.max(misses, reserved * 2), max);
+                freeActors.ensureCapacity(reserved - freeActors.size);
+            }
+            // placed by the BaseActor constructor, through the command buffer
+            T actor = newActor(s);
+            actor.pool = this;
+            return actor;
+        }
+        hits++;
+        T actor = freeActors.pop();
+        actor.reset();
+        World.of(s).getCommands().spawn(actor, s.getRoot());
+        return actor;
+    }
+
+    /**
+     * Forgets the free actors and the statistics.
+     */
+    public void clear() {
+        freeActors.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Releases the animations of the free actors, then forgets them.
+     */
+    public void dispose() {
+        for (int i = 0; i < freeActors.size; i++) discard(freeActors.get(i));
+        clear();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Constructs a new actor on the given stage.
+     *
+     * @param s stage to pass to the constructor
+     * @return new actor
+     */
+    protected abstract T newActor(Stage s);
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by BaseActor when the actor leaves its stage.
+     * It is reset only when obtained again, since it may still be running its actions.
+     */
+    @SuppressWarnings("unchecked")
+    void free(BaseActor actor) {
+        if (freeActors.size < max) freeActors.add((T) actor);
+        else discard(actor);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static void discard(BaseActor actor) {
+        actor.pool = null;
+        actor.releaseAnimations();
+    }
+}
@@ -0,0 +1,90 @@
+package com.framework;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.SnapshotArray;
+
+/**
+ * Per-stage index of the BaseActor instances placed directly on the stage, by class.
+ * An actor is listed under its own class and every superclass up to BaseActor.
+ * Lists are updated incrementally when actors are added to or removed from the stage;
+ * removal swaps the last element into the freed slot, so it is O(1) but does not keep order.
+ * Each stage of a world holds its registry (see <code>World.getRegistry</code>), used by the thread of the world.
+ */
+class ActorRegistry {
+
+    private final ObjectMap<Class<?>, SnapshotArray<BaseActor>> lists;
+
+    // Depth of each class below BaseActor (BaseActor itself is 0)
+    private final ObjectIntMap<Class<?>> depths;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    ActorRegistry() {
+        lists = new ObjectMap<Class<?>, SnapshotArray<BaseActor>>();
+        depths = new ObjectIntMap<Class<?>>();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Returns the live list of instances of the given class (or of its subclasses).
+     * Iterate between <code>begin()</code> and <code>end()</code> when the loop may add or remove actors.
+     *
+     * @param type class extending BaseActor
+     * @return live list, empty if no instance is on the stage
+     */
+    SnapshotArray<BaseActor> list(Class<?> type) {
+        SnapshotArray<BaseActor> list = lists.get(type);
+        if (list == null) {
+            list = new SnapshotArray<BaseActor>(false, 16, BaseActor.class);
+            lists.put(type, list);
+        }
+        return list;
+    }
+
+    void add(BaseActor actor) {
+        int depth = depth(actor.getClass());
+        if (actor.registryIndices == null || actor.registryIndices.length != depth + 1) {
+            actor.registryIndices = new int[depth + 1];
+        }
+
+        Class<?> type = actor.getClass();
+        for (int level = depth; level >= 0; level--) {
+            SnapshotArray<BaseActor> list = list(type);
+            actor.registryIndices[level] = list.size;
+            list.add(actor);
+            type = type.getSuperclass();
+        }
+    }
+
+    void remove(BaseActor actor) {
+        Class<?> type = actor.getClass();
+        for (int level = actor.registryIndices.length - 1; level >= 0; level--) {
+            SnapshotArray<BaseActor> list = lists.get(type);
+            int index = actor.registryIndices[level];
+            list.removeIndex(index);
+            // the last actor took the freed slot
+            if (index < list.size) list.get(index).registryIndices[level] = index;
+            type = type.getSuperclass();
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private int depth(Class<?> type) {
+        int depth = depths.get(type, -1);
+        if (depth == -1) {
+            depth = 0;
+            for (Class<?> c = type; c != BaseActor.class; c = c.getSuperclass()) depth++;
+            depths.put(type, depth);
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,254 @@
+package com.framework;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Opt-in accounting of the memory allocated by the game thread, per frame and per phase of
+ * <code>BaseScreen.render</code>, read from the allocated-bytes counter of the JVM's ThreadMXBean.
+ * Frames allocating more than a budget are reported to a listener, along with the actor classes
+ * spawned (placed on a stage of the world) during the frame, to find the gameplay events
+ * behind garbage collection pauses. Allocations and spawns between two frames, such as those
+ * of input events, are counted in the next frame as events.
+ * <p>
+ * Enable it with <code>world.setAllocationProbe(new AllocationProbe(budget))</code>.
+ * Requires a HotSpot-compatible JVM (desktop); the memory used by the probe itself is not counted.
+ */
+public class AllocationProbe {
+
+    /**
+     * Notified of the frames which allocate more than the budget.
+     */
+    public interface Listener {
+        /**
+         * Called at the end of the frame; the getters of the probe describe this frame.
+         *
+         * @param probe probe which measured the frame
+         */
+        void overBudget(AllocationProbe probe);
+    }
+
+    /**
+     * Logs each frame over budget with <code>Gdx.app.log</code>.
+     */
+    public static final Listener LOG = new Listener() {
+        @Override
+        public void overBudget(AllocationProbe probe) {
+            Gdx.app.log("AllocationProbe", probe.describeFrame());
+        }
+    };
+
+    private static final FrameTimings.Phase[] PHASES = FrameTimings.Phase.values();
+
+    private final com.sun.management.ThreadMXBean bean;
+    private final long threadId;
+    private final long readingCost; // bytes allocated by reading the counter, subtracted
+
+    private final long budget;
+    private Listener listener;
+
+    // Current frame
+    private long lastReading;
+    private final long[] phaseBytes;
+    private long eventBytes;
+    private long frameBytes;
+    private final ObjectIntMap<Class<?>> spawned;
+
+    // Totals
+    private long frames;
+    private long framesOverBudget;
+    private long totalBytes;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Creates a probe measuring the calling thread, which should be the thread rendering the screen.
+     *
+     * @param budget bytes a frame may allocate before it is reported
+     * @throws UnsupportedOperationException if the JVM cannot count allocated bytes per thread
+     */
+    public AllocationProbe(long budget) {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            throw new UnsupportedOperationException("Allocated bytes per thread are not available on this JVM");
+        }
+        bean = (com.sun.management.ThreadMXBean) threads;
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("Allocated bytes per thread are not available on this JVM");
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+
+        this.budget = budget;
+        listener = LOG;
+        phaseBytes = new long[PHASES.length];
+        spawned = new ObjectIntMap<Class<?>>();
+
+        // some JVMs allocate when reading the counter
+        long first = read();
+        readingCost = read() - first;
+        lastReading = read();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return bytes allocated by the last frame
+     */
+    public long getFrameBytes() {
+        return frameBytes;
+    }
+
+    /**
+     * @return bytes allocated between the last two frames, e.g. by input events
+     */
+    public long getEventBytes() {
+        return eventBytes;
+    }
+
+    /**
+     * @param phase phase of render
+     * @return bytes allocated by the phase in the last frame
+     */
+    public long getPhaseBytes(FrameTimings.Phase phase) {
+        return phaseBytes[phase.ordinal()];
+    }
+
+    /**
+     * @param type actor class
+     * @return number of actors of exactly this class spawned in the last frame or just before it
+     */
+    public int getSpawned(Class<? extends BaseActor> type) {
+        return spawned.get(type, 0);
+    }
+
+    /**
+     * @return number of frames measured
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return number of frames which allocated more than the budget
+     */
+    public long getFramesOverBudget() {
+        return framesOverBudget;
+    }
+
+    /**
+     * @return mean bytes allocated per frame
+     */
+    public double getMeanFrameBytes() {
+        return frames == 0 ? 0 : (double) totalBytes / frames;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * @param listener notified of the frames over budget ({@link #LOG} by default), null to only count them
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * @return the last frame, e.g. "frame 120: 35120 B (events 1200, update 33400, main_act 520), spawned Laser x1"
+     */
+    public String describeFrame() {
+        StringBuilder text = new StringBuilder();
+        text.append("frame ").append(frames).append(": ").append(frameBytes).append(" B (");
+        text.append("events ").append(eventBytes);
+        for (FrameTimings.Phase phase : PHASES) {
+            if (phase == FrameTimings.Phase.FRAME || phaseBytes[phase.ordinal()] == 0) continue;
+            text.append(", ").append(phase.name().toLowerCase()).append(' ').append(phaseBytes[phase.ordinal()]);
+        }
+        text.append(')');
+        if (spawned.size > 0) {
+            text.append(", spawned");
+            for (ObjectIntMap.Entry<Class<?>> entry : spawned.entries()) {
+                text.append(' ').append(entry.key.getSimpleName()).append(" x").append(entry.value);
+            }
+        }
+        return text.toString();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by BaseScreen.render when a frame starts.
+     */
+    void beginFrame() {
+        long reading = read();
+        eventBytes = Math.max(0, reading - lastReading - readingCost);
+        lastReading = reading;
+    }
+
+    /**
+     * Called by BaseScreen.render at the end of each phase (several times per frame for
+     * the phases run by each tick): the bytes allocated since the previous call go to the phase.
+     */
+    void endPhase(FrameTimings.Phase phase) {
+        long reading = read();
+        phaseBytes[phase.ordinal()] += Math.max(0, reading - lastReading - readingCost);
+        lastReading = reading;
+    }
+
+    /**
+     * Called by BaseScreen.render when a frame ends.
+     */
+    void endFrame() {
+        frameBytes = eventBytes;
+        for (FrameTimings.Phase phase : PHASES) frameBytes += phaseBytes[phase.ordinal()];
+        phaseBytes[FrameTimings.Phase.FRAME.ordinal()] = frameBytes;
+
+        frames++;
+        totalBytes += frameBytes;
+        if (frameBytes > budget) {
+            framesOverBudget++;
+            if (listener != null) listener.overBudget(this);
+        }
+
+        // start counting the next frame, leaving out what the listener allocated
+        for (int i = 0; i < phaseBytes.length; i++) phaseBytes[i] = 0;
+        spawned.clear();
+        lastReading = read();
+    }
+
+    /**
+     * Called by BaseActor when an actor is placed on a stage of the world.
+     */
+    void spawned(BaseActor actor) {
+        if (Thread.currentThread().getId() == threadId) spawned.getAndIncrement(actor.getClass(), 0, 1);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private long read() {
+        return bean.getThreadAllocatedBytes(threadId);
+    }
+}
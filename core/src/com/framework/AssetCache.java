@@ -0,0 +1,338 @@
+package com.framework;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Reference-counted cache of the textures and animations loaded by BaseActor.
+ * Each image file is decoded and uploaded once, and identical animations (same files or sheet,
+ * frame duration and play mode) are shared by all the actors which load them,
+ * so a shared animation must not be modified.
+ * A texture is disposed when the last animation using it is released.
+ * <p>
+ * Images are looked up first in the texture atlas packed at build time (task <code>packTextures</code>
+ * of the core module), where a region is named after its file without extension, so that actors of
+ * different types share a texture and can be drawn without flushing the batch.
+ * Images missing from the atlas, or all images when there is no atlas, are loaded from their own file;
+ * sprite sheets loaded from their own file get mipmaps.
+ */
+public final class AssetCache {
+
+    private static final ObjectMap<String, CachedTexture> textures = new ObjectMap<String, CachedTexture>();
+    private static final ObjectMap<String, CachedAnimation> animations = new ObjectMap<String, CachedAnimation>();
+    private static final ObjectMap<Animation<TextureRegion>, CachedAnimation> byAnimation =
+            new ObjectMap<Animation<TextureRegion>, CachedAnimation>();
+
+    // Atlas searched before loading separate files, null to disable
+    private static String atlasFile = "atlas/sprites.atlas";
+    private static boolean atlasMissing;
+
+    // Statistics
+    private static int hits;
+    private static int misses;
+    private static long residentBytes;
+
+    private AssetCache() {
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of animation requests served from the cache
+     */
+    public static synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of animation requests which had to build a new animation
+     */
+    public static synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of textures currently loaded (the atlas counts as one)
+     */
+    public static synchronized int getTextureCount() {
+        return textures.size;
+    }
+
+    /**
+     * @return estimated GPU memory of the loaded textures (bytes), mipmaps included
+     */
+    public static synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * Selects the texture atlas searched before loading separate files.
+     * Only affects the animations which are not cached yet.
+     *
+     * @param fileName internal path of the atlas, null to always load separate files
+     */
+    public static synchronized void setAtlas(String fileName) {
+        atlasFile = fileName;
+        atlasMissing = false;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Acquires an animation made of images stored in separate files.
+     *
+     * @param fileNames     names of files containing animation images
+     * @param frameDuration how long each frame should be displayed
+     * @param loop          should the animation loop
+     * @return shared animation, to be given back with <code>release</code>
+     */
+    public static synchronized Animation<TextureRegion> animationFromFiles(String[] fileNames, float frameDuration,
+                                                                          boolean loop) {
+        StringBuilder key = new StringBuilder("files");
+        for (String name : fileNames) key.append(':').append(name);
+        key.append(':').append(frameDuration).append(':').append(loop);
+
+        CachedAnimation cached = acquire(key.toString());
+        if (cached != null) return cached.animation;
+
+        Array<CachedTexture> used = new Array<CachedTexture>(fileNames.length);
+        Array<TextureRegion> textureArray = new Array<TextureRegion>();
+        for (String name : fileNames) {
+            TextureRegion region = atlasRegion(name);
+            if (region != null) {
+                used.add(acquireAtlas());
+                textureArray.add(new TextureRegion(region));
+            } else {
+                CachedTexture texture = acquireTexture(name, false);
+                used.add(texture);
+                textureArray.add(new TextureRegion(texture.texture));
+            }
+        }
+        return store(key.toString(), used, textureArray, frameDuration, loop);
+    }
+
+    /**
+     * Acquires an animation made from a spritesheet: a rectangular grid of images stored in a single file.
+     *
+     * @param fileName      name of file containing spritesheet
+     * @param rows          number of rows of images in spritesheet
+     * @param cols          number of columns of images in spritesheet
+     * @param frameDuration how long each frame should be displayed
+     * @param loop          should the animation loop
+     * @return shared animation, to be given back with <code>release</code>
+     */
+    public static synchronized Animation<TextureRegion> animationFromSheet(String fileName, int rows, int cols,
+                                                                          float frameDuration, boolean loop) {
+        String key = "sheet:" + fileName + ':' + rows + 'x' + cols + ':' + frameDuration + ':' + loop;
+
+        CachedAnimation cached = acquire(key);
+        if (cached != null) return cached.animation;
+
+        CachedTexture texture;
+        TextureRegion sheet = atlasRegion(fileName);
+        if (sheet != null) {
+            texture = acquireAtlas();
+        } else {
+            texture = acquireTexture(fileName, true);
+            sheet = new TextureRegion(texture.texture);
+        }
+        int frameWidth = sheet.getRegionWidth() / cols;
+        int frameHeight = sheet.getRegionHeight() / rows;
+
+        TextureRegion[][] temp = sheet.split(frameWidth, frameHeight);
+        Array<TextureRegion> textureArray = new Array<TextureRegion>();
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                textureArray.add(temp[r][c]);
+            }
+        }
+
+        Array<CachedTexture> used = new Array<CachedTexture>(1);
+        used.add(texture);
+        return store(key, used, textureArray, frameDuration, loop);
+    }
+
+    /**
+     * Gives back an animation acquired from this cache; its textures are disposed
+     * when no other cached animation uses them. Animations not built by the cache are ignored.
+     *
+     * @param animation animation to release
+     */
+    public static synchronized void release(Animation<TextureRegion> animation) {
+        CachedAnimation cached = byAnimation.get(animation);
+        if (cached == null || --cached.references > 0) return;
+
+        animations.remove(cached.key);
+        byAnimation.remove(animation);
+        for (CachedTexture texture : cached.textures) {
+            if (--texture.references > 0) continue;
+            textures.remove(texture.key);
+            residentBytes -= texture.bytes;
+            texture.dispose();
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static CachedAnimation acquire(String key) {
+        CachedAnimation cached = animations.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        cached.references++;
+        return cached;
+    }
+
+    private static Animation<TextureRegion> store(String key, Array<CachedTexture> used,
+                                                  Array<TextureRegion> frames, float frameDuration, boolean loop) {
+        Animation<TextureRegion> anim = new Animation<TextureRegion>(frameDuration, frames);
+        anim.setPlayMode(loop ? Animation.PlayMode.LOOP : Animation.PlayMode.NORMAL);
+
+        CachedAnimation cached = new CachedAnimation(key, anim, used);
+        animations.put(key, cached);
+        byAnimation.put(anim, cached);
+        return anim;
+    }
+
+    private static CachedTexture acquireTexture(String fileName, boolean mipmaps) {
+        String key = mipmaps ? fileName + "#mipmaps" : fileName;
+        CachedTexture cached = textures.get(key);
+        if (cached == null) {
+            Texture texture = new Texture(Gdx.files.internal(fileName), mipmaps);
+            texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            cached = new CachedTexture(key, texture, bytes(texture, mipmaps));
+            textures.put(key, cached);
+            residentBytes += cached.bytes;
+        }
+        cached.references++;
+        return cached;
+    }
+
+    /**
+     * @param fileName name of an image file
+     * @return region of the atlas packed from this file, null if there is no atlas or it does not contain the file
+     */
+    private static TextureRegion atlasRegion(String fileName) {
+        CachedTexture atlas = loadAtlas();
+        if (atlas == null) return null;
+
+        int extension = fileName.lastIndexOf('.');
+        String name = extension > fileName.lastIndexOf('/') ? fileName.substring(0, extension) : fileName;
+        return atlas.atlas.findRegion(name);
+    }
+
+    private static CachedTexture acquireAtlas() {
+        CachedTexture atlas = loadAtlas();
+        atlas.references++;
+        return atlas;
+    }
+
+    /**
+     * @return the atlas, loaded on first use; null if there is none
+     */
+    private static CachedTexture loadAtlas() {
+        if (atlasFile == null || atlasMissing) return null;
+
+        String key = "atlas:" + atlasFile;
+        CachedTexture cached = textures.get(key);
+        if (cached == null) {
+            FileHandle file = Gdx.files.internal(atlasFile);
+            if (!file.exists()) {
+                atlasMissing = true;
+                return null;
+            }
+            TextureAtlas atlas = new TextureAtlas(file);
+            long bytes = 0;
+            for (Texture page : atlas.getTextures()) bytes += bytes(page, false);
+            cached = new CachedTexture(key, atlas, bytes);
+            textures.put(key, cached);
+            residentBytes += bytes;
+        }
+        return cached;
+    }
+
+    private static long bytes(Texture texture, boolean mipmaps) {
+        int bytesPerPixel;
+        Pixmap.Format format = texture.getTextureData().getFormat();
+        if (format == Pixmap.Format.Alpha || format == Pixmap.Format.Intensity) bytesPerPixel = 1;
+        else if (format == Pixmap.Format.RGB888) bytesPerPixel = 3;
+        else if (format == Pixmap.Format.RGBA8888) bytesPerPixel = 4;
+        else bytesPerPixel = 2;
+
+        long bytes = (long) texture.getWidth() * texture.getHeight() * bytesPerPixel;
+        // a full mipmap chain adds a third
+        return mipmaps ? bytes * 4 / 3 : bytes;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Classes 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * A texture loaded from its own file, or the atlas.
+     */
+    private static class CachedTexture {
+        final String key;
+        final Texture texture;
+        final TextureAtlas atlas;
+        final long bytes;
+        int references; // by cached animations
+
+        CachedTexture(String key, Texture texture, long bytes) {
+            this.key = key;
+            this.texture = texture;
+            this.atlas = null;
+            this.bytes = bytes;
+        }
+
+        CachedTexture(String key, TextureAtlas atlas, long bytes) {
+            this.key = key;
+            this.texture = null;
+            this.atlas = atlas;
+            this.bytes = bytes;
+        }
+
+        void dispose() {
+            if (atlas != null) atlas.dispose();
+            else texture.dispose();
+        }
+    }
+
+    private static class CachedAnimation {
+        final String key;
+        final Animation<TextureRegion> animation;
+        final Array<CachedTexture> textures;
+        int references; // by actors
+
+        CachedAnimation(String key, Animation<TextureRegion> animation, Array<CachedTexture> textures) {
+            this.key = key;
+            this.animation = animation;
+            this.textures = textures;
+            this.references = 1;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.framework;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -12,22 +10,28 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.SnapshotArray;
 import com.badlogic.gdx.utils.viewport.Viewport;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
  * Extends functionality of the LibGDX Actor class.
  * by adding support for textures/animation,
  * collision polygons, movement, world boundaries, and camera scrolling.
- * Most game objects should extend this class; lists of extensions can be retrieved by stage and class name.
+ * Most game objects should extend this class; lists of extensions can be retrieved by stage and class.
+ * Short-lived actors can be recycled through an {@link ActorPool}.
  */
-public class BaseActor extends Group {
+public class BaseActor extends Group implements Pool.Poolable {
 
     // Animation
     private Animation<TextureRegion> animation;
     private boolean animationPaused;
     private float elapsedTime;
+    private Array<Animation<TextureRegion>> loadedAnimations; // acquired from the AssetCache, null if none
 
     // Physics
     private Vector2 velocityVec;
@@ -36,11 +40,62 @@ public class BaseActor extends Group {
     private float deceleration;
     private float maxSpeed;
 
+    // Spin, lifetime and pulse, updated in act instead of running actions
+    private float angularSpeed;   // degrees per second
+    private float lifetime;       // animation time at which the actor is removed, 0 to keep it
+    private float fadeDuration;   // last seconds of the lifetime, fading out
+    private float pulseAmplitude; // the scale pulses between 1 - amplitude and 1 + amplitude
+    private float pulsePeriod;    // seconds, 0 for no pulse
+
     // Collision
     private Polygon boundaryPolygon;
-
-    // Stores size of game world for all actors
-    private static Rectangle worldBounds;
+    private Rectangle boundingRectangle; // cached world bounds of boundaryPolygon, null when stale
+    private float boundingRadius;        // cached, negative when stale
+    private float radiusOriginX;
+    private float radiusOriginY;
+    private float radiusScaleX;
+    private float radiusScaleY;
+    private Intersector.MinimumTranslationVector mtv; // reused by preventOverlap
+
+    // Continuous collision
+    private boolean continuousCollision;
+    private float sweepX; // displacement applied by the last applyPhysics step
+    private float sweepY;
+
+    // State at the start of the current tick, for interpolated drawing
+    private float previousX;
+    private float previousY;
+    private float previousRotation;
+    private boolean interpolated; // false until the first act, and after a teleport
+
+    // Transforms of the batch while drawing the children at the drawn position, allocated with the first children
+    private Matrix4 childTransform;
+    private Matrix4 parentTransform;
+
+    // Acted in the current tick, integrate left to the parallel pass of the screen
+    private boolean integrationPending;
+
+    // Registry of the stage this actor is listed in, and its slot in each list
+    private ActorRegistry registry;
+    int[] registryIndices;
+
+    // Removal or placement requested during the current tick, applied by the command buffer at its end
+    private boolean removalPending;
+    boolean spawnPending;
+
+    // Pool receiving this actor when it leaves its stage, null if not pooled
+    ActorPool<?> pool;
+    // Number of times this actor left a stage; tells a recycled actor from its previous life
+    int generation;
+
+    // Cell of the ViewCuller grid listing this actor, -1 if not tracked, ViewCuller.OVERSIZED if too large to list
+    int cullCell = -1;
+
+    // Extent measured by the ViewCuller when this actor was last listed
+    float cullExtent;
+
+    // Class lookups done by the deprecated name-based queries
+    private static final ObjectMap<String, Class<?>> classesByName = new ObjectMap<String, Class<?>>();
 
 	/*------------------------------------------------------------------*\
 	|*							Constructors							*|
@@ -51,7 +106,8 @@ public class BaseActor extends Group {
 
         // perform additional initialization tasks
         setPosition(x, y);
-        s.addActor(this);
+        // during a tick, placed at the end of it, like the actors obtained from a pool
+        World.of(s).getCommands().spawn(this, s.getRoot());
 
         // initialize animation data
         animation = null;
@@ -64,8 +120,14 @@ public class BaseActor extends Group {
         acceleration = 0;
         deceleration = 0;
         maxSpeed = 1000;
+        sweepX = 0;
+        sweepY = 0;
 
         boundaryPolygon = null;
+        boundingRectangle = null;
+        boundingRadius = -1;
+
+        interpolated = false;
     }
 
     /*------------------------------------------------------------------*\
@@ -76,28 +138,49 @@ public class BaseActor extends Group {
    	|*				Tools			*|
    	\*------------------------------*/
 
+    /**
+     * Retrieves the list of all instances of the given class, or of its subclasses,
+     * placed on the given stage. The list is kept up to date as actors are added and removed,
+     * so retrieving and iterating it does not allocate. <br>
+     * Wrap loops which add or remove actors of this class between
+     * <code>begin()</code> and <code>end()</code>.
+     * Useful when coding interactions between different types of game objects in update method.
+     *
+     * @param stage Stage containing BaseActor instances
+     * @param type  class that extends the BaseActor class
+     * @return live list of instances of the class on the stage (empty if none)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends BaseActor> SnapshotArray<T> getList(Stage stage, Class<T> type) {
+        return (SnapshotArray<T>) (SnapshotArray<?>) World.of(stage).getRegistry(stage).list(type);
+    }
+
+    /**
+     * Returns number of instances of a given class (that extends BaseActor) in constant time.
+     *
+     * @param stage Stage containing BaseActor instances
+     * @param type  class that extends the BaseActor class
+     * @return number of instances of the class
+     */
+    public static int count(Stage stage, Class<? extends BaseActor> type) {
+        return World.of(stage).getRegistry(stage).list(type).size;
+    }
+
     /**
      * Retrieves a list of all instances of the object from the given stage
      * with the given class name or whose class extends the class with the given name.
      * If no instances exist, returns an empty list.
-     * Useful when coding interactions between different types of game objects in update method.
      *
      * @param stage     Stage containing BaseActor instances
      * @param className name of a class that extends the BaseActor class
-     * @return list of instances of the object in stage which extend with the given class name
+     * @return copy of the list of instances of the object in stage which extend with the given class name
+     * @deprecated allocates a new list on every call; use {@link #getList(Stage, Class)}
      */
+    @Deprecated
     public static ArrayList<BaseActor> getList(Stage stage, String className) {
         ArrayList<BaseActor> actors = new ArrayList<BaseActor>();
-        Class theClass = null;
-        try {
-            theClass = Class.forName(className);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        for (Actor a : stage.getActors()) {
-            if (theClass.isInstance(a)) {
-                actors.add((BaseActor) a);
-            }
+        for (BaseActor a : World.of(stage).getRegistry(stage).list(classForName(className))) {
+            actors.add(a);
         }
         return actors;
     }
@@ -107,9 +190,11 @@ public class BaseActor extends Group {
      *
      * @param className name of a class that extends the BaseActor class
      * @return number of instances of the class
+     * @deprecated use {@link #count(Stage, Class)}
      */
+    @Deprecated
     public static int count(Stage stage, String className) {
-        return getList(stage, className).size();
+        return World.of(stage).getRegistry(stage).list(classForName(className)).size;
     }
 
     /*------------------------------*\
@@ -117,17 +202,20 @@ public class BaseActor extends Group {
    	\*------------------------------*/
 
     /**
-     * Set world dimensions for use by methods boundToWorld() and scrollTo().
+     * Set world dimensions for use by methods boundToWorld() and scrollTo(),
+     * for actors on stages which do not belong to a {@link World}.
+     * Screens set the bounds of their own world with <code>world.setBounds</code>.
      *
      * @param width  width of world
      * @param height height of world
      */
     public static void setWorldBounds(float width, float height) {
-        worldBounds = new Rectangle(0, 0, width, height);
+        World.getDefault().setBounds(width, height);
     }
 
     /**
-     * Set world dimensions for use by methods boundToWorld() and scrollTo().
+     * Set world dimensions for use by methods boundToWorld() and scrollTo(),
+     * for actors on stages which do not belong to a {@link World}.
      *
      * @param ba whose size determines the world bounds (typically a background image)
      */
@@ -135,6 +223,21 @@ public class BaseActor extends Group {
         setWorldBounds(ba.getWidth(), ba.getHeight());
     }
 
+    private static Class<?> classForName(String className) {
+        synchronized (classesByName) {
+            Class<?> type = classesByName.get(className);
+            if (type == null) {
+                try {
+                    type = Class.forName(className);
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalArgumentException("Unknown class: " + className, e);
+                }
+                classesByName.put(className, type);
+            }
+            return type;
+        }
+    }
+
     /*------------------------------------------------------------------*\
 	|*							Public Methods 							*|
 	\*------------------------------------------------------------------*/
@@ -152,6 +255,14 @@ public class BaseActor extends Group {
         return velocityVec.len();
     }
 
+    /**
+     * @return world of the stage of this actor (the default world when it is on no stage, e.g. until the end
+     * of the tick it was constructed in, or on a stage which does not belong to a world)
+     */
+    public World getWorld() {
+        return World.of(getStage());
+    }
+
     /**
      * Get the angle of motion (in degrees), calculated from the velocity vector.
      * To align actor image angle with motion angle,
@@ -172,17 +283,110 @@ public class BaseActor extends Group {
         return (getSpeed() > 0);
     }
 
+    /**
+     * @return rotation speed (degrees/second), positive counterclockwise
+     */
+    public float getAngularSpeed() {
+        return angularSpeed;
+    }
+
+    /**
+     * Tells the actors which have left the game from those still in it, including during
+     * the tick in which they were removed, when they are still on their stage.
+     * An actor placed during a tick is in the game already, although it reaches its stage at the end of the tick.
+     *
+     * @return true if this actor is not on a stage and not about to be placed on one,
+     * or is to be removed at the end of the tick
+     */
+    public boolean isRemoved() {
+        return removalPending || getStage() == null && !spawnPending;
+    }
+
+    /**
+     * @return true if this actor was placed during the current tick, and reaches its stage at the end of it
+     */
+    public boolean isSpawnPending() {
+        return spawnPending;
+    }
+
+    /**
+     * @return true if collisions of this actor are swept over its last physics step
+     * @see #setContinuousCollision
+     */
+    public boolean isContinuousCollision() {
+        return continuousCollision;
+    }
+
+    /**
+     * @return horizontal displacement (pixels) applied by the last <code>applyPhysics</code> step
+     */
+    public float getSweepX() {
+        return sweepX;
+    }
+
+    /**
+     * @return vertical displacement (pixels) applied by the last <code>applyPhysics</code> step
+     */
+    public float getSweepY() {
+        return sweepY;
+    }
+
     /**
      * Returns bounding polygon for this BaseActor, adjusted by Actor's current position and rotation.
+     * The polygon is only updated (and its vertices transformed again) when the transform has changed.
      *
      * @return bounding polygon for this BaseActor
      */
     public Polygon getBoundaryPolygon() {
-        boundaryPolygon.setPosition(getX(), getY());
-        boundaryPolygon.setOrigin(getOriginX(), getOriginY());
-        boundaryPolygon.setRotation(getRotation());
-        boundaryPolygon.setScale(getScaleX(), getScaleY());
-        return boundaryPolygon;
+        Polygon p = boundaryPolygon;
+        if (p.getX() != getX() || p.getY() != getY()) {
+            p.setPosition(getX(), getY());
+            boundingRectangle = null;
+        }
+        if (p.getOriginX() != getOriginX() || p.getOriginY() != getOriginY()) {
+            p.setOrigin(getOriginX(), getOriginY());
+            boundingRectangle = null;
+        }
+        if (p.getRotation() != getRotation()) {
+            p.setRotation(getRotation());
+            boundingRectangle = null;
+        }
+        if (p.getScaleX() != getScaleX() || p.getScaleY() != getScaleY()) {
+            p.setScale(getScaleX(), getScaleY());
+            boundingRectangle = null;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the axis-aligned rectangle enclosing the boundary polygon, in world coordinates.
+     * Cached until the transform of this BaseActor changes.
+     *
+     * @return bounding rectangle of the boundary polygon (do not modify)
+     */
+    public Rectangle getBoundingRectangle() {
+        Polygon p = getBoundaryPolygon();
+        if (boundingRectangle == null) boundingRectangle = p.getBoundingRectangle();
+        return boundingRectangle;
+    }
+
+    /**
+     * Returns the radius of the circle centered on the origin of this BaseActor
+     * which encloses the boundary polygon. Unlike the bounding rectangle it does not
+     * depend on rotation, so it only has to be recomputed when origin or scale change.
+     *
+     * @return bounding radius (pixels)
+     */
+    public float getBoundingRadius() {
+        if (boundingRadius < 0 || radiusOriginX != getOriginX() || radiusOriginY != getOriginY()
+                || radiusScaleX != getScaleX() || radiusScaleY != getScaleY()) {
+            radiusOriginX = getOriginX();
+            radiusOriginY = getOriginY();
+            radiusScaleX = getScaleX();
+            radiusScaleY = getScaleY();
+            boundingRadius = boundingRadius(radiusScaleX, radiusScaleY);
+        }
+        return boundingRadius;
     }
 
 	/*------------------------------*\
@@ -243,6 +447,56 @@ public class BaseActor extends Group {
         this.maxSpeed = maxSpeed;
     }
 
+    /**
+     * Enable continuous (swept) collision: <code>overlaps</code> then tests the whole path
+     * travelled during the last physics step instead of the final position only,
+     * so fast actors cannot tunnel through thin or small targets at low tick rates.
+     *
+     * @param continuous true to sweep collisions of this actor
+     * @see #timeOfImpact
+     */
+    public void setContinuousCollision(boolean continuous) {
+        continuousCollision = continuous;
+    }
+
+    /**
+     * Spins this actor at a constant speed, applied in <code>act</code>
+     * (instead of <code>Actions.forever(Actions.rotateBy(...))</code>).
+     *
+     * @param angularSpeed rotation speed (degrees/second), positive counterclockwise, 0 to stop
+     */
+    public void setAngularSpeed(float angularSpeed) {
+        this.angularSpeed = angularSpeed;
+    }
+
+    /**
+     * Removes this actor once its animation time reaches its lifetime, fading it out before
+     * (instead of a sequence of <code>delay</code>, <code>fadeOut</code> and <code>removeActor</code> actions).
+     * Measured by the animation time, the lifetime starts over when a pooled actor is reused,
+     * and snapshots restore it. A setting of the class, like the animation: it is kept by <code>reset</code>
+     * and not saved by <code>writeState</code>.
+     *
+     * @param lifetime time (seconds) after which the actor is removed, 0 to keep it
+     * @param fade     last seconds of the lifetime, over which the opacity goes from 1 to 0
+     */
+    public void setLifetime(float lifetime, float fade) {
+        this.lifetime = lifetime;
+        fadeDuration = fade;
+    }
+
+    /**
+     * Makes the scale of this actor pulse, following a triangle wave of the animation time
+     * (instead of a forever sequence of <code>scaleTo</code> actions); the pulse then drives the scale.
+     * A setting of the class, like <code>setLifetime</code>.
+     *
+     * @param amplitude the scale goes from 1 to 1 + amplitude, down to 1 - amplitude and back; 0 for no pulse
+     * @param period    duration of a pulse (seconds)
+     */
+    public void setPulse(float amplitude, float period) {
+        pulseAmplitude = amplitude;
+        pulsePeriod = amplitude == 0 ? 0 : period;
+    }
+
     /**
      * Sets the opacity of this actor.
      *
@@ -265,7 +519,8 @@ public class BaseActor extends Group {
      * @see #applyPhysics
      */
     public void accelerateAtAngle(float angle) {
-        accelerationVec.add(new Vector2(acceleration, 0).setAngle(angle));
+        float radians = angle * MathUtils.degreesToRadians;
+        accelerationVec.add(acceleration * (float) Math.cos(radians), acceleration * (float) Math.sin(radians));
     }
 
     /**
@@ -279,6 +534,14 @@ public class BaseActor extends Group {
         accelerateAtAngle(getRotation());
     }
 
+    /**
+     * Cancels interpolation until the next tick, so that a teleported actor
+     * is not drawn sliding across the world; call after setting a new position.
+     */
+    public void resetInterpolation() {
+        interpolated = false;
+    }
+
     /**
      * Align center of actor at given position coordinates.
      *
@@ -306,6 +569,102 @@ public class BaseActor extends Group {
    	|*				Overriden		*|
    	\*------------------------------*/
 
+    /**
+     * Keeps the actor registry of the stage up to date;
+     * automatically called when this actor is added to or removed from a stage.
+     * Only actors placed directly on the stage (not children of other actors) are listed.
+     *
+     * @param stage new stage of this actor, null when removed
+     */
+    @Override
+    protected void setStage(Stage stage) {
+        if (registry != null) {
+            registry.remove(this);
+            registry = null;
+        }
+        if (cullCell != -1) World.of(getStage()).getViewCuller().remove(this);
+        removalPending = false;
+        boolean leaving = stage == null && getStage() != null;
+        boolean entering = stage != null && getStage() == null;
+        super.setStage(stage);
+        if (stage != null && getParent() == stage.getRoot()) {
+            registry = World.of(stage).getRegistry(stage);
+            registry.add(this);
+            World world = World.of(stage);
+            if (world.getViewCuller() != null && stage == world.getMainStage()) world.getViewCuller().add(this);
+        }
+        if (entering) {
+            AllocationProbe probe = World.of(stage).getAllocationProbe();
+            if (probe != null) probe.spawned(this);
+        }
+        if (leaving) {
+            generation++;
+            if (pool != null) pool.free(this);
+        }
+    }
+
+    /**
+     * Drops the pending spawn of an actor constructed during a tick and given a parent meanwhile,
+     * e.g. a child added to the actor constructing it.
+     */
+    @Override
+    protected void setParent(Group parent) {
+        if (parent != null) spawnPending = false;
+        super.setParent(parent);
+    }
+
+    /**
+     * Removes this actor from its parent; during a tick of its world, the removal is queued in the
+     * command buffer of the world and applied at the end of the tick, and {@link #isRemoved()}
+     * returns true meanwhile.
+     *
+     * @return true if the actor was (or will be) removed
+     */
+    @Override
+    public boolean remove() {
+        if (spawnPending) {
+            // placed and removed in the same tick: never placed
+            spawnPending = false;
+            return true;
+        }
+        if (getStage() != null && !removalPending) {
+            CommandBuffer commands = getWorld().getCommands();
+            if (commands.isDeferring()) {
+                removalPending = true;
+                commands.remove(this);
+                return true;
+            }
+        }
+        return removalPending || super.remove();
+    }
+
+    /**
+     * Restores the state of a newly constructed actor so that a pooled instance can be reused:
+     * clears actions, rewinds the animation, and resets transform, color and motion (spin included).
+     * Animation, boundary polygon, physics settings (acceleration, deceleration, maximum speed),
+     * lifetime and pulse are kept.
+     * Pooled subclasses override it to restore their own state, calling super first.
+     */
+    @Override
+    public void reset() {
+        clearActions();
+        elapsedTime = 0;
+        animationPaused = false;
+
+        setPosition(0, 0);
+        setRotation(0);
+        setScale(1);
+        setColor(Color.WHITE);
+        setVisible(true);
+
+        velocityVec.set(0, 0);
+        accelerationVec.set(0, 0);
+        angularSpeed = 0;
+        sweepX = 0;
+        sweepY = 0;
+        interpolated = false;
+    }
+
     /**
      * Processes all Actions and related code for this object;
      * automatically called by act method in Stage class.
@@ -314,16 +673,87 @@ public class BaseActor extends Group {
      */
     @Override
     public void act(float dt) {
+        previousX = getX();
+        previousY = getY();
+        previousRotation = getRotation();
+        interpolated = true;
+
         super.act(dt);
         if (!animationPaused) {
             elapsedTime += dt;
         }
+
+        if (angularSpeed != 0) rotateBy(angularSpeed * dt);
+        if (pulsePeriod > 0) setScale(1 + pulseAmplitude * triangle(elapsedTime / pulsePeriod));
+        if (lifetime > 0) {
+            if (elapsedTime >= lifetime) remove();
+            else if (elapsedTime > lifetime - fadeDuration) setOpacity((lifetime - elapsedTime) / fadeDuration);
+        }
+
+        if (isIntegrationDeferred()) integrationPending = true;
+        else integrate(dt);
+    }
+
+    /**
+     * Moves this actor over one tick, e.g. <code>applyPhysics</code> then <code>wrapAroundWorld</code>;
+     * does nothing by default. Called at the end of <code>act</code>, unless the screen acts in parallel
+     * (<code>BaseScreen.setParallelAct</code>): actors placed directly on the main stage are then integrated
+     * once all of them have acted, by several threads at once. An override must therefore only read and
+     * write the state of this actor: no stage, scene graph, actions or other actors.
+     *
+     * @param dt elapsed time (second) given to act
+     */
+    protected void integrate(float dt) {
+    }
+
+    /**
+     * Writes the state of this actor to a snapshot ({@link WorldSnapshot}): transform, opacity, visibility,
+     * velocity, acceleration, physics settings, spin and animation time. Subclasses with more state override it, calling super first,
+     * along with {@link #readState}.
+     *
+     * @param buffer buffer to write to
+     */
+    protected void writeState(ByteBuffer buffer) {
+        buffer.putFloat(getX()).putFloat(getY()).putFloat(getRotation());
+        buffer.putFloat(getScaleX()).putFloat(getScaleY()).putFloat(getColor().a);
+        buffer.putFloat(velocityVec.x).putFloat(velocityVec.y);
+        buffer.putFloat(accelerationVec.x).putFloat(accelerationVec.y);
+        buffer.putFloat(acceleration).putFloat(maxSpeed).putFloat(deceleration);
+        buffer.putFloat(angularSpeed);
+        buffer.putFloat(elapsedTime);
+        buffer.put((byte) ((isVisible() ? 1 : 0) | (animationPaused ? 2 : 0)));
+    }
+
+    /**
+     * Restores the state written by {@link #writeState}; the actor is drawn without interpolation until its next tick.
+     *
+     * @param buffer buffer to read from
+     */
+    protected void readState(ByteBuffer buffer) {
+        setPosition(buffer.getFloat(), buffer.getFloat());
+        setRotation(buffer.getFloat());
+        setScale(buffer.getFloat(), buffer.getFloat());
+        getColor().a = buffer.getFloat();
+        velocityVec.set(buffer.getFloat(), buffer.getFloat());
+        accelerationVec.set(buffer.getFloat(), buffer.getFloat());
+        acceleration = buffer.getFloat();
+        maxSpeed = buffer.getFloat();
+        deceleration = buffer.getFloat();
+        angularSpeed = buffer.getFloat();
+        elapsedTime = buffer.getFloat();
+        byte flags = buffer.get();
+        setVisible((flags & 1) != 0);
+        animationPaused = (flags & 2) != 0;
+        resetInterpolation();
     }
 
     /**
      * Draws current frame of animation; automatically called by draw method in Stage class. <br>
      * If color has been set, image will be tinted by that color. <br>
-     * If no animation has been set or object is invisible, nothing will be drawn.
+     * If no animation has been set or object is invisible, nothing will be drawn. <br>
+     * With a fixed timestep, position and rotation are interpolated within the current tick.
+     * Actors out of the view of the camera are skipped when the world has a {@link ViewCuller}.
+     * In a toroidal world, main stage actors straddling an edge are also drawn on the other side.
      *
      * @param batch       (supplied by Stage draw method)
      * @param parentAlpha (supplied by Stage draw method)
@@ -332,18 +762,113 @@ public class BaseActor extends Group {
      */
     @Override
     public void draw(Batch batch, float parentAlpha) {
+        // drawn where it is between the previous tick and the current one, without moving the actor
+        float x = getX();
+        float y = getY();
+        float rotation = getRotation();
+        World world = getWorld();
+        float interpolationAlpha = world.getInterpolationAlpha();
+        if (interpolated && interpolationAlpha < 1) {
+            x = previousX + (x - previousX) * interpolationAlpha;
+            y = previousY + (y - previousY) * interpolationAlpha;
+            rotation = previousRotation + (rotation - previousRotation) * interpolationAlpha;
+        }
+
+        // in a toroidal world, a main stage actor straddling an edge is also drawn on the other side
+        float ghostX = 0;
+        float ghostY = 0;
+        if (world.isToroidal() && getParent() == world.getMainStage().getRoot() && nearEdge(world.getBounds(), x, y)) {
+            Rectangle bounds = world.getBounds();
+            // image scaled and rotated around the origin: its center, and half its extent along each axis
+            float cos = MathUtils.cosDeg(rotation);
+            float sin = MathUtils.sinDeg(rotation);
+            float halfWidth = getWidth() / 2 * getScaleX();
+            float halfHeight = getHeight() / 2 * getScaleY();
+            float offsetX = halfWidth - getOriginX() * getScaleX();
+            float offsetY = halfHeight - getOriginY() * getScaleY();
+            float centerX = x + getOriginX() + offsetX * cos - offsetY * sin;
+            float centerY = y + getOriginY() + offsetX * sin + offsetY * cos;
+            float extentX = Math.abs(halfWidth * cos) + Math.abs(halfHeight * sin);
+            float extentY = Math.abs(halfWidth * sin) + Math.abs(halfHeight * cos);
+            if (centerX - extentX < 0) ghostX = bounds.width;
+            else if (centerX + extentX > bounds.width) ghostX = -bounds.width;
+            if (centerY - extentY < 0) ghostY = bounds.height;
+            else if (centerY + extentY > bounds.height) ghostY = -bounds.height;
+        }
+
+        // the culler only knows the side of the world of the actor, not its images
+        if (ghostX == 0 && ghostY == 0 && cullCell != -1 && world.getViewCuller().cull(this, x, y, rotation)) {
+            return;
+        }
+
+        drawImage(batch, parentAlpha, x, y, rotation);
+        if (ghostX != 0) drawImage(batch, parentAlpha, x + ghostX, y, rotation);
+        if (ghostY != 0) drawImage(batch, parentAlpha, x, y + ghostY, rotation);
+        if (ghostX != 0 && ghostY != 0) drawImage(batch, parentAlpha, x + ghostX, y + ghostY, rotation);
+    }
+
+    /**
+     * @return true if the image of this actor, drawn at the given position, may reach an edge of the bounds,
+     * whatever its rotation
+     */
+    private boolean nearEdge(Rectangle bounds, float x, float y) {
+        float scale = Math.max(Math.abs(getScaleX()), Math.abs(getScaleY()));
+        float originX = Math.max(getOriginX(), getWidth() - getOriginX());
+        float originY = Math.max(getOriginY(), getHeight() - getOriginY());
+        // farthest corner from the origin, at most
+        float reach = scale * (originX + originY);
+        float centerX = x + getOriginX();
+        float centerY = y + getOriginY();
+        return centerX < reach || centerX > bounds.width - reach || centerY < reach || centerY > bounds.height - reach;
+    }
 
+    /**
+     * Draws the animation of this actor at the given position and rotation, then its children,
+     * through the transform of the batch.
+     */
+    private void drawImage(Batch batch, float parentAlpha, float x, float y, float rotation) {
         Color c = getColor();
         batch.setColor(c.r, c.g, c.b, c.a);
 
         if (animation != null && isVisible()) {
             batch.draw(animation.getKeyFrame(elapsedTime),
-                    getX(), getY(), getOriginX(), getOriginY(),
+                    x, y, getOriginX(), getOriginY(),
                     getWidth(), getHeight(), getScaleX(),
-                    getScaleY(), getRotation()
+                    getScaleY(), rotation
             );
         }
-        super.draw(batch, parentAlpha);
+        if (getChildren().size == 0) return;
+
+        // as Group.draw with the given position and rotation; setting the transform flushes the batch
+        if (childTransform == null) {
+            childTransform = new Matrix4();
+            parentTransform = new Matrix4();
+        }
+        parentTransform.set(batch.getTransformMatrix());
+        childTransform.set(parentTransform)
+                .translate(x + getOriginX(), y + getOriginY(), 0)
+                .rotate(0, 0, 1, rotation)
+                .scale(getScaleX(), getScaleY(), 1)
+                .translate(-getOriginX(), -getOriginY(), 0);
+        batch.setTransformMatrix(childTransform);
+        drawChildren(batch, parentAlpha);
+        batch.setTransformMatrix(parentTransform);
+    }
+
+    /**
+     * Keeps the actor in its cell of the ViewCuller of its world.
+     */
+    @Override
+    protected void positionChanged() {
+        if (cullCell >= 0) getWorld().getViewCuller().moved(this);
+    }
+
+    /**
+     * Keeps the actor in its cell of the ViewCuller of its world.
+     */
+    @Override
+    protected void sizeChanged() {
+        if (cullCell != -1) getWorld().getViewCuller().resized(this);
     }
 
     /*------------------------------*\
@@ -386,8 +911,16 @@ public class BaseActor extends Group {
         return animation.isAnimationFinished(elapsedTime);
     }
 
+    /**
+     * @return time the animation has played since the actor was created or reset (seconds)
+     */
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+
     /**
      * Creates an animation from images stored in separate files.
+     * Animations and textures come from the {@link AssetCache}, shared with the other actors loading the same files.
      *
      * @param fileNames     array of names of files containing animation images
      * @param frameDuration how long each frame should be displayed
@@ -396,22 +929,7 @@ public class BaseActor extends Group {
      */
     public Animation<TextureRegion> loadAnimationFromFiles(String[] fileNames, float frameDuration,
                                                            boolean loop) {
-
-        Array<TextureRegion> textureArray = new Array<TextureRegion>();
-
-        for (String name : fileNames) {
-            Texture texture = new Texture(Gdx.files.internal(name));
-            texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-            textureArray.add(new TextureRegion(texture));
-        }
-
-        Animation<TextureRegion> anim = new Animation<TextureRegion>(frameDuration, textureArray);
-        anim.setPlayMode(loop ? Animation.PlayMode.LOOP : Animation.PlayMode.NORMAL);
-
-        if (animation == null) {
-            setAnimation(anim);
-        }
-        return anim;
+        return loaded(AssetCache.animationFromFiles(fileNames, frameDuration, loop));
     }
 
     /**
@@ -426,28 +944,23 @@ public class BaseActor extends Group {
      */
     public Animation<TextureRegion> loadAnimationFromSheet(String fileName, int rows, int cols,
                                                            float frameDuration, boolean loop) {
+        return loaded(AssetCache.animationFromSheet(fileName, rows, cols, frameDuration, loop));
+    }
 
-        Texture texture = new Texture(Gdx.files.internal(fileName), true);
-        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
-        int frameWidth = texture.getWidth() / cols;
-        int frameHeight = texture.getHeight() / rows;
-
-        TextureRegion[][] temp = TextureRegion.split(texture, frameWidth, frameHeight);
-        Array<TextureRegion> textureArray = new Array<TextureRegion>();
-
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                textureArray.add(temp[r][c]);
-            }
+    /**
+     * Gives back to the {@link AssetCache} the animations loaded by this actor and its BaseActor children.
+     * Called when its world is disposed; the actor must not be drawn afterwards.
+     * Pooled actors keep their animations, since the pool will hand them out again.
+     */
+    public void releaseAnimations() {
+        if (pool != null) return;
+        if (loadedAnimations != null) {
+            for (int i = 0; i < loadedAnimations.size; i++) AssetCache.release(loadedAnimations.get(i));
+            loadedAnimations.clear();
         }
-
-        Animation<TextureRegion> anim = new Animation<TextureRegion>(frameDuration, textureArray);
-        anim.setPlayMode(loop ? Animation.PlayMode.LOOP : Animation.PlayMode.NORMAL);
-
-        if (animation == null) {
-            setAnimation(anim);
+        for (Actor child : getChildren()) {
+            if (child instanceof BaseActor) ((BaseActor) child).releaseAnimations();
         }
-        return anim;
     }
 
     /**
@@ -462,6 +975,19 @@ public class BaseActor extends Group {
         return loadAnimationFromFiles(fileNames, 1, true);
     }
 
+    /**
+     * Keeps track of an animation acquired from the cache, and uses it if this actor has none yet.
+     */
+    private Animation<TextureRegion> loaded(Animation<TextureRegion> anim) {
+        if (loadedAnimations == null) loadedAnimations = new Array<Animation<TextureRegion>>(false, 2);
+        loadedAnimations.add(anim);
+
+        if (animation == null) {
+            setAnimation(anim);
+        }
+        return anim;
+    }
+
     /*------------------------------*\
    	|*				Physics 		*|
    	\*------------------------------*/
@@ -491,7 +1017,9 @@ public class BaseActor extends Group {
         // update velocity
         setSpeed(speed);
         // apply velocity
-        moveBy(velocityVec.x * dt, velocityVec.y * dt);
+        sweepX = velocityVec.x * dt;
+        sweepY = velocityVec.y * dt;
+        moveBy(sweepX, sweepY);
         // reset acceleration
         accelerationVec.set(0, 0);
     }
@@ -510,8 +1038,16 @@ public class BaseActor extends Group {
     public void setBoundaryRectangle() {
         float w = getWidth();
         float h = getHeight();
-        float[] vertices = {0, 0, w, 0, w, h, 0, h};
-        boundaryPolygon = new Polygon(vertices);
+        float[] vertices = boundaryVertices(4);
+        vertices[0] = 0;
+        vertices[1] = 0;
+        vertices[2] = w;
+        vertices[3] = 0;
+        vertices[4] = w;
+        vertices[5] = h;
+        vertices[6] = 0;
+        vertices[7] = h;
+        setBoundaryVertices(vertices);
     }
 
     /**
@@ -526,13 +1062,13 @@ public class BaseActor extends Group {
         float w = getWidth();
         float h = getHeight();
 
-        float[] vertices = new float[2 * numSides];
+        float[] vertices = boundaryVertices(numSides);
         for (int i = 0; i < numSides; i++) {
             float angle = i * 6.28f / numSides;
             vertices[2 * i] = w / 2 * MathUtils.cos(angle) + w / 2;     // x
             vertices[2 * i + 1] = h / 2 * MathUtils.sin(angle) + h / 2; // y
         }
-        boundaryPolygon = new Polygon(vertices);
+        setBoundaryVertices(vertices);
     }
 
     /**
@@ -542,16 +1078,45 @@ public class BaseActor extends Group {
      * @return true if collision polygons of this and other BaseActor overlap
      */
     public boolean overlaps(BaseActor other) {
-        Polygon p1 = this.getBoundaryPolygon();
-        Polygon p2 = other.getBoundaryPolygon();
+        if (continuousCollision || other.continuousCollision) return timeOfImpact(other) >= 0;
+
+        // cheapest test first: bounding circles, then rectangles, then polygons
+        if (!boundingCirclesOverlap(other, getBoundingRadius())) return false;
+        if (!getBoundingRectangle().overlaps(other.getBoundingRectangle())) return false;
+
+        return Intersector.overlapConvexPolygons(getBoundaryPolygon(), other.getBoundaryPolygon());
+    }
 
-        // initial test to improve performance. Much lighter overhead to
-        // check in first place if the rough rectangle intersect.
-        if (!p1.getBoundingRectangle().overlaps(p2.getBoundingRectangle())) {
-            return false;
+    /**
+     * Determine if this BaseActor overlaps other BaseActor moved by an offset, e.g. its image on the other side
+     * of a toroidal world, without moving it (so that pairs can be tested in parallel).
+     *
+     * @param other   BaseActor to check for overlap
+     * @param offsetX horizontal offset (pixels) of the other BaseActor
+     * @param offsetY vertical offset (pixels) of the other BaseActor
+     * @return true if collision polygons of this and the moved other BaseActor overlap
+     */
+    public boolean overlaps(BaseActor other, float offsetX, float offsetY) {
+        if (offsetX == 0 && offsetY == 0) return overlaps(other);
+        if (continuousCollision || other.continuousCollision) {
+            return sweep(other, sweepX - other.sweepX, sweepY - other.sweepY, offsetX, offsetY) >= 0;
         }
+        return sweep(other, 0, 0, offsetX, offsetY) >= 0;
+    }
 
-        return Intersector.overlapConvexPolygons(p1, p2);
+    /**
+     * Sweeps the collision polygon of this BaseActor along the last physics step of both actors
+     * (translation only, at the current rotation) and finds the first moment they touch.
+     * Exact for convex polygons moving in straight lines.
+     *
+     * @param other BaseActor to sweep against
+     * @return fraction of the last step (0 = start, 1 = end) at which the polygons first touch,
+     * or -1 if they did not touch during the step
+     * @see #setContinuousCollision
+     */
+    public float timeOfImpact(BaseActor other) {
+        // motion of this actor relative to other, which is considered at rest at its end position
+        return sweep(other, sweepX - other.sweepX, sweepY - other.sweepY, 0, 0);
     }
 
     /**
@@ -560,18 +1125,18 @@ public class BaseActor extends Group {
      * along minimum translation vector until there is no overlap.
      *
      * @param other BaseActor to check for overlap
-     * @return direction vector by which actor was translated, null if no overlap
+     * @return direction vector by which actor was translated, null if no overlap;
+     * the vector is reused by the next call on this actor
      */
     public Vector2 preventOverlap(BaseActor other) {
+        // initial tests to improve performance
+        if (!boundingCirclesOverlap(other, getBoundingRadius())) return null;
+        if (!getBoundingRectangle().overlaps(other.getBoundingRectangle())) return null;
+
         Polygon p1 = this.getBoundaryPolygon();
         Polygon p2 = other.getBoundaryPolygon();
 
-        // initial test to improve performance
-        if (!p1.getBoundingRectangle().overlaps(p2.getBoundingRectangle())) {
-            return null;
-        }
-
-        Intersector.MinimumTranslationVector mtv = new Intersector.MinimumTranslationVector();
+        if (mtv == null) mtv = new Intersector.MinimumTranslationVector();
         boolean polygoneOverlap = Intersector.overlapConvexPolygons(p1, p2, mtv);
 
         if (!polygoneOverlap) {
@@ -582,6 +1147,123 @@ public class BaseActor extends Group {
         return mtv.normal;
     }
 
+    /**
+     * Separating axis test of the collision polygons, this one moving by (dx, dy) relative to the other
+     * over the step, the other moved by (offsetX, offsetY) (see <code>timeOfImpact</code>).
+     *
+     * @return fraction of the step at which the polygons first touch, or -1 if they do not touch
+     */
+    private float sweep(BaseActor other, float dx, float dy, float offsetX, float offsetY) {
+        // initial test to improve performance: circle swept along the step
+        float startX = getX() + getOriginX() - dx;
+        float startY = getY() + getOriginY() - dy;
+        float px = other.getX() + other.getOriginX() + offsetX - startX;
+        float py = other.getY() + other.getOriginY() + offsetY - startY;
+        float length2 = dx * dx + dy * dy;
+        float t = length2 == 0 ? 0 : MathUtils.clamp((px * dx + py * dy) / length2, 0, 1);
+        px -= t * dx;
+        py -= t * dy;
+        float reach = getBoundingRadius() + other.getBoundingRadius();
+        if (px * px + py * py > reach * reach) return -1;
+
+        // separating axis test on moving intervals, over the edge normals of both polygons
+        float[] a = getBoundaryPolygon().getTransformedVertices();
+        float[] b = other.getBoundaryPolygon().getTransformedVertices();
+        float enter = 0;
+        float exit = 1;
+        for (int pass = 0; pass < 2; pass++) {
+            float[] edges = pass == 0 ? a : b;
+            for (int i = 0; i < edges.length; i += 2) {
+                int j = (i + 2) % edges.length;
+                float axisX = edges[i + 1] - edges[j + 1];
+                float axisY = edges[j] - edges[i];
+
+                float minA = Float.MAX_VALUE, maxA = -Float.MAX_VALUE;
+                for (int k = 0; k < a.length; k += 2) {
+                    float p = a[k] * axisX + a[k + 1] * axisY;
+                    minA = Math.min(minA, p);
+                    maxA = Math.max(maxA, p);
+                }
+                float minB = Float.MAX_VALUE, maxB = -Float.MAX_VALUE;
+                for (int k = 0; k < b.length; k += 2) {
+                    float p = b[k] * axisX + b[k + 1] * axisY;
+                    minB = Math.min(minB, p);
+                    maxB = Math.max(maxB, p);
+                }
+                float shift = offsetX * axisX + offsetY * axisY;
+                minB += shift;
+                maxB += shift;
+
+                // at time t this polygon is shifted by -(1 - t) * step; intervals overlap
+                // while (1 - t) * step lies in [minA - maxB, maxA - minB]
+                float step = dx * axisX + dy * axisY;
+                float low = minA - maxB;
+                float high = maxA - minB;
+                if (step == 0) {
+                    if (low > 0 || high < 0) return -1;
+                    continue;
+                }
+                float u1 = low / step;
+                float u2 = high / step;
+                enter = Math.max(enter, 1 - Math.max(u1, u2));
+                exit = Math.min(exit, 1 - Math.min(u1, u2));
+                if (enter > exit) return -1;
+            }
+        }
+        return enter;
+    }
+
+    /**
+     * Returns a vertex array for a boundary polygon with the given number of vertices,
+     * reusing the one of the current polygon when it has the right size.
+     */
+    private float[] boundaryVertices(int count) {
+        if (boundaryPolygon != null && boundaryPolygon.getVertices().length == 2 * count) {
+            return boundaryPolygon.getVertices();
+        }
+        return new float[2 * count];
+    }
+
+    private void setBoundaryVertices(float[] vertices) {
+        if (boundaryPolygon == null) boundaryPolygon = new Polygon(vertices);
+        else boundaryPolygon.setVertices(vertices); // also marks the polygon dirty
+        // the polygon allocates its transformed vertices and bounds lazily: now, rather than on its first tick
+        boundaryPolygon.getBoundingRectangle();
+        boundingRectangle = null;
+        boundingRadius = -1;
+    }
+
+    /**
+     * Radius of the circle centered on the origin which encloses the boundary polygon,
+     * scaled by the given factors.
+     */
+    private float boundingRadius(float scaleX, float scaleY) {
+        float[] vertices = boundaryPolygon.getVertices();
+        float originX = getOriginX();
+        float originY = getOriginY();
+        float max = 0;
+        for (int i = 0; i < vertices.length; i += 2) {
+            float dx = (vertices[i] - originX) * scaleX;
+            float dy = (vertices[i + 1] - originY) * scaleY;
+            max = Math.max(max, dx * dx + dy * dy);
+        }
+        return (float) Math.sqrt(max);
+    }
+
+    /**
+     * Rotation-invariant rejection test: false when the bounding circles of both actors,
+     * centered on their origins, do not intersect.
+     *
+     * @param other  BaseActor to test against
+     * @param radius bounding radius to use for this actor
+     */
+    private boolean boundingCirclesOverlap(BaseActor other, float radius) {
+        float dx = (getX() + getOriginX()) - (other.getX() + other.getOriginX());
+        float dy = (getY() + getOriginY()) - (other.getY() + other.getOriginY());
+        float reach = radius + other.getBoundingRadius();
+        return dx * dx + dy * dy <= reach * reach;
+    }
+
     /**
      *  Determine if this BaseActor is near other BaseActor (according to collision polygons).
      *  @param distance amount (pixels) by which to enlarge collision polygon width and height
@@ -591,16 +1273,19 @@ public class BaseActor extends Group {
      *  @see #setBoundaryPolygon
      */
     public boolean isWithinDistance(float distance, BaseActor other) {
-        Polygon p1 = this.getBoundaryPolygon();
-        Polygon p2 = other.getBoundaryPolygon();
-
         float scaleX = (this.getWidth() + 2 * distance) / this.getWidth();
         float scaleY = (this.getHeight() + 2 * distance) / this.getHeight();
 
+        // initial test to improve performance, with the radius of the enlarged polygon
+        if (!boundingCirclesOverlap(other, boundingRadius(scaleX, scaleY))) return false;
+
+        Polygon p2 = other.getBoundaryPolygon();
+        Polygon p1 = this.getBoundaryPolygon();
         p1.setScale(scaleX, scaleY);
+        // the cached rectangle now describes the enlarged polygon
+        boundingRectangle = null;
 
-        // initial test to improve performance
-        if (!p1.getBoundingRectangle().overlaps(p2.getBoundingRectangle())) return false;
+        if (!p1.getBoundingRectangle().overlaps(other.getBoundingRectangle())) return false;
         return Intersector.overlapConvexPolygons(p1, p2);
     }
 
@@ -609,6 +1294,7 @@ public class BaseActor extends Group {
      * adjust its position to keep it completely on screen.
      */
     public void boundToWorld() {
+        Rectangle worldBounds = getWorld().getBounds();
         if (getX() < 0) setX(0);
         if (getX() + getWidth() > worldBounds.width) setX(worldBounds.width - getWidth());
         if (getY() < 0) setY(0);
@@ -626,6 +1312,7 @@ public class BaseActor extends Group {
     public void alignCamera() {
         Camera cam = this.getStage().getCamera();
         Viewport v = this.getStage().getViewport();
+        Rectangle worldBounds = getWorld().getBounds();
 
         // center camera on actor
         cam.position.set(getX() + getOriginX(), getY() + getOriginY(), 0);
@@ -648,11 +1335,77 @@ public class BaseActor extends Group {
     /**
      * If this object moves completely past the world bounds,
      * adjust its position to the opposite side of the world.
+     * In a toroidal world (see <code>World.setToroidal</code>), moves it by the size of the world
+     * as soon as its center leaves the bounds, so that it keeps its center within them.
      */
     public void wrapAroundWorld() {
-        if (getX() + getWidth() < 0) setX(worldBounds.width);
-        if (getX() > worldBounds.width) setX(-getWidth());
-        if (getY() + getHeight() < 0) setY(worldBounds.height);
-        if (getY() > worldBounds.height) setY(-getHeight());
+        World world = getWorld();
+        Rectangle worldBounds = world.getBounds();
+        float x = getX();
+        float y = getY();
+        if (world.isToroidal()) {
+            float centerX = x + getWidth() / 2;
+            float centerY = y + getHeight() / 2;
+            if (centerX < 0) setX(x + worldBounds.width);
+            else if (centerX >= worldBounds.width) setX(x - worldBounds.width);
+            if (centerY < 0) setY(y + worldBounds.height);
+            else if (centerY >= worldBounds.height) setY(y - worldBounds.height);
+        } else {
+            if (getX() + getWidth() < 0) setX(worldBounds.width);
+            if (getX() > worldBounds.width) setX(-getWidth());
+            if (getY() + getHeight() < 0) setY(worldBounds.height);
+            if (getY() > worldBounds.height) setY(-getHeight());
+        }
+
+        // keep interpolating on the new side of the world
+        previousX += getX() - x;
+        previousY += getY() - y;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by the parallel pass of the screen for each actor of the main stage;
+     * integrates the actor if it has acted in this tick.
+     */
+    void integrateDeferred(float dt) {
+        if (!integrationPending) return;
+        integrationPending = false;
+        integrate(dt);
+    }
+
+    /**
+     * Called by the command buffer at the end of the tick in which this actor was removed.
+     */
+    void removeNow() {
+        if (!removalPending) return;
+        super.remove();
+        removalPending = false;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @return true if the screen integrates this actor in its parallel pass, after act
+     */
+    private boolean isIntegrationDeferred() {
+        if (registry == null) return false;
+        World world = getWorld();
+        return world.getActPool() != null && getStage() == world.getMainStage();
+    }
+
+    /**
+     * @param phase number of periods elapsed
+     * @return triangle wave from 0 at phase 0, up to 1, down to -1 and back to 0 at phase 1
+     */
+    private static float triangle(float phase) {
+        float p = phase - (int) phase;
+        if (p < 0.25f) return 4 * p;
+        if (p < 0.75f) return 2 - 4 * p;
+        return 4 * p - 4;
     }
 }
@@ -3,6 +3,7 @@ package com.framework;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
@@ -62,9 +63,21 @@ public abstract class BaseGame extends Game {
     /**
      * Used to switch screens while game is running.
      * Method is static to simplify usage.
+     * The previous screen is disposed, releasing the textures its actors loaded.
      */
     public static void setActiveScreen(BaseScreen screen) {
+        Screen previous = game.getScreen();
         game.setScreen(screen);
+        if (previous != null && previous != screen) previous.dispose();
+    }
+
+    /**
+     * Called when the application exits; disposes the active screen, completing e.g. its input log.
+     */
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (getScreen() != null) getScreen().dispose();
     }
 
     /*------------------------------------------------------------------*\
@@ -5,24 +5,84 @@ import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.utils.SnapshotArray;
+
+import java.util.concurrent.ForkJoinPool;
 
 public abstract class BaseScreen implements Screen, InputProcessor {
 
+    /**
+     * Runs around each simulation tick, e.g. to exchange input and state with a network.
+     */
+    public interface TickListener {
+        /**
+         * Called at the start of a tick, before the main stage acts and before spawns and removals are deferred,
+         * so that input it applies acts like input events, between ticks.
+         */
+        void beforeTick(float dt);
+
+        /**
+         * Called once the tick is complete, its spawns and removals applied.
+         */
+        void afterTick(float dt);
+    }
+
+    // Stages, bounds, random numbers and input of this screen
+    protected World world;
     protected Stage mainStage;
     protected Stage uiStage;
     protected Table uiTable;
 
+    // Collision broadphase used by this screen
+    protected Broadphase broadphase;
+
+    // Fixed timestep: length of a simulation tick (seconds), 0 to follow the frame delta
+    private float fixedTimestep;
+    private int maxStepsPerFrame;
+    private float accumulator;
+
+    // Time spent in each phase of render
+    private final FrameTimings timings;
+
+    // Ticks run since the screen was created, and the recorder of its input (null if not recording)
+    private long ticks;
+    private InputRecorder recorder;
+
+    // History of snapshots recorded after each tick, null if none
+    private SnapshotRing rewind;
+
+    // Runs around each tick, null if none
+    private TickListener tickListener;
 
     public BaseScreen() {
-        mainStage = new Stage();
-        uiStage = new Stage();
+        this(new World(MathUtils.random.nextLong()));
+    }
+
+    /**
+     * @param world world simulated by this screen; gives e.g. a reproducible random sequence
+     */
+    public BaseScreen(World world) {
+        this.world = world;
+        mainStage = world.getMainStage();
+        uiStage = world.getUiStage();
 
         uiTable = new Table();
         uiTable.setFillParent(true);
         uiStage.addActor(uiTable);
 
+        broadphase = new SweepAndPruneBroadphase();
+
+        fixedTimestep = 0;
+        maxStepsPerFrame = 1;
+        accumulator = 0;
+
+        timings = new FrameTimings();
+        world.setViewCuller(new ViewCuller(world));
+
         initialize();
     }
 
@@ -30,27 +90,220 @@ public abstract class BaseScreen implements Screen, InputProcessor {
 
     public abstract void update(float dt);
 
+    /**
+     * Selects the broadphase used by this screen; should be called in
+     * <code>initialize</code> before any actor is added to the broadphase.
+     *
+     * @param broadphase broadphase implementation to use
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        this.broadphase = broadphase;
+    }
+
+    /**
+     * Runs the simulation (<code>mainStage.act</code> and <code>update</code>) in ticks of constant length,
+     * independent of the display refresh rate. Actors are drawn interpolated between their state
+     * at the start and at the end of the last tick. The UI stage still acts once per frame.
+     *
+     * @param ticksPerSecond   simulation rate
+     * @param maxStepsPerFrame maximum number of ticks run in a single frame; time beyond is dropped,
+     *                         so the game slows down instead of spiralling after a long frame
+     */
+    public void setFixedTimestep(int ticksPerSecond, int maxStepsPerFrame) {
+        this.fixedTimestep = 1f / ticksPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.accumulator = 0;
+    }
+
+    /**
+     * Runs the simulation once per frame with the frame delta (default).
+     */
+    public void setVariableTimestep() {
+        this.fixedTimestep = 0;
+        this.accumulator = 0;
+    }
+
+    /**
+     * Splits <code>mainStage.act</code> in two passes: every actor acts on this thread (actions,
+     * scene graph changes, removal), then the <code>integrate</code> step of the actors placed
+     * directly on the main stage runs on the given pool. Results are identical to the
+     * single-threaded mode, since each actor integrates its own state only.
+     * The pool also runs the narrowphase of {@link #findOverlaps}.
+     * Worth it with thousands of moving actors.
+     *
+     * @param pool pool to integrate on, e.g. <code>new ForkJoinPool()</code>; null to integrate in act (default)
+     */
+    public void setParallelAct(ForkJoinPool pool) {
+        world.setActPool(pool);
+    }
+
+    /**
+     * Skips the drawing of the main stage actors out of the view of its camera (default), see {@link ViewCuller};
+     * the counts of actors drawn and culled in the last frame are kept by <code>getWorld().getViewCuller()</code>.
+     *
+     * @param culling false to draw every actor
+     */
+    public void setViewCulling(boolean culling) {
+        if (culling == (world.getViewCuller() != null)) return;
+        world.setViewCuller(culling ? new ViewCuller(world) : null);
+    }
+
+    /**
+     * Runs the collision pass of the broadphase of this screen; typically called from <code>update</code>.
+     * When the screen acts in parallel, the narrowphase tests run on the same pool, and the listener
+     * is still called on this thread, in the same order. In a toroidal world, pairs overlapping
+     * across an edge are found too.
+     *
+     * @param listener receives each overlapping pair
+     */
+    public void findOverlaps(Broadphase.Listener listener) {
+        Rectangle bounds = world.getBounds();
+        if (world.isToroidal()) broadphase.setWrap(bounds.width, bounds.height);
+        else broadphase.setWrap(0, 0);
+        broadphase.findOverlaps(listener, world.getActPool());
+    }
+
+    /**
+     * Records the seed, ticks and input of this screen to a log, which {@link InputReplay} replays
+     * headless into the same game. Must be called before the screen is shown and before its first tick;
+     * the log is completed by <code>dispose</code>.
+     *
+     * @param recorder recorder writing the log
+     * @throws IllegalStateException if the screen has already run ticks
+     */
+    public void setInputRecorder(InputRecorder recorder) {
+        if (ticks != 0) throw new IllegalStateException("Recording must start before the first tick");
+        this.recorder = recorder;
+        recorder.attach(world);
+    }
+
+    /**
+     * Keeps the last snapshots of the world, recorded after the ticks, to rewind it.
+     *
+     * @param ring history to record into, null to stop recording
+     */
+    public void setRewindBuffer(SnapshotRing ring) {
+        rewind = ring;
+    }
+
+    /**
+     * @return history of snapshots of the world, null if none
+     */
+    public SnapshotRing getRewindBuffer() {
+        return rewind;
+    }
+
+    /**
+     * @param listener runs around each tick, null for none
+     */
+    public void setTickListener(TickListener listener) {
+        tickListener = listener;
+    }
+
+    /**
+     * @return number of simulation ticks run since this screen was created
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return length of a simulation tick (seconds), 0 when the simulation follows the frame delta
+     */
+    public float getFixedTimestep() {
+        return fixedTimestep;
+    }
+
     // Gameloop:
     // (1) process input (discrete handled by listener; continuous in update)
-    // (2) update game logic
+    // (2) update game logic; spawns and removals are applied at the end of each tick
     // (3) render the graphics
     @Override
     public void render(float dt) {
+        long frameStart = System.nanoTime();
+        AllocationProbe probe = world.getAllocationProbe();
+        if (probe != null) probe.beginFrame();
 
         // act methods
         uiStage.act(dt);
-        mainStage.act(dt);
+        long time = endPhase(FrameTimings.Phase.UI_ACT, frameStart, probe);
 
-        // defined by user
-        update(dt);
+        float alpha = 1;
+        if (fixedTimestep == 0) {
+            beginTick(dt);
+            actMainStage(dt);
+            time = endPhase(FrameTimings.Phase.MAIN_ACT, time, probe);
+
+            // defined by user
+            update(dt);
+            endTick(dt);
+            time = endPhase(FrameTimings.Phase.UPDATE, time, probe);
+        } else {
+            accumulator += dt;
+            int steps = 0;
+            while (accumulator >= fixedTimestep) {
+                if (steps == maxStepsPerFrame) {
+                    accumulator %= fixedTimestep;
+                    break;
+                }
+                beginTick(fixedTimestep);
+                actMainStage(fixedTimestep);
+                time = endPhase(FrameTimings.Phase.MAIN_ACT, time, probe);
+
+                // defined by user
+                update(fixedTimestep);
+                endTick(fixedTimestep);
+                time = endPhase(FrameTimings.Phase.UPDATE, time, probe);
+
+                accumulator -= fixedTimestep;
+                steps++;
+            }
+            alpha = accumulator / fixedTimestep;
+        }
 
         // clear the screen
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
         // draw the graphics
+        world.setInterpolationAlpha(alpha);
+        time = System.nanoTime();
+        ViewCuller culler = world.getViewCuller();
+        if (culler != null) culler.begin(mainStage.getCamera());
         mainStage.draw();
+        time = endPhase(FrameTimings.Phase.MAIN_DRAW, time, probe);
+        world.setInterpolationAlpha(1);
         uiStage.draw();
+        time = endPhase(FrameTimings.Phase.UI_DRAW, time, probe);
+
+        timings.endFrame(time - frameStart);
+        if (probe != null) probe.endFrame();
+    }
+
+    /**
+     * Advances the simulation by a number of ticks without drawing, e.g. to run worlds headless
+     * as fast as possible. Each tick acts both stages and calls <code>update</code>
+     * with the fixed timestep (1/60 second with a variable timestep).
+     *
+     * @param ticks number of ticks to simulate
+     */
+    public void step(int ticks) {
+        float dt = fixedTimestep == 0 ? 1 / 60f : fixedTimestep;
+        for (int i = 0; i < ticks; i++) tick(dt);
+    }
+
+    /**
+     * @return time spent in each phase of the recent frames
+     */
+    public FrameTimings getFrameTimings() {
+        return timings;
+    }
+
+    /**
+     * @return world simulated by this screen
+     */
+    public World getWorld() {
+        return world;
     }
 
     /*------------------------------------------------------------------*\
@@ -64,6 +317,7 @@ public abstract class BaseScreen implements Screen, InputProcessor {
     @Override
     public void show() {
         InputMultiplexer im = (InputMultiplexer) Gdx.input.getInputProcessor();
+        if (recorder != null) im.addProcessor(recorder.getEventRecorder());
         im.addProcessor(this);
         im.addProcessor(uiStage);
         im.addProcessor(mainStage);
@@ -77,6 +331,7 @@ public abstract class BaseScreen implements Screen, InputProcessor {
     @Override
     public void hide() {
         InputMultiplexer im = (InputMultiplexer) Gdx.input.getInputProcessor();
+        if (recorder != null) im.removeProcessor(recorder.getEventRecorder());
         im.removeProcessor(this);
         im.removeProcessor(uiStage);
         im.removeProcessor(mainStage);
@@ -94,8 +349,82 @@ public abstract class BaseScreen implements Screen, InputProcessor {
     public void resume() {
     }
 
+    /**
+     * Disposes the world: releases the animations loaded by its actors, then disposes the stages.
+     * Completes the input log if recording.
+     */
     @Override
     public void dispose() {
+        if (recorder != null) recorder.close();
+        world.dispose();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Runs one tick without drawing: acts both stages and calls <code>update</code>.
+     */
+    void tick(float dt) {
+        uiStage.act(dt);
+        beginTick(dt);
+        actMainStage(dt);
+        update(dt);
+        endTick(dt);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Starts a tick: spawns and removals are deferred, and the polled keys recorded, until endTick.
+     * The tick listener runs before, like input events, so that what it spawns is placed at once.
+     */
+    private void beginTick(float dt) {
+        if (tickListener != null) tickListener.beforeTick(dt);
+        if (recorder != null) recorder.beginTick(dt);
+        world.getCommands().begin();
+    }
+
+    private void endTick(float dt) {
+        world.getCommands().end();
+        if (recorder != null) recorder.endTick();
+        if (rewind != null) rewind.tick(dt);
+        ticks++;
+        if (tickListener != null) tickListener.afterTick(dt);
+    }
+
+    /**
+     * Acts the main stage, then integrates its actors in parallel if requested.
+     */
+    private void actMainStage(float dt) {
+        mainStage.act(dt);
+
+        ForkJoinPool pool = world.getActPool();
+        if (pool == null) return;
+        SnapshotArray<BaseActor> actors = BaseActor.getList(mainStage, BaseActor.class);
+        BaseActor[] items = actors.begin();
+        ViewCuller culler = world.getViewCuller();
+        if (culler != null) culler.freeze();
+        pool.invoke(new ParallelIntegration(items, 0, actors.size, dt));
+        if (culler != null) culler.refresh(items, actors.size);
+        actors.end();
+    }
+
+    /**
+     * Records the time and, when probed, the allocations of a phase of render.
+     *
+     * @param start time the phase started at (System.nanoTime)
+     * @param probe allocation probe of the world, may be null
+     * @return time the phase ended at
+     */
+    private long endPhase(FrameTimings.Phase phase, long start, AllocationProbe probe) {
+        long end = System.nanoTime();
+        timings.add(phase, end - start);
+        if (probe != null) probe.endPhase(phase);
+        return end;
     }
 
     /*------------------------------------------------------------------*\
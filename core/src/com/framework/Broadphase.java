@@ -0,0 +1,432 @@
+package com.framework;
+
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Coarse collision pass shared by the framework broadphase implementations.
+ * Actors are registered with a category and a mask; each frame the broadphase
+ * refreshes their bounding rectangles, finds candidate pairs, and hands only those
+ * pairs to the polygon narrowphase of <code>BaseActor.overlaps</code>.
+ * Actors that have been removed from their stage are dropped automatically,
+ * also when they have been recycled by an {@link ActorPool} in the meantime; actors placed during
+ * the tick (see {@link CommandBuffer}) collide already, before they reach their stage.
+ * The narrowphase can run on a fork-join pool, see {@link #findOverlaps(Listener, ForkJoinPool)}.
+ * In a toroidal world (see {@link #setWrap}), a pair is tested at the nearest images of its actors,
+ * so that actors overlapping across an edge collide, still in a single pass.
+ *
+ * @see UniformGridBroadphase
+ * @see SweepAndPruneBroadphase
+ */
+public abstract class Broadphase {
+
+    /**
+     * Receives the pairs whose collision polygons overlap.
+     */
+    public interface Listener {
+
+        /**
+         * Called once per overlapping pair and per pass.
+         *
+         * @param a first actor of the pair
+         * @param b second actor of the pair
+         */
+        void overlap(BaseActor a, BaseActor b);
+    }
+
+    // Proxies (parallel arrays, indexed by proxy)
+    protected BaseActor[] actors;
+    protected int[] generations; // of the actors when added, a recycled actor is not the same proxy
+    protected int[] categories;
+    protected int[] masks;
+    protected float[] minX;
+    protected float[] minY;
+    protected float[] maxX;
+    protected float[] maxY;
+    protected int size;
+
+    // Size of the toroidal world, 0 along an axis which does not wrap
+    protected float wrapWidth;
+    protected float wrapHeight;
+
+    // Candidate pairs of a parallel pass (proxy indices, two per pair) and their narrowphase result
+    private int[] pairs;
+    private boolean[] hits;
+    private int pairCount;
+    private boolean collecting;
+
+    // Statistics of the last pass
+    private int candidateCount;
+    private int overlapCount;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public Broadphase() {
+        actors = new BaseActor[64];
+        generations = new int[64];
+        categories = new int[64];
+        masks = new int[64];
+        minX = new float[64];
+        minY = new float[64];
+        maxX = new float[64];
+        maxY = new float[64];
+        size = 0;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of actors tracked by this broadphase
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of candidate pairs handed to the narrowphase during the last pass
+     */
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    /**
+     * @return number of overlapping pairs reported during the last pass
+     */
+    public int getOverlapCount() {
+        return overlapCount;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Joins the opposite edges of the world for the next passes: bounds and polygons are compared
+     * modulo the size of the world. Actors must be smaller than half the world, and keep their center
+     * within it (see <code>BaseActor.wrapAroundWorld</code>).
+     *
+     * @param width  width of the world, 0 if it does not wrap horizontally
+     * @param height height of the world, 0 if it does not wrap vertically
+     */
+    public void setWrap(float width, float height) {
+        wrapWidth = width;
+        wrapHeight = height;
+    }
+
+    /**
+     * Starts tracking an actor. Two actors form a candidate pair when the category
+     * of one of them matches the mask of the other.
+     *
+     * @param actor    actor to track (must have a boundary polygon)
+     * @param category bits describing what the actor is
+     * @param mask     bits describing what the actor collides with
+     */
+    public void add(BaseActor actor, int category, int mask) {
+        if (size == actors.length) grow(size * 2);
+        actors[size] = actor;
+        generations[size] = actor.generation;
+        categories[size] = category;
+        masks[size] = mask;
+        size++;
+    }
+
+    /**
+     * Stops tracking an actor. Removed actors are also dropped
+     * automatically on the next pass.
+     *
+     * @param actor actor to stop tracking
+     */
+    public void remove(BaseActor actor) {
+        for (int i = 0; i < size; i++) {
+            if (actors[i] == actor) {
+                compact(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops tracking every actor.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) actors[i] = null;
+        size = 0;
+    }
+
+    /**
+     * Runs a full collision pass: refreshes bounds, finds candidate pairs,
+     * and reports those whose collision polygons overlap.
+     *
+     * @param listener receives each overlapping pair
+     */
+    public void findOverlaps(Listener listener) {
+        candidateCount = 0;
+        overlapCount = 0;
+        update();
+        findCandidates(listener);
+    }
+
+    /**
+     * Runs a full collision pass with the narrowphase tests on a fork-join pool.
+     * Candidate pairs are found on this thread, tested in parallel, each result written to
+     * the slot of its pair, then reported on this thread in the order of {@link #findOverlaps(Listener)},
+     * skipping actors removed by an earlier report of the same pass: the listener sees exactly
+     * the same calls as with the single-threaded pass.
+     *
+     * @param listener receives each overlapping pair, on the calling thread
+     * @param pool     pool running the narrowphase, null to run the single-threaded pass
+     */
+    public void findOverlaps(Listener listener, ForkJoinPool pool) {
+        if (pool == null) {
+            findOverlaps(listener);
+            return;
+        }
+        candidateCount = 0;
+        overlapCount = 0;
+        update();
+
+        // fill the caches of the actors now, so that the narrowphase only reads them
+        for (int i = 0; i < size; i++) {
+            actors[i].getBoundaryPolygon().getTransformedVertices();
+            actors[i].getBoundingRadius();
+        }
+
+        if (pairs == null) pairs = new int[128];
+        pairCount = 0;
+        collecting = true;
+        findCandidates(listener);
+        collecting = false;
+
+        if (hits == null || hits.length < pairCount) hits = new boolean[pairs.length / 2];
+        pool.invoke(new Narrowphase(0, pairCount));
+
+        for (int p = 0; p < pairCount; p++) {
+            if (!hits[p]) continue;
+            BaseActor a = actors[pairs[2 * p]];
+            BaseActor b = actors[pairs[2 * p + 1]];
+            // as in testPair, an earlier report may have removed one of them
+            if (a.isRemoved() || b.isRemoved()) continue;
+            if (a.generation != generations[pairs[2 * p]] || b.generation != generations[pairs[2 * p + 1]]) continue;
+            overlapCount++;
+            listener.overlap(a, b);
+        }
+        for (int p = 0; p < pairCount; p++) hits[p] = false;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Enumerates each candidate pair exactly once and passes it to <code>testPair</code>.
+     *
+     * @param listener to forward to <code>testPair</code>
+     */
+    protected abstract void findCandidates(Listener listener);
+
+    /**
+     * Filters a candidate pair by category/mask and bounds, then runs the narrowphase.
+     *
+     * @param i        index of first proxy
+     * @param j        index of second proxy
+     * @param listener notified if the pair overlaps
+     */
+    protected final void testPair(int i, int j, Listener listener) {
+        if ((categories[i] & masks[j]) == 0 && (categories[j] & masks[i]) == 0) return;
+        float offsetX = imageX(i, j) * wrapWidth;
+        float offsetY = imageY(i, j) * wrapHeight;
+        if (minX[i] > maxX[j] + offsetX || minX[j] + offsetX > maxX[i]
+                || minY[i] > maxY[j] + offsetY || minY[j] + offsetY > maxY[i]) return;
+
+        candidateCount++;
+        if (collecting) {
+            addPair(i, j);
+            return;
+        }
+        BaseActor a = actors[i];
+        BaseActor b = actors[j];
+        if (a.isRemoved() || b.isRemoved()) return;
+        if (a.generation != generations[i] || b.generation != generations[j]) return;
+        if (a.overlaps(b, offsetX, offsetY)) {
+            overlapCount++;
+            listener.overlap(a, b);
+        }
+    }
+
+    /**
+     * @return number of world widths (-1, 0 or 1, the centers being within the world) to add to proxy j
+     * to bring it nearest to proxy i, 0 if the world does not wrap
+     */
+    protected final int imageX(int i, int j) {
+        // twice the distance between the centers, against the world width
+        float d = minX[i] + maxX[i] - minX[j] - maxX[j];
+        if (wrapWidth == 0 || Math.abs(d) <= wrapWidth) return 0;
+        return d > 0 ? 1 : -1;
+    }
+
+    /**
+     * @return number of world heights (-1, 0 or 1, the centers being within the world) to add to proxy j
+     * to bring it nearest to proxy i, 0 if the world does not wrap
+     */
+    protected final int imageY(int i, int j) {
+        float d = minY[i] + maxY[i] - minY[j] - maxY[j];
+        if (wrapHeight == 0 || Math.abs(d) <= wrapHeight) return 0;
+        return d > 0 ? 1 : -1;
+    }
+
+    /**
+     * Exchanges two proxies; used by implementations which keep proxies ordered.
+     *
+     * @param i index of first proxy
+     * @param j index of second proxy
+     */
+    protected final void swap(int i, int j) {
+        BaseActor actor = actors[i];
+        actors[i] = actors[j];
+        actors[j] = actor;
+        int generation = generations[i];
+        generations[i] = generations[j];
+        generations[j] = generation;
+        int category = categories[i];
+        categories[i] = categories[j];
+        categories[j] = category;
+        int mask = masks[i];
+        masks[i] = masks[j];
+        masks[j] = mask;
+        float f = minX[i];
+        minX[i] = minX[j];
+        minX[j] = f;
+        f = minY[i];
+        minY[i] = minY[j];
+        minY[j] = f;
+        f = maxX[i];
+        maxX[i] = maxX[j];
+        maxX[j] = f;
+        f = maxY[i];
+        maxY[i] = maxY[j];
+        maxY[j] = f;
+    }
+
+    /**
+     * Grows the arrays of the proxies, when an actor is added. Subclasses keeping arrays sized by the number
+     * of proxies grow them here too, so that a pass does not allocate.
+     *
+     * @param capacity number of proxies to make room for
+     */
+    protected void grow(int capacity) {
+        actors = Arrays.copyOf(actors, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        masks = Arrays.copyOf(masks, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Drops actors which left their stage (even if recycled since) and refreshes the bounds of the others,
+     * extended backwards along their last physics step.
+     * Relative order of the proxies is preserved.
+     */
+    private void update() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            BaseActor actor = actors[i];
+            if (actor.isRemoved() || actor.generation != generations[i]) continue;
+
+            // bounds cover the whole last step, for continuous collision
+            Rectangle r = actor.getBoundingRectangle();
+            float sweepX = actor.getSweepX();
+            float sweepY = actor.getSweepY();
+            actors[n] = actor;
+            generations[n] = generations[i];
+            categories[n] = categories[i];
+            masks[n] = masks[i];
+            minX[n] = r.x - Math.max(sweepX, 0);
+            minY[n] = r.y - Math.max(sweepY, 0);
+            maxX[n] = r.x + r.width - Math.min(sweepX, 0);
+            maxY[n] = r.y + r.height - Math.min(sweepY, 0);
+            n++;
+        }
+        for (int i = n; i < size; i++) actors[i] = null;
+        size = n;
+    }
+
+    private void addPair(int i, int j) {
+        if (2 * pairCount == pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        pairs[2 * pairCount] = i;
+        pairs[2 * pairCount + 1] = j;
+        pairCount++;
+    }
+
+    private void compact(int index) {
+        int tail = size - index - 1;
+        System.arraycopy(actors, index + 1, actors, index, tail);
+        System.arraycopy(generations, index + 1, generations, index, tail);
+        System.arraycopy(categories, index + 1, categories, index, tail);
+        System.arraycopy(masks, index + 1, masks, index, tail);
+        System.arraycopy(minX, index + 1, minX, index, tail);
+        System.arraycopy(minY, index + 1, minY, index, tail);
+        System.arraycopy(maxX, index + 1, maxX, index, tail);
+        System.arraycopy(maxY, index + 1, maxY, index, tail);
+        size--;
+        actors[size] = null;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Classes 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Narrowphase of a range of candidate pairs; each pair is tested by exactly one thread.
+     */
+    private class Narrowphase extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // Pairs tested by one task without splitting further
+        private static final int RANGE = 256;
+
+        private final int from;
+        private final int to;
+
+        Narrowphase(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > RANGE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Narrowphase(from, middle), new Narrowphase(middle, to));
+                return;
+            }
+            for (int p = from; p < to; p++) {
+                int i = pairs[2 * p];
+                int j = pairs[2 * p + 1];
+                BaseActor a = actors[i];
+                BaseActor b = actors[j];
+                if (a.isRemoved() || b.isRemoved()) continue;
+                if (a.generation != generations[i] || b.generation != generations[j]) continue;
+                hits[p] = a.overlaps(b, imageX(i, j) * wrapWidth, imageY(i, j) * wrapHeight);
+            }
+        }
+    }
+}
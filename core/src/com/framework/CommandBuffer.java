@@ -0,0 +1,170 @@
+package com.framework;
+
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Spawns and removals requested while a world runs a simulation tick, applied together at the end
+ * of the tick, in the order they were requested. Stages and actor lists therefore do not change
+ * while they are iterated by <code>act</code> and <code>update</code>.
+ * <p>
+ * Within a tick, <code>BaseActor.remove</code>, the BaseActor constructor and <code>ActorPool.obtain</code>
+ * go through the buffer of the world of the stage: a removed actor stays on its stage until the end of the tick
+ * but reports <code>isRemoved()</code>, and a new or obtained actor is placed on its stage at the end of the tick
+ * but is in the game meanwhile (<code>isRemoved()</code> is false, <code>isSpawnPending()</code> true).
+ * An actor given a parent meanwhile (e.g. a child added to the actor constructing it) stays there.
+ * Outside ticks (input events, set-up) both apply immediately. Each BaseScreen runs its ticks
+ * between {@link #begin()} and {@link #end()}.
+ */
+public class CommandBuffer {
+
+    // Queued commands: actor and the group to add it to, or null to remove it
+    private final Array<Actor> actors;
+    private final Array<Group> targets;
+    private boolean deferring;
+
+    // Statistics
+    private int lastSpawns;
+    private int lastRemovals;
+    private long totalSpawns;
+    private long totalRemovals;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public CommandBuffer() {
+        actors = new Array<Actor>(false, 16, Actor.class);
+        targets = new Array<Group>(false, 16, Group.class);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return true between begin and end, when spawns and removals are queued
+     */
+    public boolean isDeferring() {
+        return deferring;
+    }
+
+    /**
+     * @return number of commands waiting for the end of the tick
+     */
+    public int size() {
+        return actors.size;
+    }
+
+    /**
+     * @return number of actors placed by the last end
+     */
+    public int getLastSpawns() {
+        return lastSpawns;
+    }
+
+    /**
+     * @return number of actors removed by the last end
+     */
+    public int getLastRemovals() {
+        return lastRemovals;
+    }
+
+    /**
+     * @return number of actors placed by the buffer since its creation
+     */
+    public long getTotalSpawns() {
+        return totalSpawns;
+    }
+
+    /**
+     * @return number of actors removed by the buffer since its creation
+     */
+    public long getTotalRemovals() {
+        return totalRemovals;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Adds an actor to a group (e.g. the root of a stage), at the end of the tick if one is running.
+     *
+     * @param actor  actor to add
+     * @param parent group to add it to
+     */
+    public void spawn(Actor actor, Group parent) {
+        if (!deferring) {
+            parent.addActor(actor);
+            return;
+        }
+        if (actor instanceof BaseActor) ((BaseActor) actor).spawnPending = true;
+        actors.add(actor);
+        targets.add(parent);
+    }
+
+    /**
+     * Starts a tick: spawns and removals are queued from now on.
+     */
+    public void begin() {
+        deferring = true;
+    }
+
+    /**
+     * Ends a tick: applies the queued spawns and removals in order, then applies them immediately again.
+     * An actor placed and removed in the same tick is never placed (a pooled one goes back to its pool).
+     * Commands issued while applying (e.g. by a pool) are applied in the same pass.
+     */
+    public void end() {
+        lastSpawns = 0;
+        lastRemovals = 0;
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            Group parent = targets.get(i);
+            if (parent != null) {
+                if (actor instanceof BaseActor) {
+                    BaseActor ba = (BaseActor) actor;
+                    // given a parent meanwhile
+                    if (ba.getParent() != null) continue;
+                    if (!ba.spawnPending) {
+                        // removed in the tick it was placed in
+                        if (ba.pool != null) ba.pool.free(ba);
+                        continue;
+                    }
+                    ba.spawnPending = false;
+                }
+                parent.addActor(actor);
+                lastSpawns++;
+            } else if (actor instanceof BaseActor) {
+                ((BaseActor) actor).removeNow();
+                lastRemovals++;
+            } else {
+                actor.remove();
+                lastRemovals++;
+            }
+        }
+        actors.clear();
+        targets.clear();
+        totalSpawns += lastSpawns;
+        totalRemovals += lastRemovals;
+        deferring = false;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Queues the removal of an actor; called by BaseActor.remove during a tick.
+     */
+    void remove(Actor actor) {
+        actors.add(actor);
+        targets.add(null);
+    }
+}
@@ -0,0 +1,198 @@
+package com.framework;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Time spent by a screen in each phase of its frames, kept in {@link LatencyHistogram}s
+ * over a rolling window: statistics cover the last one to two windows of frames.
+ * Recorded by BaseScreen.render; costs a few <code>System.nanoTime</code> calls per frame.
+ * <p>
+ * With a fixed timestep, the ticks run by a frame are summed, and frames which run no tick
+ * are not counted in the MAIN_ACT and UPDATE statistics.
+ */
+public class FrameTimings {
+
+    /**
+     * Phases of <code>BaseScreen.render</code>; FRAME is the whole call.
+     */
+    public enum Phase {
+        UI_ACT, MAIN_ACT, UPDATE, MAIN_DRAW, UI_DRAW, FRAME
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final int windowFrames;
+    private LatencyHistogram[] current;
+    private LatencyHistogram[] previous;
+    private int frames;   // in the current window
+    private int windows;  // completed
+
+    // Time of each phase in the frame being recorded, -1 if it did not run
+    private final long[] frameNanos;
+
+    private FileHandle csvFile; // null when not exporting
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public FrameTimings() {
+        this(600);
+    }
+
+    /**
+     * @param windowFrames number of frames after which the oldest statistics are dropped
+     */
+    public FrameTimings(int windowFrames) {
+        this.windowFrames = windowFrames;
+        current = newHistograms();
+        previous = newHistograms();
+        frameNanos = new long[PHASES.length];
+        Arrays.fill(frameNanos, -1);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @param phase      phase of the frame
+     * @param percentile between 0 and 100, e.g. 50 or 99
+     * @return duration of the phase (nanoseconds) not exceeded by this percentage of the recent frames
+     */
+    public long getPercentile(Phase phase, double percentile) {
+        int i = phase.ordinal();
+        return LatencyHistogram.valueAtPercentile(percentile, current[i], previous[i]);
+    }
+
+    /**
+     * @param phase phase of the frame
+     * @return longest duration of the phase in the recent frames (nanoseconds)
+     */
+    public long getMax(Phase phase) {
+        int i = phase.ordinal();
+        return Math.max(current[i].getMax(), previous[i].getMax());
+    }
+
+    /**
+     * @param phase phase of the frame
+     * @return number of recent frames in which the phase ran
+     */
+    public long getCount(Phase phase) {
+        int i = phase.ordinal();
+        return current[i].getCount() + previous[i].getCount();
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * Appends the statistics to a CSV file each time a window of frames completes
+     * (one row per phase, see {@link #writeCsv}). A header is written if the file is empty.
+     *
+     * @param file file to append to, null to stop exporting
+     */
+    public void setCsvExport(FileHandle file) {
+        csvFile = file;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Writes one row per phase: window, phase, frames, p50, p99 and max (nanoseconds).
+     *
+     * @param writer where to write the rows
+     * @param header whether to write the column names first
+     */
+    public void writeCsv(Writer writer, boolean header) throws IOException {
+        if (header) writer.write("window,phase,frames,p50_ns,p99_ns,max_ns\n");
+        StringBuilder row = new StringBuilder();
+        for (Phase phase : PHASES) {
+            row.setLength(0);
+            row.append(windows).append(',').append(phase.name().toLowerCase()).append(',')
+                    .append(getCount(phase)).append(',')
+                    .append(getPercentile(phase, 50)).append(',')
+                    .append(getPercentile(phase, 99)).append(',')
+                    .append(getMax(phase)).append('\n');
+            writer.write(row.toString());
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            current[i].reset();
+            previous[i].reset();
+        }
+        Arrays.fill(frameNanos, -1);
+        frames = 0;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Adds to the time of a phase in the current frame; a phase may run several times per frame.
+     */
+    void add(Phase phase, long nanos) {
+        int i = phase.ordinal();
+        frameNanos[i] = Math.max(frameNanos[i], 0) + nanos;
+    }
+
+    /**
+     * Records the current frame, whose total duration is given.
+     */
+    void endFrame(long nanos) {
+        add(Phase.FRAME, nanos);
+        for (int i = 0; i < PHASES.length; i++) {
+            if (frameNanos[i] >= 0) current[i].record(frameNanos[i]);
+            frameNanos[i] = -1;
+        }
+
+        if (++frames < windowFrames) return;
+        windows++;
+        if (csvFile != null) export(csvFile);
+
+        LatencyHistogram[] oldest = previous;
+        previous = current;
+        current = oldest;
+        for (LatencyHistogram histogram : current) histogram.reset();
+        frames = 0;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static LatencyHistogram[] newHistograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+        return histograms;
+    }
+
+    private void export(FileHandle file) {
+        boolean header = !file.exists() || file.length() == 0;
+        Writer writer = file.writer(true, "UTF-8");
+        try {
+            writeCsv(writer, header);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot export frame timings to " + file, e);
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.framework;
+
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records a session of a screen to a compact binary log, from which {@link InputReplay} replays
+ * the same game: the seed of the world, the length of each tick, the keys polled by the actors
+ * in each tick and the input events, in tick order. Only changes are written, so a session
+ * costs a few bytes per key press.
+ * <p>
+ * Set it with <code>screen.setInputRecorder</code> before the first tick and before the screen is shown;
+ * the log is completed when the screen is disposed. It is flushed every few seconds of game,
+ * so that the log of a session which crashed can still be replayed up to the crash.
+ * Keys polled outside a tick (e.g. by an event handler) are read live and not recorded.
+ */
+public class InputRecorder {
+
+    // Log format: header, then records of a type byte and its data
+    static final int MAGIC = 0x53524c47; // "SRLG"
+    static final int VERSION = 1;
+
+    static final int TICKS = 1;       // varint: number of ticks run with the current state
+    static final int DT = 2;          // float: length of the next ticks (seconds)
+    static final int KEYS = 3;        // byte count, then short key codes: keys pressed in the next ticks
+    static final int KEY_DOWN = 4;    // short key code
+    static final int KEY_UP = 5;      // short key code
+    static final int KEY_TYPED = 6;   // char
+    static final int TOUCH_DOWN = 7;  // int x, int y, byte pointer, byte button
+    static final int TOUCH_UP = 8;    // int x, int y, byte pointer, byte button
+    static final int TOUCH_DRAGGED = 9; // int x, int y, byte pointer
+    static final int MOUSE_MOVED = 10;  // int x, int y
+    static final int SCROLLED = 11;     // int amount
+    static final int END = 12;          // long: total number of ticks
+
+    // Ticks between two flushes of the log
+    private static final int FLUSH_TICKS = 600;
+
+    private final DataOutputStream out;
+    private final InputProcessor events;
+    private TickInput input;
+
+    // State last written, and ticks run since
+    private float dt;
+    private final IntArray keys;
+    private final IntArray tickKeys;
+    private int pendingTicks;
+    private long ticks;
+    private boolean closed;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param file file to write the log to, replaced if it exists
+     */
+    public InputRecorder(FileHandle file) {
+        this(file.write(false));
+    }
+
+    /**
+     * @param out stream to write the log to, closed with the recorder
+     */
+    public InputRecorder(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        events = new EventRecorder();
+        dt = Float.NaN;
+        keys = new IntArray();
+        tickKeys = new IntArray();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of ticks recorded
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return size of the log so far, in bytes
+     */
+    public int getSize() {
+        return out.size();
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Completes and closes the log; called by BaseScreen.dispose.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            writeTicks();
+            out.writeByte(END);
+            out.writeLong(ticks);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the input log", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by BaseScreen.setInputRecorder: writes the header and makes the world poll its keys
+     * through the recorder.
+     */
+    void attach(World world) {
+        input = new TickInput(world.getInput());
+        world.setInput(input);
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(world.getSeed());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the input log", e);
+        }
+    }
+
+    /**
+     * @return processor to place before the screen, recording the events it receives
+     */
+    InputProcessor getEventRecorder() {
+        return events;
+    }
+
+    /**
+     * Called by BaseScreen before each tick.
+     */
+    void beginTick(float tickDt) {
+        if (Float.floatToIntBits(tickDt) != Float.floatToIntBits(dt)) {
+            try {
+                writeTicks();
+                out.writeByte(DT);
+                out.writeFloat(tickDt);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot write the input log", e);
+            }
+            dt = tickDt;
+        }
+        input.beginTick();
+    }
+
+    /**
+     * Called by BaseScreen after each tick.
+     */
+    void endTick() {
+        input.endTick();
+        input.getPressedKeys(tickKeys);
+        try {
+            if (!tickKeys.equals(keys)) {
+                writeTicks();
+                out.writeByte(KEYS);
+                out.writeByte(tickKeys.size);
+                for (int i = 0; i < tickKeys.size; i++) out.writeShort(tickKeys.get(i));
+                keys.clear();
+                keys.addAll(tickKeys);
+            }
+            pendingTicks++;
+            ticks++;
+            if (ticks % FLUSH_TICKS == 0) {
+                writeTicks();
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the input log", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Writes the ticks run since the last record, before a change of state.
+     */
+    private void writeTicks() throws IOException {
+        if (pendingTicks == 0) return;
+        out.writeByte(TICKS);
+        int n = pendingTicks;
+        while (n >= 0x80) {
+            out.writeByte(n & 0x7f | 0x80);
+            n >>>= 7;
+        }
+        out.writeByte(n);
+        pendingTicks = 0;
+    }
+
+    private void writeEvent(int type, int a, int b, int c, int d) {
+        if (closed) return;
+        try {
+            writeTicks();
+            out.writeByte(type);
+            switch (type) {
+                case KEY_DOWN:
+                case KEY_UP:
+                    out.writeShort(a);
+                    break;
+                case KEY_TYPED:
+                    out.writeChar(a);
+                    break;
+                case TOUCH_DOWN:
+                case TOUCH_UP:
+                    out.writeInt(a);
+                    out.writeInt(b);
+                    out.writeByte(c);
+                    out.writeByte(d);
+                    break;
+                case TOUCH_DRAGGED:
+                    out.writeInt(a);
+                    out.writeInt(b);
+                    out.writeByte(c);
+                    break;
+                case MOUSE_MOVED:
+                    out.writeInt(a);
+                    out.writeInt(b);
+                    break;
+                default:
+                    out.writeInt(a);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the input log", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Classes 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Writes each event it sees, and lets the next processors handle it.
+     */
+    private class EventRecorder implements InputProcessor {
+
+        @Override
+        public boolean keyDown(int keycode) {
+            writeEvent(KEY_DOWN, keycode, 0, 0, 0);
+            return false;
+        }
+
+        @Override
+        public boolean keyUp(int keycode) {
+            writeEvent(KEY_UP, keycode, 0, 0, 0);
+            return false;
+        }
+
+        @Override
+        public boolean keyTyped(char character) {
+            writeEvent(KEY_TYPED, character, 0, 0, 0);
+            return false;
+        }
+
+        @Override
+        public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+            writeEvent(TOUCH_DOWN, screenX, screenY, pointer, button);
+            return false;
+        }
+
+        @Override
+        public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+            writeEvent(TOUCH_UP, screenX, screenY, pointer, button);
+            return false;
+        }
+
+        @Override
+        public boolean touchDragged(int screenX, int screenY, int pointer) {
+            writeEvent(TOUCH_DRAGGED, screenX, screenY, pointer, 0);
+            return false;
+        }
+
+        @Override
+        public boolean mouseMoved(int screenX, int screenY) {
+            writeEvent(MOUSE_MOVED, screenX, screenY, 0, 0);
+            return false;
+        }
+
+        @Override
+        public boolean scrolled(int amount) {
+            writeEvent(SCROLLED, amount, 0, 0, 0);
+            return false;
+        }
+    }
+}
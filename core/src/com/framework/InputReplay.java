@@ -0,0 +1,172 @@
+package com.framework;
+
+import com.badlogic.gdx.InputMultiplexer;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Replays a log written by {@link InputRecorder}: runs the recorded ticks headless, as fast as possible,
+ * with the recorded key states and events, so that a screen created on a world of the recorded seed
+ * plays the same game. The log is read into memory once and can be played any number of times,
+ * e.g. as a benchmark. A log cut short by a crash plays up to its last flush.
+ * <pre>
+ * InputReplay replay = new InputReplay(Gdx.files.local("session.bin"));
+ * replay.play(new LevelScreen(new World(replay.getSeed())));
+ * </pre>
+ */
+public class InputReplay {
+
+    private final byte[] log;
+    private final long seed;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param file log written by an InputRecorder
+     * @throws IllegalArgumentException if the file is not an input log
+     */
+    public InputReplay(FileHandle file) {
+        this(file.readBytes());
+    }
+
+    /**
+     * @param log content of a log written by an InputRecorder
+     * @throws IllegalArgumentException if it is not an input log
+     */
+    public InputReplay(byte[] log) {
+        this.log = log;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+        try {
+            if (in.readInt() != InputRecorder.MAGIC) throw new IllegalArgumentException("Not an input log");
+            int version = in.readUnsignedByte();
+            if (version != InputRecorder.VERSION) {
+                throw new IllegalArgumentException("Unsupported input log version " + version);
+            }
+            seed = in.readLong();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not an input log", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return seed of the recorded world; the screen to replay on must be created on <code>new World(seed)</code>
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Plays the whole log on a newly created screen, without drawing it. Events go to the screen
+     * and its stages, in the order <code>BaseScreen.show</code> registers them.
+     *
+     * @param screen screen created on a world of the recorded seed, which has not run any tick
+     * @return number of ticks played
+     * @throws IllegalStateException if the screen has already run ticks or its world has another seed
+     */
+    public long play(BaseScreen screen) {
+        if (screen.getTicks() != 0) throw new IllegalStateException("The screen has already run ticks");
+        if (screen.getWorld().getSeed() != seed) {
+            throw new IllegalStateException("The world of the screen was not created with seed " + seed);
+        }
+        TickInput input = new TickInput(null);
+        screen.getWorld().setInput(input);
+        InputProcessor events = new InputMultiplexer(screen, screen.uiStage, screen.mainStage);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(log));
+        IntArray keys = new IntArray();
+        float dt = 0;
+        long played = 0;
+        try {
+            in.skipBytes(13); // header
+            while (true) {
+                int type = in.readUnsignedByte();
+                switch (type) {
+                    case InputRecorder.TICKS:
+                        int n = readVarint(in);
+                        for (int i = 0; i < n; i++) screen.tick(dt);
+                        played += n;
+                        break;
+                    case InputRecorder.DT:
+                        dt = in.readFloat();
+                        break;
+                    case InputRecorder.KEYS:
+                        keys.clear();
+                        for (int i = in.readUnsignedByte(); i > 0; i--) keys.add(in.readShort());
+                        input.setPressedKeys(keys);
+                        break;
+                    case InputRecorder.KEY_DOWN:
+                        events.keyDown(in.readShort());
+                        break;
+                    case InputRecorder.KEY_UP:
+                        events.keyUp(in.readShort());
+                        break;
+                    case InputRecorder.KEY_TYPED:
+                        events.keyTyped(in.readChar());
+                        break;
+                    case InputRecorder.TOUCH_DOWN:
+                        events.touchDown(in.readInt(), in.readInt(), in.readByte(), in.readByte());
+                        break;
+                    case InputRecorder.TOUCH_UP:
+                        events.touchUp(in.readInt(), in.readInt(), in.readByte(), in.readByte());
+                        break;
+                    case InputRecorder.TOUCH_DRAGGED:
+                        events.touchDragged(in.readInt(), in.readInt(), in.readByte());
+                        break;
+                    case InputRecorder.MOUSE_MOVED:
+                        events.mouseMoved(in.readInt(), in.readInt());
+                        break;
+                    case InputRecorder.SCROLLED:
+                        events.scrolled(in.readInt());
+                        break;
+                    case InputRecorder.END:
+                        long recorded = in.readLong();
+                        if (recorded != played) {
+                            throw new IllegalStateException("Input log declares " + recorded
+                                    + " ticks but contains " + played);
+                        }
+                        return played;
+                    default:
+                        throw new IllegalStateException("Corrupted input log: record type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // cut short, e.g. by a crash: everything flushed has been played
+            return played;
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read the input log", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
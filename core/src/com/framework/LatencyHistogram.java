@@ -0,0 +1,125 @@
+package com.framework;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations (nanoseconds) with log-linear buckets, in the manner of HdrHistogram:
+ * values below 64 are counted exactly, larger ones within about 3% (32 buckets per power of two).
+ * Recording is constant time and never allocates, so it can stay enabled in production.
+ * Values above about 18 minutes are counted in the last bucket.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;  // buckets per power of two
+    private static final int LINEAR = 2 * SUB_COUNT;     // values counted exactly
+    private static final int MAX_SHIFT = 35;             // 2^40 ns
+    private static final int BUCKETS = LINEAR + MAX_SHIFT * SUB_COUNT;
+
+    private final long[] counts;
+    private long totalCount;
+    private long max;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public LatencyHistogram() {
+        counts = new long[BUCKETS];
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return largest recorded value, exact (0 if empty)
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return smallest value such that the given percentage of the recorded values are
+     * lower or equal, rounded up to its bucket (0 if empty)
+     */
+    public long getValueAtPercentile(double percentile) {
+        return valueAtPercentile(percentile, this, null);
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * @param value duration (nanoseconds), negative values count as 0
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[bucket(value)]++;
+        totalCount++;
+        if (value > max) max = value;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        max = 0;
+    }
+
+    /**
+     * Percentile of the values recorded by two histograms together, without merging them.
+     *
+     * @param percentile between 0 and 100
+     * @param a          first histogram
+     * @param b          second histogram, may be null
+     * @return see {@link #getValueAtPercentile}, never more than the largest recorded value
+     */
+    public static long valueAtPercentile(double percentile, LatencyHistogram a, LatencyHistogram b) {
+        long total = a.totalCount + (b == null ? 0 : b.totalCount);
+        if (total == 0) return 0;
+        long max = Math.max(a.max, b == null ? 0 : b.max);
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += a.counts[i] + (b == null ? 0 : b.counts[i]);
+            if (seen >= rank) return Math.min(highestValue(i), max);
+        }
+        return max;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static int bucket(long value) {
+        if (value < LINEAR) return (int) value;
+        // shift such that value >> shift lies in [SUB_COUNT, 2 * SUB_COUNT)
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        if (shift > MAX_SHIFT) return BUCKETS - 1;
+        return LINEAR + (shift - 1) * SUB_COUNT + (int) (value >> shift) - SUB_COUNT;
+    }
+
+    /**
+     * @return largest value counted in the bucket
+     */
+    private static long highestValue(int bucket) {
+        if (bucket < LINEAR) return bucket;
+        int shift = (bucket - LINEAR) / SUB_COUNT + 1;
+        long sub = (bucket - LINEAR) % SUB_COUNT + SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,254 @@
+package com.framework;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Remote end of a game served by a {@link NetServer}: receives the state of the world, and sends
+ * its input along with the acknowledgment of the newest state received. Like the server, it runs on
+ * the game thread, on a non-blocking channel polled once per frame or tick.
+ * <p>
+ * The client keeps the snapshots it decoded as baselines, and reassembles fragmented updates;
+ * updates older than the newest decoded one, incomplete or whose baseline is no longer kept are dropped.
+ * A client only joins the server with its first input, so it should send every tick, even without input.
+ */
+public class NetClient {
+
+    private final DatagramChannel channel;
+    private final NetSnapshot[] received; // decoded snapshots, by sequence number
+    private final int[] receivedSeqs;
+    private int seq;    // newest snapshot decoded, -1 if none
+    private int player; // -1 until the first snapshot
+
+    // Update being reassembled
+    private int assemblingSeq;
+    private int fragments;
+    private int fragmentsReceived;
+    private boolean[] fragmentReceived;
+    private int length;
+    private ByteBuffer assembly;
+
+    private final ByteBuffer datagram;
+    private final ByteBuffer outgoing;
+
+    // Statistics
+    private long bytesReceived;
+    private long updatesDecoded;
+    private long updatesDropped;
+    private final LatencyHistogram decodeLatency;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param server address of the server, e.g. on the loopback address
+     * @param fields number of fields of the entities, as sent by the server
+     */
+    public NetClient(InetSocketAddress server, int fields) {
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            // room for a few large updates between two polls
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 20);
+            channel.connect(server);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot connect to " + server, e);
+        }
+        received = new NetSnapshot[NetServer.HISTORY];
+        receivedSeqs = new int[NetServer.HISTORY];
+        for (int i = 0; i < NetServer.HISTORY; i++) {
+            received[i] = new NetSnapshot(fields);
+            receivedSeqs[i] = -1;
+        }
+        seq = -1;
+        player = -1;
+        assemblingSeq = -1;
+        fragmentReceived = new boolean[16];
+        assembly = ByteBuffer.allocate(16 * NetServer.MAX_PAYLOAD);
+
+        datagram = ByteBuffer.allocate(NetServer.MAX_DATAGRAM);
+        outgoing = ByteBuffer.allocate(NetServer.MAX_DATAGRAM);
+        decodeLatency = new LatencyHistogram();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return newest state received, empty before the first one
+     */
+    public NetSnapshot getState() {
+        return seq < 0 ? received[0] : received[seq % NetServer.HISTORY];
+    }
+
+    /**
+     * @return sequence number of the newest state received, -1 if none
+     */
+    public int getSeq() {
+        return seq;
+    }
+
+    /**
+     * @return player index given by the server, -1 before the first state
+     */
+    public int getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return bytes received, headers included (without UDP/IP headers)
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getUpdatesDecoded() {
+        return updatesDecoded;
+    }
+
+    /**
+     * @return number of updates dropped: incomplete, out of date, or without their baseline
+     */
+    public long getUpdatesDropped() {
+        return updatesDropped;
+    }
+
+    /**
+     * @return time taken to decode each update (nanoseconds)
+     */
+    public LatencyHistogram getDecodeLatency() {
+        return decodeLatency;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Reads every datagram received since the last call, without waiting.
+     *
+     * @return true if a newer state was decoded
+     */
+    public boolean poll() {
+        int before = seq;
+        try {
+            while (true) {
+                datagram.clear();
+                if (channel.read(datagram) <= 0) break;
+                datagram.flip();
+                bytesReceived += datagram.remaining();
+                receive(datagram);
+            }
+        } catch (PortUnreachableException e) {
+            // the server is not listening (yet)
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot receive from the server", e);
+        }
+        return seq != before;
+    }
+
+    /**
+     * Sends input to the server, with the acknowledgment of the newest state received.
+     *
+     * @param input input of the game, from its position to its limit, a few hundred bytes at most
+     */
+    public void send(ByteBuffer input) {
+        outgoing.clear();
+        outgoing.put((byte) NetServer.INPUT).putInt(seq);
+        outgoing.put(input);
+        outgoing.flip();
+        try {
+            channel.write(outgoing);
+        } catch (PortUnreachableException e) {
+            // the server is not listening (yet): the next input retries
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot send to the server", e);
+        }
+    }
+
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot close the client", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private void receive(ByteBuffer datagram) {
+        if (datagram.remaining() < NetServer.STATE_HEADER || datagram.get() != NetServer.STATE) return;
+        int updateSeq = datagram.getInt();
+        int baseSeq = datagram.getInt();
+        int updatePlayer = datagram.get();
+        int fragment = datagram.getShort() & 0xffff;
+        int updateFragments = datagram.getShort() & 0xffff;
+        if (updateSeq <= seq || updateSeq < assemblingSeq || fragment >= updateFragments) return;
+
+        if (updateSeq != assemblingSeq) {
+            if (assemblingSeq >= 0) updatesDropped++;
+            startAssembly(updateSeq, updateFragments);
+        }
+        if (fragmentReceived[fragment]) return;
+        fragmentReceived[fragment] = true;
+        fragmentsReceived++;
+        int payload = datagram.remaining();
+        datagram.get(assembly.array(), fragment * NetServer.MAX_PAYLOAD, payload);
+        if (fragment == fragments - 1) length = fragment * NetServer.MAX_PAYLOAD + payload;
+        if (fragmentsReceived < fragments) return;
+
+        assemblingSeq = -1;
+        decode(updateSeq, baseSeq, updatePlayer);
+    }
+
+    private void startAssembly(int updateSeq, int updateFragments) {
+        assemblingSeq = updateSeq;
+        fragments = updateFragments;
+        fragmentsReceived = 0;
+        if (fragmentReceived.length < fragments) fragmentReceived = new boolean[fragments];
+        else for (int i = 0; i < fragments; i++) fragmentReceived[i] = false;
+        if (assembly.capacity() < fragments * NetServer.MAX_PAYLOAD) {
+            assembly = ByteBuffer.allocate(fragments * NetServer.MAX_PAYLOAD);
+        }
+    }
+
+    private void decode(int updateSeq, int baseSeq, int updatePlayer) {
+        long start = System.nanoTime();
+        NetSnapshot base = null;
+        if (baseSeq >= 0) {
+            base = received[baseSeq % NetServer.HISTORY];
+            if (receivedSeqs[baseSeq % NetServer.HISTORY] != baseSeq) {
+                updatesDropped++;
+                return;
+            }
+        }
+        int slot = updateSeq % NetServer.HISTORY;
+        assembly.clear();
+        assembly.limit(length);
+        receivedSeqs[slot] = -1;
+        try {
+            received[slot].readDelta(base, assembly);
+        } catch (BufferUnderflowException e) {
+            updatesDropped++;
+            return;
+        }
+        receivedSeqs[slot] = updateSeq;
+        seq = updateSeq;
+        player = updatePlayer;
+        updatesDecoded++;
+        decodeLatency.record(System.nanoTime() - start);
+    }
+}
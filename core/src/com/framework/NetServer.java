@@ -0,0 +1,354 @@
+package com.framework;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Authoritative end of a game over UDP: sends the state of the world to its clients each tick,
+ * and hands their input to a listener. Runs on the game thread, on a non-blocking channel
+ * polled between ticks; nothing ever waits for the network.
+ * <p>
+ * Each client is sent a {@link NetSnapshot} as a delta against the newest snapshot it acknowledged,
+ * or in full while it has acknowledged none still kept, so that a lost datagram only costs a larger
+ * next update. Updates larger than a datagram are split in fragments, and an update missing
+ * a fragment is lost as a whole. Clients are identified by their address, and dropped after
+ * a few seconds without a datagram.
+ * <pre>
+ * NetServer server = new NetServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 7777), FIELDS);
+ * server.setListener(listener);
+ * // each tick
+ * server.poll();
+ * ... tick, capture the world into state ...
+ * server.send(tick, state);
+ * </pre>
+ */
+public class NetServer {
+
+    /**
+     * Receives the clients and their input, on the thread polling the server.
+     */
+    public interface Listener {
+        /**
+         * A datagram came from a new address.
+         *
+         * @return player index of the client, -1 to ignore it
+         */
+        int join(SocketAddress address);
+
+        /**
+         * @param player player index of the client
+         * @param input  content of an input datagram, from its position to its limit
+         */
+        void input(int player, ByteBuffer input);
+
+        /**
+         * The client has not sent anything for a few seconds and is forgotten.
+         */
+        void leave(int player);
+    }
+
+    // Datagram types, then fields of the header
+    static final int STATE = 1;       // int seq, int baseline seq (-1: full), byte player, short fragment, short fragments
+    static final int INPUT = 2;       // int seq acknowledged (-1: none), then the input of the game
+    static final int STATE_HEADER = 14;
+    static final int INPUT_HEADER = 5;
+
+    // Kept under the common path MTU
+    static final int MAX_DATAGRAM = 1200;
+    static final int MAX_PAYLOAD = MAX_DATAGRAM - STATE_HEADER;
+
+    // Snapshots kept as baselines
+    static final int HISTORY = 64;
+
+    private static final long TIMEOUT_NANOS = 5000000000L;
+
+    private final DatagramChannel channel;
+    private final NetSnapshot[] history;
+    private final int[] historySeqs;
+    private final Array<Client> clients;
+    private Listener listener;
+
+    private final ByteBuffer received;
+    private final ByteBuffer datagram;
+    private ByteBuffer delta;
+
+    // Statistics
+    private final LatencyHistogram sendLatency;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param address address to listen on, e.g. a loopback address; port 0 for any free port
+     * @param fields  number of fields of the entities of the snapshots sent
+     */
+    public NetServer(InetSocketAddress address, int fields) {
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, 1 << 20);
+            channel.bind(address);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot listen on " + address, e);
+        }
+        history = new NetSnapshot[HISTORY];
+        historySeqs = new int[HISTORY];
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new NetSnapshot(fields);
+            historySeqs[i] = -1;
+        }
+        clients = new Array<Client>(false, 8);
+
+        received = ByteBuffer.allocate(MAX_DATAGRAM);
+        datagram = ByteBuffer.allocate(MAX_DATAGRAM);
+        delta = ByteBuffer.allocate(16 * 1024);
+        sendLatency = new LatencyHistogram();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read the port of the server", e);
+        }
+    }
+
+    public int getClientCount() {
+        return clients.size;
+    }
+
+    /**
+     * @param client index of a client, from 0 to getClientCount() - 1
+     * @return its player index
+     */
+    public int getPlayer(int client) {
+        return clients.get(client).player;
+    }
+
+    /**
+     * @param client index of a client
+     * @return bytes sent to the client, headers included (without UDP/IP headers)
+     */
+    public long getBytesSent(int client) {
+        return clients.get(client).bytes;
+    }
+
+    /**
+     * @param client index of a client
+     * @return number of updates sent to the client
+     */
+    public long getUpdatesSent(int client) {
+        return clients.get(client).updates;
+    }
+
+    /**
+     * @param client index of a client
+     * @return number of updates sent in full, since the client had acknowledged no kept snapshot
+     */
+    public long getFullUpdates(int client) {
+        return clients.get(client).fullUpdates;
+    }
+
+    /**
+     * @param client index of a client
+     * @return number of datagrams the channel could not send at once (dropped)
+     */
+    public long getDatagramsDropped(int client) {
+        return clients.get(client).dropped;
+    }
+
+    /**
+     * @return time taken by each call to send: encoding and sending to every client (nanoseconds)
+     */
+    public LatencyHistogram getSendLatency() {
+        return sendLatency;
+    }
+
+    /**
+     * @param seq sequence number of a snapshot sent
+     * @return the snapshot as sent, null if no longer kept
+     */
+    public NetSnapshot getSent(int seq) {
+        if (seq < 0) return null;
+        int slot = seq % HISTORY;
+        return historySeqs[slot] == seq ? history[slot] : null;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Reads every datagram received since the last call, without waiting: new clients join,
+     * acknowledgments are noted, and input is handed to the listener. Then forgets silent clients.
+     */
+    public void poll() {
+        try {
+            SocketAddress address;
+            while ((address = channel.receive(received)) != null) {
+                received.flip();
+                receive(address, received);
+                received.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot receive from the clients", e);
+        }
+
+        long now = System.nanoTime();
+        for (int i = clients.size - 1; i >= 0; i--) {
+            Client client = clients.get(i);
+            if (now - client.lastReceived < TIMEOUT_NANOS) continue;
+            clients.removeIndex(i);
+            if (listener != null) listener.leave(client.player);
+        }
+    }
+
+    /**
+     * Keeps a snapshot as a future baseline and sends it to every client, as a delta against
+     * the newest snapshot the client acknowledged.
+     *
+     * @param seq   sequence number of the snapshot, increasing, e.g. the tick of the world
+     * @param state state of the world, copied
+     */
+    public void send(int seq, NetSnapshot state) {
+        long start = System.nanoTime();
+        int slot = seq % HISTORY;
+        history[slot].set(state);
+        historySeqs[slot] = seq;
+
+        for (int i = 0; i < clients.size; i++) {
+            Client client = clients.get(i);
+            // the client may lag more than the history behind
+            NetSnapshot base = client.acked >= 0 && seq - client.acked < HISTORY ? getSent(client.acked) : null;
+            int baseSeq = base == null ? -1 : client.acked;
+            encode(state, base);
+            try {
+                sendFragments(client, seq, baseSeq);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot send to " + client.address, e);
+            }
+            client.updates++;
+            if (base == null) client.fullUpdates++;
+        }
+        sendLatency.record(System.nanoTime() - start);
+    }
+
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot close the server", e);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private void receive(SocketAddress address, ByteBuffer datagram) {
+        if (datagram.remaining() < INPUT_HEADER || datagram.get() != INPUT) return;
+        Client client = find(address);
+        if (client == null) {
+            int player = listener == null ? -1 : listener.join(address);
+            if (player < 0) return;
+            client = new Client(address, player);
+            clients.add(client);
+        }
+        client.lastReceived = System.nanoTime();
+
+        // datagrams may arrive out of order
+        int ack = datagram.getInt();
+        if (ack > client.acked && getSent(ack) != null) client.acked = ack;
+        if (listener != null) listener.input(client.player, datagram);
+    }
+
+    private Client find(SocketAddress address) {
+        for (int i = 0; i < clients.size; i++) {
+            if (clients.get(i).address.equals(address)) return clients.get(i);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the delta into the delta buffer, growing it if needed, and flips it.
+     */
+    private void encode(NetSnapshot state, NetSnapshot base) {
+        while (true) {
+            delta.clear();
+            try {
+                state.writeDelta(base, delta);
+                break;
+            } catch (BufferOverflowException e) {
+                delta = ByteBuffer.allocate(2 * delta.capacity());
+            }
+        }
+        delta.flip();
+    }
+
+    private void sendFragments(Client client, int seq, int baseSeq) throws IOException {
+        int length = delta.remaining();
+        int fragments = Math.max(1, (length + MAX_PAYLOAD - 1) / MAX_PAYLOAD);
+        if (fragments > 0xffff) throw new IllegalStateException("Snapshot too large: " + length + " bytes");
+        for (int f = 0; f < fragments; f++) {
+            datagram.clear();
+            datagram.put((byte) STATE).putInt(seq).putInt(baseSeq).put((byte) client.player);
+            datagram.putShort((short) f).putShort((short) fragments);
+            int payload = Math.min(MAX_PAYLOAD, length - f * MAX_PAYLOAD);
+            datagram.put(delta.array(), f * MAX_PAYLOAD, payload);
+            datagram.flip();
+            int size = datagram.remaining();
+            if (channel.send(datagram, client.address) == 0) client.dropped++;
+            else client.bytes += size;
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Classes 						*|
+	\*------------------------------------------------------------------*/
+
+    private static class Client {
+        final SocketAddress address;
+        final int player;
+        int acked;
+        long lastReceived;
+
+        // Statistics
+        long bytes;
+        long updates;
+        long fullUpdates;
+        long dropped;
+
+        Client(SocketAddress address, int player) {
+            this.address = address;
+            this.player = player;
+            acked = -1;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.framework;
+
+import com.badlogic.gdx.utils.IntIntMap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Quantized state of a world as sent over the network: a table of entities, each an id and a fixed
+ * number of integer fields (e.g. type, position in 1/8 pixels, angle in 1/256 turns).
+ * A snapshot is sent as a delta against an earlier one both ends hold (the baseline): only the entities
+ * which appeared, changed or disappeared are written, and of each only the fields which changed,
+ * as variable length differences, so that a quantized value which did not move costs nothing.
+ * <p>
+ * Entities are kept in insertion order; a decoded snapshot holds the same entities as the encoded one,
+ * not necessarily in the same order (see {@link #sameState}).
+ */
+public class NetSnapshot {
+
+    // Fields are written as a one byte mask
+    public static final int MAX_FIELDS = 8;
+
+    private final int fields;
+    private int[] ids;
+    private int[] values; // fields of entity i at i * fields
+    private int size;
+    private final IntIntMap indices; // id -> index
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param fields number of fields of each entity, at most MAX_FIELDS
+     */
+    public NetSnapshot(int fields) {
+        if (fields < 1 || fields > MAX_FIELDS) throw new IllegalArgumentException("1 to 8 fields per entity");
+        this.fields = fields;
+        ids = new int[64];
+        values = new int[64 * fields];
+        indices = new IntIntMap(64);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of entities
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getFields() {
+        return fields;
+    }
+
+    /**
+     * @param index of an entity, from 0 to size() - 1
+     * @return its id
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index of an entity
+     * @param field of the entity
+     * @return its value
+     */
+    public int get(int index, int field) {
+        return values[index * fields + field];
+    }
+
+    /**
+     * @param id of an entity
+     * @return its index, -1 if the snapshot does not hold it
+     */
+    public int indexOf(int id) {
+        return indices.get(id, -1);
+    }
+
+    /**
+     * @param other snapshot with the same number of fields
+     * @return true if both hold the same entities with the same values, in any order
+     */
+    public boolean sameState(NetSnapshot other) {
+        if (other.size != size || other.fields != fields) return false;
+        for (int i = 0; i < size; i++) {
+            int j = other.indexOf(ids[i]);
+            if (j < 0) return false;
+            for (int f = 0; f < fields; f++) {
+                if (values[i * fields + f] != other.values[j * fields + f]) return false;
+            }
+        }
+        return true;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * Adds an entity whose fields are 0.
+     *
+     * @param id id of the entity, not already in the snapshot
+     * @return its index, to set its fields
+     * @throws IllegalArgumentException if the snapshot already holds the id
+     */
+    public int add(int id) {
+        if (indices.containsKey(id)) throw new IllegalArgumentException("Entity " + id + " is already in the snapshot");
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            values = Arrays.copyOf(values, size * 2 * fields);
+        }
+        ids[size] = id;
+        Arrays.fill(values, size * fields, (size + 1) * fields, 0);
+        indices.put(id, size);
+        return size++;
+    }
+
+    /**
+     * @param index of an entity
+     * @param field of the entity
+     * @param value new value
+     */
+    public void set(int index, int field, int value) {
+        values[index * fields + field] = value;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Removes every entity, keeping the memory.
+     */
+    public void clear() {
+        size = 0;
+        indices.clear();
+    }
+
+    /**
+     * Makes this snapshot a copy of another one.
+     *
+     * @param other snapshot with the same number of fields
+     */
+    public void set(NetSnapshot other) {
+        if (other.fields != fields) throw new IllegalArgumentException("Different number of fields");
+        clear();
+        if (ids.length < other.size) {
+            ids = new int[other.ids.length];
+            values = new int[other.values.length];
+        }
+        System.arraycopy(other.ids, 0, ids, 0, other.size);
+        System.arraycopy(other.values, 0, values, 0, other.size * fields);
+        size = other.size;
+        for (int i = 0; i < size; i++) indices.put(ids[i], i);
+    }
+
+    /**
+     * Writes this snapshot as a delta against a baseline, from the position of the buffer.
+     *
+     * @param base   snapshot the receiver holds, null to write every entity in full
+     * @param buffer buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void writeDelta(NetSnapshot base, ByteBuffer buffer) {
+        // entities which appeared or changed: id, mask of the changed fields, their differences
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        int previousId = 0;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            int b = base == null ? -1 : base.indexOf(id);
+            int mask = 0;
+            for (int f = 0; f < fields; f++) {
+                int baseValue = b < 0 ? 0 : base.values[b * fields + f];
+                if (values[i * fields + f] != baseValue) mask |= 1 << f;
+            }
+            if (b >= 0 && mask == 0) continue;
+
+            putVarint(buffer, zigzag(id - previousId));
+            previousId = id;
+            buffer.put((byte) mask);
+            for (int f = 0; f < fields; f++) {
+                if ((mask & 1 << f) == 0) continue;
+                int baseValue = b < 0 ? 0 : base.values[b * fields + f];
+                putVarint(buffer, zigzag(values[i * fields + f] - baseValue));
+            }
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+
+        // entities which disappeared
+        countPosition = buffer.position();
+        buffer.putInt(0);
+        count = 0;
+        previousId = 0;
+        if (base != null) {
+            for (int i = 0; i < base.size; i++) {
+                int id = base.ids[i];
+                if (indices.containsKey(id)) continue;
+                putVarint(buffer, zigzag(id - previousId));
+                previousId = id;
+                count++;
+            }
+        }
+        buffer.putInt(countPosition, count);
+    }
+
+    /**
+     * Replaces this snapshot by the one a delta was written from.
+     *
+     * @param base   baseline the delta was written against, null if it was written in full
+     * @param buffer buffer positioned at the delta, left after it
+     * @throws java.nio.BufferUnderflowException if the delta is truncated
+     */
+    public void readDelta(NetSnapshot base, ByteBuffer buffer) {
+        if (base == null) clear();
+        else if (base != this) set(base);
+
+        for (int count = buffer.getInt(), id = 0; count > 0; count--) {
+            id += unzigzag(getVarint(buffer));
+            int i = indexOf(id);
+            if (i < 0) i = add(id);
+            int mask = buffer.get() & 0xff;
+            for (int f = 0; f < fields; f++) {
+                if ((mask & 1 << f) != 0) values[i * fields + f] += unzigzag(getVarint(buffer));
+            }
+        }
+
+        for (int count = buffer.getInt(), id = 0; count > 0; count--) {
+            id += unzigzag(getVarint(buffer));
+            remove(id);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Removes an entity; the last entity takes its index.
+     */
+    private void remove(int id) {
+        int i = indices.remove(id, -1);
+        if (i < 0) return;
+        int last = --size;
+        if (i == last) return;
+        ids[i] = ids[last];
+        System.arraycopy(values, last * fields, values, i * fields, fields);
+        indices.put(ids[i], i);
+    }
+
+    private static int zigzag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    private static int unzigzag(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static void putVarint(ByteBuffer buffer, int n) {
+        while ((n & ~0x7f) != 0) {
+            buffer.put((byte) (n & 0x7f | 0x80));
+            n >>>= 7;
+        }
+        buffer.put((byte) n);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
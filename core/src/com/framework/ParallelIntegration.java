@@ -0,0 +1,49 @@
+package com.framework;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the deferred <code>integrate</code> step of actors on a fork-join pool,
+ * splitting the actor array into ranges. Each actor is integrated by exactly one thread.
+ */
+class ParallelIntegration extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    // Actors integrated by one task without splitting further
+    private static final int RANGE = 1024;
+
+    private final BaseActor[] actors;
+    private final int from;
+    private final int to;
+    private final float dt;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param actors actors to integrate, from index <code>from</code> (inclusive) to <code>to</code> (exclusive)
+     * @param dt     length of the tick given to act
+     */
+    ParallelIntegration(BaseActor[] actors, int from, int to, float dt) {
+        this.actors = actors;
+        this.from = from;
+        this.to = to;
+        this.dt = dt;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    protected void compute() {
+        if (to - from <= RANGE) {
+            for (int i = from; i < to; i++) actors[i].integrateDeferred(dt);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ParallelIntegration(actors, from, middle, dt), new ParallelIntegration(actors, middle, to, dt));
+    }
+}
@@ -0,0 +1,155 @@
+package com.framework;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Look and motion of the particles of an effect, added to a {@link ParticleSystem}.
+ * A particle plays the animation from its first frame, moves in a straight line from where it was emitted,
+ * spins, and scales and fades from its first to its last frame of life.
+ * By default particles have the size of the first frame, live as long as the animation, stand still,
+ * keep a rotation of 0, a scale of 1 and an opacity of 1.
+ * Settings apply to the particles already emitted, so change them before emitting.
+ */
+public class ParticleEffect {
+
+    final int index;
+    final Animation<TextureRegion> animation;
+
+    float width;
+    float height;
+    float minLife;
+    float maxLife;
+    float minSpeed;
+    float maxSpeed;
+    float spread;
+    float spin;
+    boolean aligned;
+    float startScale;
+    float endScale;
+    float opacity;
+    boolean fade;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by ParticleSystem.addEffect.
+     */
+    ParticleEffect(Animation<TextureRegion> animation, int index) {
+        this.index = index;
+        this.animation = animation;
+        TextureRegion frame = animation.getKeyFrame(0);
+        width = frame.getRegionWidth();
+        height = frame.getRegionHeight();
+        minLife = animation.getAnimationDuration();
+        maxLife = minLife;
+        startScale = 1;
+        endScale = 1;
+        opacity = 1;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return index of this effect in its particle system, in the order the effects were added
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Animation<TextureRegion> getAnimation() {
+        return animation;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * @param width  width of a particle at scale 1
+     * @param height height of a particle at scale 1
+     */
+    public void setSize(float width, float height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @param min shortest life of a particle (seconds)
+     * @param max longest life of a particle (seconds), each particle living a random time in between
+     */
+    public void setLife(float min, float max) {
+        minLife = min;
+        maxLife = max;
+    }
+
+    /**
+     * @param min lowest speed of a particle (pixels per second), relative to its emitter
+     * @param max highest speed of a particle, each particle moving at a random speed in between
+     */
+    public void setSpeed(float min, float max) {
+        minSpeed = min;
+        maxSpeed = max;
+    }
+
+    /**
+     * @param spread angle of the cone particles are emitted in, around the direction of emission (degrees)
+     */
+    public void setSpread(float spread) {
+        this.spread = spread;
+    }
+
+    /**
+     * @param spin highest angular speed of a particle (degrees per second), each particle spinning
+     *             at a random speed between -spin and spin
+     */
+    public void setSpin(float spin) {
+        this.spin = spin;
+    }
+
+    /**
+     * @param aligned true to rotate particles towards their direction of motion, false to start them at 0
+     */
+    public void setAligned(boolean aligned) {
+        this.aligned = aligned;
+    }
+
+    /**
+     * @param start scale of a particle when emitted
+     * @param end   scale of a particle at the end of its life
+     */
+    public void setScale(float start, float end) {
+        startScale = start;
+        endScale = end;
+    }
+
+    /**
+     * @param opacity opacity of a particle when emitted, from 0 to 1
+     */
+    public void setOpacity(float opacity) {
+        this.opacity = opacity;
+    }
+
+    /**
+     * @param fade true to fade particles out over their life, false to keep their opacity
+     */
+    public void setFade(boolean fade) {
+        this.fade = fade;
+    }
+}
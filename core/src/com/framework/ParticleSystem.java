@@ -0,0 +1,411 @@
+package com.framework;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Particles of short-lived effects (explosions, exhaust...): a single actor storing them in primitive arrays
+ * (structure of arrays) instead of one actor per particle. Particles are moved in one loop and drawn
+ * in one pass per effect, so that an effect whose animation has a texture of its own (e.g. a sheet loaded
+ * apart from the atlas) switches the texture of the batch once, not for every particle.
+ * How a particle looks and moves comes from the {@link ParticleEffect} it was emitted with.
+ * <p>
+ * The arrays are allocated once, for a number of particles shared by all the effects: emitting allocates
+ * nothing, and the particles emitted while the system is full are dropped.
+ * Particles draw their random numbers from a generator of the system, seeded from the world and saved
+ * with its state, so that effects neither depend on nor change the random sequence of the game.
+ * In a toroidal world, particles wrap around it, and those straddling an edge are drawn on the other side too.
+ */
+public class ParticleSystem extends BaseActor {
+
+    private final int maxParticles;
+    private final Array<ParticleEffect> effects;
+    private final RandomXS128 random;
+
+    // Particles (x, y is the center)
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] rotation;
+    private final float[] angularSpeed;
+    private final float[] age;
+    private final float[] life;
+    private final int[] effect;
+    private final int[] ids;
+    private int size;
+    private int lastId;
+
+    // Statistics
+    private int dropped;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param s            stage to add the system to, typically the main stage
+     * @param maxParticles number of particles alive at once, over all the effects
+     */
+    public ParticleSystem(Stage s, int maxParticles) {
+        super(0, 0, s);
+        this.maxParticles = maxParticles;
+        effects = new Array<ParticleEffect>(8);
+        // a sequence of its own, apart from the one of the world
+        random = new RandomXS128(World.of(s).getSeed() + 1);
+
+        x = new float[maxParticles];
+        y = new float[maxParticles];
+        velocityX = new float[maxParticles];
+        velocityY = new float[maxParticles];
+        rotation = new float[maxParticles];
+        angularSpeed = new float[maxParticles];
+        age = new float[maxParticles];
+        life = new float[maxParticles];
+        effect = new int[maxParticles];
+        ids = new int[maxParticles];
+        size = 0;
+    }
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of particles alive
+     */
+    public int getLiveCount() {
+        return size;
+    }
+
+    /**
+     * @return number of particles alive at once, over all the effects
+     */
+    public int getMaxParticles() {
+        return maxParticles;
+    }
+
+    /**
+     * @return number of particles dropped since the system was created, because it was full
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @param index index given by addEffect
+     * @return effect added at that index
+     */
+    public ParticleEffect getEffect(int index) {
+        return effects.get(index);
+    }
+
+    /**
+     * @param index of a particle
+     * @return x-coordinate of the center of the particle
+     */
+    public float getParticleX(int index) {
+        return x[index];
+    }
+
+    /**
+     * @param index of a particle
+     * @return y-coordinate of the center of the particle
+     */
+    public float getParticleY(int index) {
+        return y[index];
+    }
+
+    /**
+     * @param index of a particle
+     * @return rotation of the particle (degrees)
+     */
+    public float getParticleRotation(int index) {
+        return rotation[index];
+    }
+
+    /**
+     * @param index of a particle
+     * @return opacity the particle is drawn with, from 0 to 1
+     */
+    public float getParticleOpacity(int index) {
+        ParticleEffect e = effects.get(effect[index]);
+        return e.fade ? e.opacity * (1 - age[index] / life[index]) : e.opacity;
+    }
+
+    /**
+     * @param index of a particle
+     * @return index of the effect of the particle
+     */
+    public int getParticleEffect(int index) {
+        return effect[index];
+    }
+
+    /**
+     * @param index of a particle
+     * @return id of the particle, from 1, unique in the system and kept while the index changes
+     */
+    public int getParticleId(int index) {
+        return ids[index];
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Adds an effect to emit particles with, configured through its setters.
+     *
+     * @param animation animation of the particles, e.g. loaded with <code>loadAnimationFromSheet</code>
+     *                  of this system so that it is released with the world
+     * @return new effect, whose index follows the one of the previous effect, from 0
+     */
+    public ParticleEffect addEffect(Animation<TextureRegion> animation) {
+        ParticleEffect e = new ParticleEffect(animation, effects.size);
+        effects.add(e);
+        return e;
+    }
+
+    /**
+     * Emits particles in a cone around a direction, e.g. the exhaust of a thruster.
+     *
+     * @param e         effect of the particles
+     * @param centerX   x-coordinate of the point they leave from
+     * @param centerY   y-coordinate of the point they leave from
+     * @param angle     direction of emission (degrees), the middle of the cone of the effect
+     * @param velocityX added to the velocity of each particle, e.g. the velocity of the emitter
+     * @param velocityY added to the velocity of each particle
+     * @param count     number of particles
+     * @return number of particles emitted, fewer than count once the system is full
+     */
+    public int emit(ParticleEffect e, float centerX, float centerY, float angle,
+                    float velocityX, float velocityY, int count) {
+        for (int i = 0; i < count; i++) {
+            if (size == maxParticles) {
+                dropped += count - i;
+                return i;
+            }
+            float direction = angle + (random.nextFloat() - 0.5f) * e.spread;
+            add(e, centerX, centerY, direction, velocityX, velocityY);
+        }
+        return count;
+    }
+
+    /**
+     * Emits particles in every direction, e.g. the debris of an explosion.
+     *
+     * @param e       effect of the particles
+     * @param centerX x-coordinate of the point they leave from
+     * @param centerY y-coordinate of the point they leave from
+     * @param count   number of particles
+     * @return number of particles emitted, fewer than count once the system is full
+     */
+    public int burst(ParticleEffect e, float centerX, float centerY, int count) {
+        for (int i = 0; i < count; i++) {
+            if (size == maxParticles) {
+                dropped += count - i;
+                return i;
+            }
+            add(e, centerX, centerY, random.nextFloat() * 360, 0, 0);
+        }
+        return count;
+    }
+
+    /**
+     * Removes every particle.
+     */
+    public void clearParticles() {
+        size = 0;
+    }
+
+	/*------------------------------*\
+	|*				Overriden		*|
+	\*------------------------------*/
+
+    /**
+     * Ages, moves, spins and wraps every particle, and removes those at the end of their life.
+     *
+     * @param dt elapsed time (second) since last tick
+     */
+    @Override
+    public void act(float dt) {
+        super.act(dt);
+
+        Rectangle world = getWorld().getBounds();
+        float worldWidth = world.width;
+        float worldHeight = world.height;
+        boolean toroidal = getWorld().isToroidal();
+
+        int i = 0;
+        while (i < size) {
+            float particleAge = age[i] + dt;
+            if (particleAge >= life[i]) {
+                removeParticle(i);
+                continue;
+            }
+            age[i] = particleAge;
+
+            float particleX = x[i] + velocityX[i] * dt;
+            float particleY = y[i] + velocityY[i] * dt;
+            // same rule as wrapAroundWorld
+            if (toroidal) {
+                if (particleX < 0) particleX += worldWidth;
+                else if (particleX >= worldWidth) particleX -= worldWidth;
+                if (particleY < 0) particleY += worldHeight;
+                else if (particleY >= worldHeight) particleY -= worldHeight;
+            }
+            x[i] = particleX;
+            y[i] = particleY;
+            rotation[i] += angularSpeed[i] * dt;
+            i++;
+        }
+    }
+
+    /**
+     * Draws the particles one effect after the other, with the frame of their animation at their age.
+     */
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        if (!isVisible() || size == 0) return;
+        Color c = getColor();
+        float alpha = c.a * parentAlpha;
+
+        Rectangle world = getWorld().getBounds();
+        boolean toroidal = getWorld().isToroidal();
+        for (int n = 0; n < effects.size; n++) {
+            ParticleEffect e = effects.get(n);
+            for (int i = 0; i < size; i++) {
+                if (effect[i] == n) drawParticle(batch, e, i, c, alpha, world, toroidal);
+            }
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Writes the random number generator, then the particles after the state of the system actor:
+     * 40 bytes per particle. Effects are not saved: a system restoring a snapshot must have the same effects.
+     */
+    @Override
+    protected void writeState(ByteBuffer buffer) {
+        super.writeState(buffer);
+        buffer.putLong(random.getState(0)).putLong(random.getState(1));
+        buffer.putInt(size).putInt(lastId);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(x[i]).putFloat(y[i]).putFloat(velocityX[i]).putFloat(velocityY[i]);
+            buffer.putFloat(rotation[i]).putFloat(angularSpeed[i]).putFloat(age[i]).putFloat(life[i]);
+            buffer.putInt(effect[i]).putInt(ids[i]);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the snapshot holds more particles than this system
+     */
+    @Override
+    protected void readState(ByteBuffer buffer) {
+        super.readState(buffer);
+        random.setState(buffer.getLong(), buffer.getLong());
+        int count = buffer.getInt();
+        if (count > maxParticles) throw new IllegalArgumentException(count + " particles, at most " + maxParticles);
+        size = count;
+        lastId = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            x[i] = buffer.getFloat();
+            y[i] = buffer.getFloat();
+            velocityX[i] = buffer.getFloat();
+            velocityY[i] = buffer.getFloat();
+            rotation[i] = buffer.getFloat();
+            angularSpeed[i] = buffer.getFloat();
+            age[i] = buffer.getFloat();
+            life[i] = buffer.getFloat();
+            effect[i] = buffer.getInt();
+            ids[i] = buffer.getInt();
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private void drawParticle(Batch batch, ParticleEffect e, int i, Color c, float alpha,
+                              Rectangle world, boolean toroidal) {
+        float t = age[i] / life[i];
+        float scale = e.startScale + (e.endScale - e.startScale) * t;
+        float opacity = e.fade ? e.opacity * (1 - t) : e.opacity;
+        batch.setColor(c.r, c.g, c.b, alpha * opacity);
+
+        TextureRegion frame = e.animation.getKeyFrame(age[i]);
+        float originX = e.width / 2;
+        float originY = e.height / 2;
+        float particleX = x[i] - originX;
+        float particleY = y[i] - originY;
+        batch.draw(frame, particleX, particleY, originX, originY, e.width, e.height, scale, scale, rotation[i]);
+        if (!toroidal) return;
+
+        // at least half the diagonal, whatever the rotation
+        float extent = (originX + originY) * scale;
+        float ghostX = x[i] < extent ? world.width : x[i] > world.width - extent ? -world.width : 0;
+        float ghostY = y[i] < extent ? world.height : y[i] > world.height - extent ? -world.height : 0;
+        if (ghostX != 0) {
+            batch.draw(frame, particleX + ghostX, particleY, originX, originY,
+                    e.width, e.height, scale, scale, rotation[i]);
+        }
+        if (ghostY != 0) {
+            batch.draw(frame, particleX, particleY + ghostY, originX, originY,
+                    e.width, e.height, scale, scale, rotation[i]);
+        }
+        if (ghostX != 0 && ghostY != 0) {
+            batch.draw(frame, particleX + ghostX, particleY + ghostY, originX, originY,
+                    e.width, e.height, scale, scale, rotation[i]);
+        }
+    }
+
+    /**
+     * Appends a particle moving in a direction, at a random speed, life and spin of the effect.
+     */
+    private void add(ParticleEffect e, float centerX, float centerY, float direction,
+                     float emitterVelocityX, float emitterVelocityY) {
+        float speed = e.minSpeed + random.nextFloat() * (e.maxSpeed - e.minSpeed);
+        x[size] = centerX;
+        y[size] = centerY;
+        velocityX[size] = emitterVelocityX + speed * MathUtils.cosDeg(direction);
+        velocityY[size] = emitterVelocityY + speed * MathUtils.sinDeg(direction);
+        rotation[size] = e.aligned ? direction : 0;
+        angularSpeed[size] = (random.nextFloat() * 2 - 1) * e.spin;
+        age[size] = 0;
+        life[size] = e.minLife + random.nextFloat() * (e.maxLife - e.minLife);
+        effect[size] = e.index;
+        ids[size] = ++lastId;
+        size++;
+    }
+
+    /**
+     * Removes a particle; the last particle takes its index.
+     */
+    private void removeParticle(int index) {
+        int last = --size;
+        if (index == last) return;
+
+        x[index] = x[last];
+        y[index] = y[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        rotation[index] = rotation[last];
+        angularSpeed[index] = angularSpeed[last];
+        age[index] = age[last];
+        life[index] = life[last];
+        effect[index] = effect[last];
+        ids[index] = ids[last];
+    }
+}
@@ -0,0 +1,176 @@
+package com.framework;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Rewind history: the last snapshots of a world, taken every few ticks, in a fixed number of slots
+ * reused in a ring. Slots keep their buffer, which only grows when a snapshot does not fit,
+ * so that recording stops allocating once the ring has filled up.
+ * <p>
+ * Set it with <code>BaseScreen.setRewindBuffer</code>, which records after each tick.
+ */
+public class SnapshotRing {
+
+    private static final int MIN_SLOT_BYTES = 1024;
+
+    private final WorldSnapshot snapshot;
+    private final int interval;
+    private final ByteBuffer[] slots;
+    private int newest; // index of the newest snapshot
+    private int size;   // number of snapshots held
+    private int ticks;  // since the last snapshot
+
+    // Statistics
+    private long snapshots;
+    private long totalBytes;
+    private long totalNanos;
+    private float tickSeconds;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param snapshot serializer of the world
+     * @param capacity number of snapshots kept
+     * @param interval number of ticks between two snapshots
+     */
+    public SnapshotRing(WorldSnapshot snapshot, int capacity, int interval) {
+        this.snapshot = snapshot;
+        this.interval = interval;
+        slots = new ByteBuffer[capacity];
+        newest = -1;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of snapshots held
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return game time covered by the snapshots held (seconds)
+     */
+    public float getSeconds() {
+        return size * interval * tickSeconds;
+    }
+
+    /**
+     * @return mean time taken to write a snapshot (nanoseconds)
+     */
+    public double getMeanSnapshotNanos() {
+        return snapshots == 0 ? 0 : (double) totalNanos / snapshots;
+    }
+
+    /**
+     * @return mean size of a snapshot (bytes)
+     */
+    public double getMeanSnapshotBytes() {
+        return snapshots == 0 ? 0 : (double) totalBytes / snapshots;
+    }
+
+    /**
+     * @return memory used by one second of history, at the mean snapshot size (bytes)
+     */
+    public double getBytesPerSecond() {
+        return tickSeconds == 0 ? 0 : getMeanSnapshotBytes() / (interval * tickSeconds);
+    }
+
+    /**
+     * @return memory reserved by the slots (bytes)
+     */
+    public long getReservedBytes() {
+        long bytes = 0;
+        for (ByteBuffer slot : slots) {
+            if (slot != null) bytes += slot.capacity();
+        }
+        return bytes;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Takes a snapshot now, replacing the oldest one if the ring is full.
+     */
+    public void record() {
+        int slot = (newest + 1) % slots.length;
+        ByteBuffer buffer = slots[slot];
+        if (buffer == null) buffer = ByteBuffer.allocate(Math.max(MIN_SLOT_BYTES, 2 * snapshot.getLastBytes()));
+        while (true) {
+            buffer.clear();
+            try {
+                snapshot.write(buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(2 * buffer.capacity());
+            }
+        }
+        buffer.flip();
+        slots[slot] = buffer;
+        newest = slot;
+        if (size < slots.length) size++;
+        ticks = 0;
+
+        snapshots++;
+        totalBytes += snapshot.getLastBytes();
+        totalNanos += snapshot.getLastWriteNanos();
+    }
+
+    /**
+     * Restores an earlier state and forgets the snapshots taken after it.
+     *
+     * @param back 1 for the newest snapshot, 2 for the one before...; limited to the snapshots held
+     * @return false if the ring is empty
+     */
+    public boolean rewind(int back) {
+        if (size == 0) return false;
+        back = Math.min(back, size);
+        int slot = (newest - back + 1 + slots.length) % slots.length;
+        ByteBuffer buffer = slots[slot];
+        buffer.rewind();
+        snapshot.read(buffer);
+
+        // the restored snapshot stays, to rewind to it again
+        newest = slot;
+        size -= back - 1;
+        ticks = 0;
+        return true;
+    }
+
+    /**
+     * Forgets the snapshots, keeping the memory of the slots.
+     */
+    public void clear() {
+        size = 0;
+        newest = -1;
+        ticks = 0;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by BaseScreen after each tick; records every <code>interval</code> ticks.
+     */
+    void tick(float dt) {
+        tickSeconds = dt;
+        if (++ticks >= interval) record();
+    }
+}
@@ -0,0 +1,108 @@
+package com.framework;
+
+/**
+ * Broadphase sorting actors along the x axis and sweeping for overlapping intervals.
+ * The order is kept between passes and repaired with an insertion sort,
+ * which is close to linear since actors barely move from one frame to the next.
+ * In a toroidal world, the proxies sticking out of the ends of the sweep are then matched with those
+ * at the other end, the only ones they can meet across the edge.
+ */
+public class SweepAndPruneBroadphase extends Broadphase {
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public SweepAndPruneBroadphase() {
+        super();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    protected void findCandidates(Listener listener) {
+        sort();
+
+        float widest = 0;
+        for (int i = 0; i < size; i++) {
+            float right = maxX[i];
+            for (int j = i + 1; j < size && minX[j] <= right; j++) {
+                testPair(i, j, listener);
+            }
+            widest = Math.max(widest, right - minX[i]);
+        }
+        if (wrapWidth > 0) sweepEdges(listener, widest);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Tests the pairs overlapping across the vertical edges of a toroidal world: the proxies past the right edge
+     * against the first ones, then the proxies past the left edge against the last ones which do not reach past
+     * the right edge (already tested).
+     *
+     * @param widest largest width of a proxy, which bounds the search from the end of the sweep
+     */
+    private void sweepEdges(Listener listener, float widest) {
+        for (int i = size - 1; i >= 0 && minX[i] > wrapWidth - widest; i--) {
+            if (maxX[i] <= wrapWidth) continue;
+            float right = maxX[i] - wrapWidth;
+            for (int j = 0; j < i && minX[j] <= right; j++) {
+                testPair(i, j, listener);
+            }
+        }
+        for (int i = 0; i < size && minX[i] < 0; i++) {
+            float left = minX[i] + wrapWidth;
+            for (int j = size - 1; j > i && minX[j] >= left - widest; j--) {
+                if (maxX[j] >= left && maxX[j] <= wrapWidth) testPair(i, j, listener);
+            }
+        }
+    }
+
+    /**
+     * Insertion sort of the proxies by left edge.
+     * Falls back to a quicksort when the order is too far off,
+     * e.g. after many actors have been added at once.
+     */
+    private void sort() {
+        int budget = 8 * size;
+        for (int i = 1; i < size; i++) {
+            for (int j = i; j > 0 && minX[j - 1] > minX[j]; j--) {
+                swap(j - 1, j);
+                if (--budget == 0) {
+                    quickSort(0, size - 1);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void quickSort(int low, int high) {
+        while (low < high) {
+            float pivot = minX[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (minX[i] < pivot) i++;
+                while (minX[j] > pivot) j--;
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half to bound the stack depth
+            if (j - low < high - i) {
+                quickSort(low, j);
+                low = i;
+            } else {
+                quickSort(i, high);
+                high = j;
+            }
+        }
+    }
+}
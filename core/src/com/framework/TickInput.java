@@ -0,0 +1,314 @@
+package com.framework;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Input of a world whose key states do not change during a simulation tick: the keys polled by
+ * the actors are sampled from the live input on first use in the tick, so that a recorder can log
+ * exactly what the simulation read. When replaying, the key states are set from the log instead.
+ * Everything but the key polls is read from the live input.
+ */
+class TickInput implements Input {
+
+    // Key codes range from ANY_KEY (-1) to 255
+    private static final int KEYS = 257;
+
+    private final Input source; // null when replaying
+    private final boolean[] pressed;
+    private final boolean[] sampled;
+    private final IntArray sampledKeys;
+    private boolean inTick;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param source live input to sample, null when the key states are set by a replay
+     */
+    TickInput(Input source) {
+        this.source = source;
+        pressed = new boolean[KEYS];
+        sampled = new boolean[KEYS];
+        sampledKeys = new IntArray(false, 16);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    void beginTick() {
+        if (source != null) {
+            for (int i = 0; i < sampledKeys.size; i++) sampled[sampledKeys.get(i) + 1] = false;
+            sampledKeys.clear();
+        }
+        inTick = true;
+    }
+
+    void endTick() {
+        inTick = false;
+    }
+
+    /**
+     * @param keys receives the keys polled in the last tick which were pressed, in ascending order
+     */
+    void getPressedKeys(IntArray keys) {
+        keys.clear();
+        for (int i = 0; i < sampledKeys.size; i++) {
+            int key = sampledKeys.get(i);
+            if (pressed[key + 1]) keys.add(key);
+        }
+        keys.sort();
+    }
+
+    /**
+     * Sets the key states of the next ticks when replaying: the given keys are pressed, others released.
+     */
+    void setPressedKeys(IntArray keys) {
+        for (int i = 0; i < KEYS; i++) pressed[i] = false;
+        for (int i = 0; i < keys.size; i++) pressed[keys.get(i) + 1] = true;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Input interface							*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        if (key < -1 || key >= KEYS - 1) return false;
+        if (source == null) return pressed[key + 1];
+        if (!inTick) return source.isKeyPressed(key);
+        if (!sampled[key + 1]) {
+            sampled[key + 1] = true;
+            sampledKeys.add(key);
+            pressed[key + 1] = source.isKeyPressed(key);
+        }
+        return pressed[key + 1];
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return source != null && source.isKeyJustPressed(key);
+    }
+
+    @Override
+    public float getAccelerometerX() {
+        return live().getAccelerometerX();
+    }
+
+    @Override
+    public float getAccelerometerY() {
+        return live().getAccelerometerY();
+    }
+
+    @Override
+    public float getAccelerometerZ() {
+        return live().getAccelerometerZ();
+    }
+
+    @Override
+    public float getGyroscopeX() {
+        return live().getGyroscopeX();
+    }
+
+    @Override
+    public float getGyroscopeY() {
+        return live().getGyroscopeY();
+    }
+
+    @Override
+    public float getGyroscopeZ() {
+        return live().getGyroscopeZ();
+    }
+
+    @Override
+    public int getX() {
+        return live().getX();
+    }
+
+    @Override
+    public int getX(int pointer) {
+        return live().getX(pointer);
+    }
+
+    @Override
+    public int getDeltaX() {
+        return live().getDeltaX();
+    }
+
+    @Override
+    public int getDeltaX(int pointer) {
+        return live().getDeltaX(pointer);
+    }
+
+    @Override
+    public int getY() {
+        return live().getY();
+    }
+
+    @Override
+    public int getY(int pointer) {
+        return live().getY(pointer);
+    }
+
+    @Override
+    public int getDeltaY() {
+        return live().getDeltaY();
+    }
+
+    @Override
+    public int getDeltaY(int pointer) {
+        return live().getDeltaY(pointer);
+    }
+
+    @Override
+    public boolean isTouched() {
+        return live().isTouched();
+    }
+
+    @Override
+    public boolean justTouched() {
+        return live().justTouched();
+    }
+
+    @Override
+    public boolean isTouched(int pointer) {
+        return live().isTouched(pointer);
+    }
+
+    @Override
+    public float getPressure() {
+        return live().getPressure();
+    }
+
+    @Override
+    public float getPressure(int pointer) {
+        return live().getPressure(pointer);
+    }
+
+    @Override
+    public boolean isButtonPressed(int button) {
+        return live().isButtonPressed(button);
+    }
+
+    @Override
+    public void getTextInput(TextInputListener listener, String title, String text, String hint) {
+        live().getTextInput(listener, title, text, hint);
+    }
+
+    @Override
+    public void setOnscreenKeyboardVisible(boolean visible) {
+        live().setOnscreenKeyboardVisible(visible);
+    }
+
+    @Override
+    public void vibrate(int milliseconds) {
+        live().vibrate(milliseconds);
+    }
+
+    @Override
+    public void vibrate(long[] pattern, int repeat) {
+        live().vibrate(pattern, repeat);
+    }
+
+    @Override
+    public void cancelVibrate() {
+        live().cancelVibrate();
+    }
+
+    @Override
+    public float getAzimuth() {
+        return live().getAzimuth();
+    }
+
+    @Override
+    public float getPitch() {
+        return live().getPitch();
+    }
+
+    @Override
+    public float getRoll() {
+        return live().getRoll();
+    }
+
+    @Override
+    public void getRotationMatrix(float[] matrix) {
+        live().getRotationMatrix(matrix);
+    }
+
+    @Override
+    public long getCurrentEventTime() {
+        return live().getCurrentEventTime();
+    }
+
+    @Override
+    public void setCatchBackKey(boolean catchBack) {
+        live().setCatchBackKey(catchBack);
+    }
+
+    @Override
+    public boolean isCatchBackKey() {
+        return live().isCatchBackKey();
+    }
+
+    @Override
+    public void setCatchMenuKey(boolean catchMenu) {
+        live().setCatchMenuKey(catchMenu);
+    }
+
+    @Override
+    public boolean isCatchMenuKey() {
+        return live().isCatchMenuKey();
+    }
+
+    @Override
+    public void setInputProcessor(InputProcessor processor) {
+        live().setInputProcessor(processor);
+    }
+
+    @Override
+    public InputProcessor getInputProcessor() {
+        return live().getInputProcessor();
+    }
+
+    @Override
+    public boolean isPeripheralAvailable(Peripheral peripheral) {
+        return live().isPeripheralAvailable(peripheral);
+    }
+
+    @Override
+    public int getRotation() {
+        return live().getRotation();
+    }
+
+    @Override
+    public Orientation getNativeOrientation() {
+        return live().getNativeOrientation();
+    }
+
+    @Override
+    public void setCursorCatched(boolean catched) {
+        live().setCursorCatched(catched);
+    }
+
+    @Override
+    public boolean isCursorCatched() {
+        return live().isCursorCatched();
+    }
+
+    @Override
+    public void setCursorPosition(int x, int y) {
+        live().setCursorPosition(x, y);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private Input live() {
+        return source != null ? source : Gdx.input;
+    }
+}
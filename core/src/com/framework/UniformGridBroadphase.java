@@ -0,0 +1,166 @@
+package com.framework;
+
+import com.badlogic.gdx.math.MathUtils;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase hashing actors into a uniform grid of square cells.
+ * The grid is rebuilt on every pass; a pair is only tested in the first cell
+ * both actors share, so no pair is reported twice.
+ * Works best when the cell size is close to the size of the typical actor.
+ * In a toroidal world the grid is fitted to the world, the cells being stretched to a whole number per side,
+ * and cell coordinates are taken modulo the number of cells: an actor straddling an edge is inserted in
+ * the cells on both sides, and found from either of them.
+ */
+public class UniformGridBroadphase extends Broadphase {
+
+    private final float cellSize;
+
+    // Cells of the last pass: size, and number along each axis of a toroidal world (0 along an axis which does not wrap)
+    private float cellWidth;
+    private float cellHeight;
+    private int columns;
+    private int rows;
+
+    // Hash table: bucket -> first entry, entry -> next entry in the same bucket
+    private int[] buckets;
+    private int[] entryNext;
+    private int[] entryProxy;
+    private int[] entryCellX;
+    private int[] entryCellY;
+    private int entryCount;
+
+    // Range of cells covered by each proxy
+    private int[] cellMinX;
+    private int[] cellMinY;
+    private int[] cellMaxX;
+    private int[] cellMaxY;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param cellSize width and height (pixels) of a grid cell
+     */
+    public UniformGridBroadphase(float cellSize) {
+        super();
+        this.cellSize = cellSize;
+
+        // as grown for the 64 proxies of the superclass
+        buckets = new int[128];
+        entryNext = new int[256];
+        entryProxy = new int[256];
+        entryCellX = new int[256];
+        entryCellY = new int[256];
+
+        cellMinX = new int[64];
+        cellMinY = new int[64];
+        cellMaxX = new int[64];
+        cellMaxY = new int[64];
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    protected void findCandidates(Listener listener) {
+        rebuild();
+
+        for (int e = 0; e < entryCount; e++) {
+            int i = entryProxy[e];
+            int cx = entryCellX[e];
+            int cy = entryCellY[e];
+
+            for (int f = entryNext[e]; f != -1; f = entryNext[f]) {
+                if (entryCellX[f] != cx || entryCellY[f] != cy) continue;
+                int j = entryProxy[f];
+
+                // only test the pair in the first cell shared by both proxies, at their nearest images
+                if (cx != wrap(Math.max(cellMinX[i], cellMinX[j] + imageX(i, j) * columns), columns)) continue;
+                if (cy != wrap(Math.max(cellMinY[i], cellMinY[j] + imageY(i, j) * rows), rows)) continue;
+
+                testPair(i, j, listener);
+            }
+        }
+    }
+
+    /**
+     * Grows the cell ranges, the entries and the buckets with the proxies. An actor no larger than a cell
+     * covers at most 4 cells: entries grow with the number of proxies, rather than whenever the actors
+     * happen to straddle more cells.
+     */
+    @Override
+    protected void grow(int capacity) {
+        super.grow(capacity);
+        cellMinX = Arrays.copyOf(cellMinX, capacity);
+        cellMinY = Arrays.copyOf(cellMinY, capacity);
+        cellMaxX = Arrays.copyOf(cellMaxX, capacity);
+        cellMaxY = Arrays.copyOf(cellMaxY, capacity);
+        if (entryNext.length < capacity * 4) growEntries(capacity * 4);
+        int bucketCount = MathUtils.nextPowerOfTwo(capacity * 2);
+        if (buckets.length < bucketCount) buckets = new int[bucketCount];
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Inserts every proxy in each cell covered by its bounding rectangle.
+     */
+    private void rebuild() {
+        columns = wrapWidth > 0 ? Math.max(1, (int) (wrapWidth / cellSize)) : 0;
+        rows = wrapHeight > 0 ? Math.max(1, (int) (wrapHeight / cellSize)) : 0;
+        cellWidth = columns > 0 ? wrapWidth / columns : cellSize;
+        cellHeight = rows > 0 ? wrapHeight / rows : cellSize;
+
+        Arrays.fill(buckets, -1);
+        entryCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            cellMinX[i] = MathUtils.floor(minX[i] / cellWidth);
+            cellMinY[i] = MathUtils.floor(minY[i] / cellHeight);
+            cellMaxX[i] = MathUtils.floor(maxX[i] / cellWidth);
+            cellMaxY[i] = MathUtils.floor(maxY[i] / cellHeight);
+            // around the world at most once
+            int lastX = columns > 0 ? Math.min(cellMaxX[i], cellMinX[i] + columns - 1) : cellMaxX[i];
+            int lastY = rows > 0 ? Math.min(cellMaxY[i], cellMinY[i] + rows - 1) : cellMaxY[i];
+
+            for (int cy = cellMinY[i]; cy <= lastY; cy++) {
+                for (int cx = cellMinX[i]; cx <= lastX; cx++) {
+                    insert(i, wrap(cx, columns), wrap(cy, rows));
+                }
+            }
+        }
+    }
+
+    private void insert(int proxy, int cx, int cy) {
+        if (entryCount == entryNext.length) growEntries(entryCount * 2);
+        int bucket = ((cx * 73856093) ^ (cy * 19349663)) & (buckets.length - 1);
+        entryProxy[entryCount] = proxy;
+        entryCellX[entryCount] = cx;
+        entryCellY[entryCount] = cy;
+        entryNext[entryCount] = buckets[bucket];
+        buckets[bucket] = entryCount;
+        entryCount++;
+    }
+
+    /**
+     * @return cell coordinate modulo the number of cells, unchanged if the axis does not wrap
+     */
+    private static int wrap(int cell, int count) {
+        if (count == 0 || cell >= 0 && cell < count) return cell;
+        cell %= count;
+        return cell < 0 ? cell + count : cell;
+    }
+
+    private void growEntries(int capacity) {
+        entryNext = Arrays.copyOf(entryNext, capacity);
+        entryProxy = Arrays.copyOf(entryProxy, capacity);
+        entryCellX = Arrays.copyOf(entryCellX, capacity);
+        entryCellY = Arrays.copyOf(entryCellY, capacity);
+    }
+}
@@ -0,0 +1,72 @@
+package com.framework;
+
+import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.actions.AlphaAction;
+import com.badlogic.gdx.scenes.scene2d.actions.DelayAction;
+import com.badlogic.gdx.scenes.scene2d.actions.RemoveActorAction;
+import com.badlogic.gdx.scenes.scene2d.actions.RepeatAction;
+import com.badlogic.gdx.scenes.scene2d.actions.RotateByAction;
+import com.badlogic.gdx.scenes.scene2d.actions.ScaleToAction;
+import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
+
+/**
+ * Subset of the libGDX <code>Actions</code> factory whose actions are created with <code>new</code>
+ * instead of being taken from the global action pools. Those pools are shared by every thread,
+ * so worlds simulated in parallel must not use them.
+ * Unpooled actions are never freed: an actor can keep one and <code>restart()</code> it when reused.
+ */
+public final class UnpooledActions {
+
+    private UnpooledActions() {
+    }
+
+    public static DelayAction delay(float duration) {
+        return new DelayAction(duration);
+    }
+
+    public static AlphaAction fadeIn(float duration) {
+        return alpha(1, duration);
+    }
+
+    public static AlphaAction fadeOut(float duration) {
+        return alpha(0, duration);
+    }
+
+    public static AlphaAction alpha(float a, float duration) {
+        AlphaAction action = new AlphaAction();
+        action.setAlpha(a);
+        action.setDuration(duration);
+        return action;
+    }
+
+    public static RotateByAction rotateBy(float amount, float duration) {
+        RotateByAction action = new RotateByAction();
+        action.setAmount(amount);
+        action.setDuration(duration);
+        return action;
+    }
+
+    public static ScaleToAction scaleTo(float x, float y, float duration) {
+        ScaleToAction action = new ScaleToAction();
+        action.setScale(x, y);
+        action.setDuration(duration);
+        return action;
+    }
+
+    public static RemoveActorAction removeActor() {
+        return new RemoveActorAction();
+    }
+
+    public static SequenceAction sequence(Action... actions) {
+        SequenceAction action = new SequenceAction();
+        for (Action a : actions) action.addAction(a);
+        return action;
+    }
+
+    public static RepeatAction forever(Action repeatedAction) {
+        RepeatAction action = new RepeatAction();
+        action.setCount(RepeatAction.FOREVER);
+        action.setAction(repeatedAction);
+        return action;
+    }
+}
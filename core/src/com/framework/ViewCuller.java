@@ -0,0 +1,415 @@
+package com.framework;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.SnapshotArray;
+
+/**
+ * Skips the drawing of the main stage actors which are out of the view of the camera, for worlds larger
+ * than the viewport (see <code>BaseActor.alignCamera</code>).
+ * <p>
+ * Actors placed directly on the main stage are kept in a uniform grid over the world bounds, moved
+ * from cell to cell as they move. Before drawing, only the cells around the view are marked;
+ * <code>BaseActor.draw</code> skips the actors of unmarked cells, and those of the border cells whose
+ * transformed bounds fall outside the view. Children of an actor are drawn, or skipped, with it. The extent of an actor
+ * around its center is measured when it enters a cell, so an actor growing in place (e.g. scaled by an action)
+ * may be culled at the edges of the view until it changes cell.
+ * <p>
+ * Actors reaching farther than a cell from their center (e.g. a background covering the world) are kept out of
+ * the grid and always drawn: the cells around the view are searched as far as the largest extent of the actors
+ * listed, which shrinks again when they leave.
+ * <p>
+ * Set by <code>BaseScreen</code>, see <code>BaseScreen.setViewCulling</code>.
+ */
+public class ViewCuller {
+
+    // BaseActor.cullCell of an actor larger than a cell: tracked, but not listed in the grid
+    static final int OVERSIZED = -2;
+
+    private final World world;
+    private final float cellSize;
+
+    // Grid: cell -> number of actors (listed by BaseActor.cullCell), frame which marked it
+    // (negated when its actors are surely in view)
+    private int[] counts;
+    private int[] marks;
+    private int columns;
+    private int rows;
+    private float gridWidth;  // world bounds the grid was built for
+    private float gridHeight;
+
+    // Largest extent (distance from the center of an actor to its farthest corner) of the listed actors,
+    // and number of listed actors of that extent
+    private float maxExtent;
+    private int maxExtentCount;
+
+    // View of the frame being drawn
+    private final Rectangle view;
+    private int stamp;
+    private boolean active;  // false while nothing is culled: no viewport yet (e.g. headless), or a view of the whole world
+    private boolean frozen; // positions set meanwhile on other threads
+
+    // Statistics of the last frame
+    private int drawn;
+    private int culled;
+    private int candidates;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Uses cells of 256 x 256 pixels.
+     *
+     * @param world world whose main stage is culled
+     */
+    public ViewCuller(World world) {
+        this(world, 256);
+    }
+
+    /**
+     * @param world    world whose main stage is culled
+     * @param cellSize width and height (pixels) of a cell; a few times the size of the typical actor
+     */
+    public ViewCuller(World world, float cellSize) {
+        this.world = world;
+        this.cellSize = cellSize;
+        view = new Rectangle();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of main stage actors drawn in the last frame
+     */
+    public int getDrawn() {
+        return drawn;
+    }
+
+    /**
+     * @return number of main stage actors skipped in the last frame, out of the view
+     */
+    public int getCulled() {
+        return culled;
+    }
+
+    /**
+     * @return number of actors found in the cells around the view in the last frame
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return view of the last frame, in world coordinates
+     */
+    public Rectangle getView() {
+        return view;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Marks the actors around the view of the camera to be drawn; call before drawing the main stage.
+     *
+     * @param camera camera of the main stage, updated
+     */
+    public void begin(Camera camera) {
+        Rectangle bounds = world.getBounds();
+        if (counts == null || bounds.width != gridWidth || bounds.height != gridHeight) rebuild();
+
+        float zoom = camera instanceof OrthographicCamera ? ((OrthographicCamera) camera).zoom : 1;
+        float width = camera.viewportWidth * zoom;
+        float height = camera.viewportHeight * zoom;
+        view.set(camera.position.x - width / 2, camera.position.y - height / 2, width, height);
+
+        stamp++;
+        drawn = 0;
+        culled = 0;
+        candidates = 0;
+        // a view covering the world leaves out only actors wandering past the bounds: not worth the tests
+        active = width > 0 && height > 0 && (view.x > bounds.x || view.y > bounds.y
+                || view.x + view.width < bounds.x + bounds.width || view.y + view.height < bounds.y + bounds.height);
+        if (!active) return;
+
+        // an actor is listed in the cell of its center: look as far as the largest extent around the view
+        float margin = maxExtent;
+        int minColumn = column(view.x - margin);
+        int maxColumn = column(view.x + view.width + margin);
+        int minRow = row(view.y - margin);
+        int maxRow = row(view.y + view.height + margin);
+        // the actors of a cell whose surroundings are within the view are in view: marked -stamp, not tested
+        // (not the cells on the edges of the grid, which also list the actors out of the bounds)
+        for (int r = minRow; r <= maxRow; r++) {
+            boolean insideRow = r > 0 && r < rows - 1
+                    && r * cellSize - margin >= view.y && (r + 1) * cellSize + margin <= view.y + view.height;
+            for (int c = minColumn; c <= maxColumn; c++) {
+                boolean inside = insideRow && c > 0 && c < columns - 1
+                        && c * cellSize - margin >= view.x && (c + 1) * cellSize + margin <= view.x + view.width;
+                int cell = r * columns + c;
+                marks[cell] = inside ? -stamp : stamp;
+                candidates += counts[cell];
+            }
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Called by BaseActor when it is placed directly on the main stage.
+     */
+    void add(BaseActor actor) {
+        if (counts == null || actor.cullCell != -1) return;
+        relink(actor, cellOf(actor));
+    }
+
+    /**
+     * Called by BaseActor when it leaves the main stage.
+     */
+    void remove(BaseActor actor) {
+        boolean listed = actor.cullCell >= 0;
+        if (listed) counts[actor.cullCell]--;
+        actor.cullCell = -1;
+        if (listed) forgetExtent(actor.cullExtent);
+    }
+
+    /**
+     * Called by BaseActor when its position changed; ignored while frozen, see <code>refresh</code>.
+     * Only an actor changing cell costs more than computing its cell.
+     */
+    void moved(BaseActor actor) {
+        if (frozen || actor.cullCell < 0) return;
+        int cell = cellOf(actor);
+        if (cell == actor.cullCell) return;
+        relink(actor, cell);
+    }
+
+    /**
+     * Called by BaseActor when its size changed; an actor growing larger than a cell leaves the grid,
+     * and one shrinking enters it.
+     */
+    void resized(BaseActor actor) {
+        if (frozen || actor.cullCell == -1) return;
+        relink(actor, cellOf(actor));
+    }
+
+    /**
+     * Forgets the actors listed, e.g. when culling is turned off.
+     */
+    void clear() {
+        if (counts == null) return;
+        SnapshotArray<Actor> actors = world.getMainStage().getRoot().getChildren();
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof BaseActor) ((BaseActor) actor).cullCell = -1;
+        }
+        counts = null;
+        marks = null;
+    }
+
+    /**
+     * Stops following the positions, e.g. while actors integrate on other threads.
+     */
+    void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Follows the positions again, and moves the given actors to their cell.
+     */
+    void refresh(BaseActor[] actors, int count) {
+        frozen = false;
+        for (int i = 0; i < count; i++) moved(actors[i]);
+    }
+
+    /**
+     * Called by BaseActor.draw with the position and rotation the actor is drawn at, between two ticks.
+     *
+     * @return true if the actor is tracked and out of the view
+     */
+    boolean cull(BaseActor actor, float x, float y, float rotation) {
+        if (actor.cullCell == -1) return false;
+        if (!active || actor.cullCell == OVERSIZED) {
+            drawn++;
+            return false;
+        }
+        // drawn short of its position, an actor may be drawn in the cell next to its own
+        int mark = marks[x == actor.getX() && y == actor.getY() ? actor.cullCell
+                : cellAt(x + actor.getWidth() / 2, y + actor.getHeight() / 2)];
+        if (mark == -stamp) {
+            drawn++;
+            return false;
+        }
+        if (mark != stamp || !actor.hasChildren() && !nearCenter(actor, x, y) && outOfView(actor, x, y, rotation)) {
+            culled++;
+            return true;
+        }
+        drawn++;
+        return false;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Sizes the grid to the world bounds and lists the actors of the main stage again.
+     */
+    private void rebuild() {
+        Rectangle bounds = world.getBounds();
+        gridWidth = bounds.width;
+        gridHeight = bounds.height;
+        columns = Math.max(1, MathUtils.ceil(gridWidth / cellSize));
+        rows = Math.max(1, MathUtils.ceil(gridHeight / cellSize));
+        counts = new int[columns * rows];
+        marks = new int[columns * rows];
+        maxExtent = 0;
+        maxExtentCount = 0;
+
+        SnapshotArray<Actor> actors = world.getMainStage().getRoot().getChildren();
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            if (!(actor instanceof BaseActor)) continue;
+            BaseActor ba = (BaseActor) actor;
+            ba.cullCell = -1;
+            relink(ba, cellOf(ba));
+        }
+    }
+
+    /**
+     * @return cell of the center of the actor, clamped to the grid
+     */
+    private int cellOf(BaseActor actor) {
+        return cellAt(actor.getX() + actor.getWidth() / 2, actor.getY() + actor.getHeight() / 2);
+    }
+
+    private int cellAt(float x, float y) {
+        return row(y) * columns + column(x);
+    }
+
+    /**
+     * @return distance from the center of the actor to its farthest corner, scaled, at most
+     */
+    private static float extent(BaseActor actor) {
+        float halfWidth = actor.getWidth() / 2;
+        float halfHeight = actor.getHeight() / 2;
+        // rotating around an origin other than the center moves the center by up to twice their distance
+        float originX = actor.getOriginX() - halfWidth;
+        float originY = actor.getOriginY() - halfHeight;
+        float scale = Math.max(Math.abs(actor.getScaleX()), Math.abs(actor.getScaleY()));
+        return scale * ((float) Math.sqrt(halfWidth * halfWidth + halfHeight * halfHeight)
+                + 2 * (float) Math.sqrt(originX * originX + originY * originY));
+    }
+
+    private int column(float x) {
+        return MathUtils.clamp(MathUtils.floor(x / cellSize), 0, columns - 1);
+    }
+
+    private int row(float y) {
+        return MathUtils.clamp(MathUtils.floor(y / cellSize), 0, rows - 1);
+    }
+
+    /**
+     * Measures the actor again and lists it in the given cell, or keeps it out of the grid if it is larger
+     * than a cell. The new extent is counted before the old one is forgotten, so that an actor of the largest
+     * extent moving on does not search all the actors for the next largest.
+     */
+    private void relink(BaseActor actor, int cell) {
+        boolean listed = actor.cullCell >= 0;
+        float previousExtent = actor.cullExtent;
+        if (listed) counts[actor.cullCell]--;
+
+        float extent = extent(actor);
+        actor.cullExtent = extent;
+        if (extent > cellSize) {
+            actor.cullCell = OVERSIZED;
+        } else {
+            actor.cullCell = cell;
+            counts[cell]++;
+            countExtent(extent);
+        }
+        if (listed) forgetExtent(previousExtent);
+    }
+
+    private void countExtent(float extent) {
+        if (extent > maxExtent) {
+            maxExtent = extent;
+            maxExtentCount = 1;
+        } else if (extent == maxExtent) {
+            maxExtentCount++;
+        }
+    }
+
+    /**
+     * Once the last listed actor of the largest extent is gone, finds the next largest among the listed actors.
+     */
+    private void forgetExtent(float extent) {
+        if (extent != maxExtent || --maxExtentCount > 0) return;
+        maxExtent = 0;
+        SnapshotArray<Actor> actors = world.getMainStage().getRoot().getChildren();
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof BaseActor && ((BaseActor) actor).cullCell >= 0) {
+                countExtent(((BaseActor) actor).cullExtent);
+            }
+        }
+    }
+
+    /**
+     * @return true if the actor drawn at the given position is in view whatever its extent, i.e. its center
+     * is at least the largest extent away from the edges of the view
+     */
+    private boolean nearCenter(BaseActor actor, float x, float y) {
+        float centerX = x + actor.getWidth() / 2;
+        float centerY = y + actor.getHeight() / 2;
+        return centerX - maxExtent >= view.x && centerX + maxExtent <= view.x + view.width
+                && centerY - maxExtent >= view.y && centerY + maxExtent <= view.y + view.height;
+    }
+
+    /**
+     * @return true if the bounds of the actor drawn at the given position and rotation, scaled and rotated
+     * around its origin, miss the view
+     */
+    private boolean outOfView(BaseActor actor, float x, float y, float rotation) {
+        float originX = actor.getOriginX();
+        float originY = actor.getOriginY();
+        float scaleX = actor.getScaleX();
+        float scaleY = actor.getScaleY();
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+
+        // corners relative to the origin, scaled
+        float left = -originX * scaleX;
+        float right = (actor.getWidth() - originX) * scaleX;
+        float bottom = -originY * scaleY;
+        float top = (actor.getHeight() - originY) * scaleY;
+
+        // the rotated rectangle spans, on each axis, the rotated corners
+        float minX = Math.min(Math.min(left * cos - bottom * sin, right * cos - bottom * sin),
+                Math.min(left * cos - top * sin, right * cos - top * sin));
+        float maxX = Math.max(Math.max(left * cos - bottom * sin, right * cos - bottom * sin),
+                Math.max(left * cos - top * sin, right * cos - top * sin));
+        float minY = Math.min(Math.min(left * sin + bottom * cos, right * sin + bottom * cos),
+                Math.min(left * sin + top * cos, right * sin + top * cos));
+        float maxY = Math.max(Math.max(left * sin + bottom * cos, right * sin + bottom * cos),
+                Math.max(left * sin + top * cos, right * sin + top * cos));
+
+        float worldX = x + originX;
+        float worldY = y + originY;
+        return worldX + maxX < view.x || worldX + minX > view.x + view.width
+                || worldY + maxY < view.y || worldY + minY > view.y + view.height;
+    }
+}
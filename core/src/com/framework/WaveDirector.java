@@ -0,0 +1,321 @@
+package com.framework;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Spawns waves of actors (e.g. rocks) spread over the ticks, so that a wave of thousands never makes
+ * a frame spike: each tick spawns at most a number of actors, and stops early once it has spent
+ * its time budget. A wave is placed at random in a region of the world whose area follows from its size
+ * and density, as far as possible from the actors to avoid (e.g. the players), and no spawn lands closer
+ * than a safe distance to them.
+ * <p>
+ * Positions are drawn from the random numbers of the world, so a wave spread by the count budget only is
+ * reproducible from the seed; the time budget makes how many spawns each tick depend on the machine.
+ * Call <code>update</code> once per tick, e.g. from <code>BaseScreen.update</code>.
+ */
+public class WaveDirector {
+
+    /**
+     * Creates the actors of the waves.
+     */
+    public interface Spawner {
+        /**
+         * @param centerX  x-coordinate of the center of the spawn, within the bounds of the world
+         * @param centerY  y-coordinate of the center of the spawn, within the bounds of the world
+         * @param waveSize number of spawns of the wave, e.g. to use a denser representation for a large wave
+         */
+        void spawn(float centerX, float centerY, int waveSize);
+    }
+
+    // Positions tried before pushing a spawn out of the safe distance
+    private static final int ATTEMPTS = 8;
+    // Spawns between two reads of the clock
+    private static final int CLOCK_INTERVAL = 8;
+
+    private final World world;
+    private final Spawner spawner;
+    private final Array<BaseActor> avoided;
+
+    // Configuration
+    private float density;
+    private float safeDistance;
+    private int maxSpawnsPerTick;
+    private long maxNanosPerTick;
+
+    // Wave being spawned
+    private int waveSize;
+    private int pending;
+    private final Rectangle region;
+
+    // Statistics
+    private final LatencyHistogram spawnTime;
+    private int lastSpawns;
+    private int waveTicks;
+    private long waveStart;
+    private int lastWaveTicks;
+    private long lastWaveNanos;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Spawns 4 actors per 100 x 100 pixels, at least 300 pixels away from the avoided actors,
+     * at most 256 spawns per tick without time budget.
+     *
+     * @param world   world to spawn in; waves are placed within its bounds
+     * @param spawner creates the actors
+     */
+    public WaveDirector(World world, Spawner spawner) {
+        this.world = world;
+        this.spawner = spawner;
+        avoided = new Array<BaseActor>(false, 8);
+        density = 4;
+        safeDistance = 300;
+        maxSpawnsPerTick = 256;
+        maxNanosPerTick = 0;
+        region = new Rectangle();
+        spawnTime = new LatencyHistogram();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return true while a wave has spawns left
+     */
+    public boolean isSpawning() {
+        return pending > 0;
+    }
+
+    /**
+     * @return number of spawns left in the current wave
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return time spent spawning in each tick which spawned (nanoseconds): the frame time the waves cost
+     */
+    public LatencyHistogram getSpawnTime() {
+        return spawnTime;
+    }
+
+    /**
+     * @return number of spawns of the last tick
+     */
+    public int getLastSpawns() {
+        return lastSpawns;
+    }
+
+    /**
+     * @return number of ticks the last complete wave took to spawn
+     */
+    public int getLastWaveTicks() {
+        return lastWaveTicks;
+    }
+
+    /**
+     * @return time from the start of the last complete wave to its last spawn (nanoseconds)
+     */
+    public long getLastWaveNanos() {
+        return lastWaveNanos;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * @param density number of spawns per 100 x 100 pixels; a wave too large for the world fills it
+     */
+    public void setDensity(float density) {
+        this.density = density;
+    }
+
+    /**
+     * @param safeDistance minimum distance from a spawn to an avoided actor (pixels)
+     */
+    public void setSafeDistance(float safeDistance) {
+        this.safeDistance = safeDistance;
+    }
+
+    /**
+     * @param maxSpawns maximum number of spawns per tick
+     * @param maxNanos  time after which a tick stops spawning (nanoseconds), 0 for no time budget
+     */
+    public void setBudget(int maxSpawns, long maxNanos) {
+        this.maxSpawnsPerTick = maxSpawns;
+        this.maxNanosPerTick = maxNanos;
+    }
+
+    /**
+     * @param actor actor whose surroundings stay clear of spawns while it is on the stage, e.g. a player
+     */
+    public void avoid(BaseActor actor) {
+        avoided.add(actor);
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Starts a wave, spawned from the next update.
+     *
+     * @param size number of spawns
+     * @throws IllegalStateException if the previous wave is still spawning
+     */
+    public void startWave(int size) {
+        if (pending > 0) throw new IllegalStateException("The previous wave is still spawning");
+        waveSize = size;
+        pending = size;
+        placeRegion();
+        waveTicks = 0;
+        waveStart = System.nanoTime();
+    }
+
+    /**
+     * Spawns the next actors of the wave, within the budget.
+     */
+    public void update() {
+        lastSpawns = 0;
+        if (pending == 0) return;
+        long start = System.nanoTime();
+        while (pending > 0 && lastSpawns < maxSpawnsPerTick) {
+            if (maxNanosPerTick > 0 && lastSpawns > 0 && lastSpawns % CLOCK_INTERVAL == 0
+                    && System.nanoTime() - start >= maxNanosPerTick) break;
+            spawnOne();
+            pending--;
+            lastSpawns++;
+        }
+        long end = System.nanoTime();
+        spawnTime.record(end - start);
+        waveTicks++;
+        if (pending == 0) {
+            lastWaveTicks = waveTicks;
+            lastWaveNanos = end - waveStart;
+        }
+    }
+
+    /**
+     * Saves the wave being spawned, e.g. from a part of a WorldSnapshot.
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putInt(waveSize).putInt(pending);
+        buffer.putFloat(region.x).putFloat(region.y).putFloat(region.width).putFloat(region.height);
+    }
+
+    public void read(ByteBuffer buffer) {
+        waveSize = buffer.getInt();
+        pending = buffer.getInt();
+        region.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Sizes the region of the wave from its density, with the proportions of the world, and centers it
+     * on the best of a few random points: the farthest from the avoided actors.
+     */
+    private void placeRegion() {
+        Rectangle bounds = world.getBounds();
+        float area = waveSize / density * 100 * 100;
+        float width = Math.min(bounds.width, (float) Math.sqrt(area * bounds.width / bounds.height));
+        float height = Math.min(bounds.height, area / width);
+
+        float bestX = 0, bestY = 0, bestDistance = -1;
+        for (int i = 0; i < ATTEMPTS; i++) {
+            float x = world.random(bounds.width);
+            float y = world.random(bounds.height);
+            float distance = distanceToAvoided(x, y);
+            if (distance > bestDistance) {
+                bestX = x;
+                bestY = y;
+                bestDistance = distance;
+            }
+        }
+        region.set(bestX - width / 2, bestY - height / 2, width, height);
+    }
+
+    /**
+     * Spawns at a random point of the region, wrapped into the world; if every attempt lands too close
+     * to an avoided actor, pushes the last one out to the safe distance.
+     */
+    private void spawnOne() {
+        Rectangle bounds = world.getBounds();
+        float x = 0, y = 0;
+        for (int i = 0; i < ATTEMPTS; i++) {
+            x = wrap(region.x + world.random(region.width), bounds.width);
+            y = wrap(region.y + world.random(region.height), bounds.height);
+            if (distanceToAvoided(x, y) >= safeDistance) {
+                spawner.spawn(x, y, waveSize);
+                return;
+            }
+        }
+        BaseActor nearest = nearestAvoided(x, y);
+        float centerX = nearest.getX() + nearest.getWidth() / 2;
+        float centerY = nearest.getY() + nearest.getHeight() / 2;
+        float angle = MathUtils.atan2(delta(y, centerY, bounds.height), delta(x, centerX, bounds.width));
+        x = wrap(centerX + safeDistance * MathUtils.cos(angle), bounds.width);
+        y = wrap(centerY + safeDistance * MathUtils.sin(angle), bounds.height);
+        spawner.spawn(x, y, waveSize);
+    }
+
+    /**
+     * @return distance to the center of the nearest avoided actor on its stage, across the wrapped edges
+     */
+    private float distanceToAvoided(float x, float y) {
+        BaseActor nearest = nearestAvoided(x, y);
+        return nearest == null ? Float.MAX_VALUE : distance(x, y, nearest);
+    }
+
+    private BaseActor nearestAvoided(float x, float y) {
+        BaseActor nearest = null;
+        float nearestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < avoided.size; i++) {
+            BaseActor actor = avoided.get(i);
+            if (actor.isRemoved()) continue;
+            float distance = distance(x, y, actor);
+            if (distance < nearestDistance) {
+                nearest = actor;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private float distance(float x, float y, BaseActor actor) {
+        Rectangle bounds = world.getBounds();
+        float dx = delta(x, actor.getX() + actor.getWidth() / 2, bounds.width);
+        float dy = delta(y, actor.getY() + actor.getHeight() / 2, bounds.height);
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return shortest signed distance from b to a along a wrapped axis of the given length
+     */
+    private static float delta(float a, float b, float length) {
+        float d = a - b;
+        if (d > length / 2) d -= length;
+        else if (d < -length / 2) d += length;
+        return d;
+    }
+
+    private static float wrap(float value, float length) {
+        value %= length;
+        return value < 0 ? value + length : value;
+    }
+}
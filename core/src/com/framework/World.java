@@ -0,0 +1,396 @@
+package com.framework;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * State of one game world: its stages, world bounds, random number generator, input and actor pools.
+ * Each BaseScreen owns a world, so that independent worlds can be simulated side by side,
+ * each on its own thread. A world must only be used by one thread at a time, and since its stages
+ * own a SpriteBatch, worlds must be created and disposed by one thread at a time.
+ * <p>
+ * Actors find their world through their stage. Actors placed on stages which do not belong
+ * to a world share the default world, whose bounds are set by <code>BaseActor.setWorldBounds</code>
+ * and whose random number generator is <code>MathUtils.random</code>.
+ */
+public class World {
+
+    private static final World defaultWorld = new World(MathUtils.random);
+
+    private final Rectangle bounds;
+    private boolean toroidal; // opposite edges of the bounds are joined
+    private final Random random;
+    private final long seed;
+    private Input input; // null to read Gdx.input
+
+    private WorldStage mainStage;
+    private WorldStage uiStage;
+
+    // Registries of the stages which do not belong to a world, kept by the default world; null until needed
+    private Map<Stage, ActorRegistry> foreignRegistries;
+
+    // Fraction of the current tick elapsed at draw time (1 draws the current state)
+    private float interpolationAlpha;
+
+    private final ObjectMap<Class<?>, ActorPool<?>> pools;
+
+    // Spawns and removals requested during a tick
+    private final CommandBuffer commands;
+
+    private AllocationProbe allocationProbe; // null when not probing
+
+    // Pool integrating the main stage actors after act, null to integrate them in act
+    private ForkJoinPool actPool;
+
+    // Skips the main stage actors out of the view, null to draw them all
+    private ViewCuller viewCuller;
+
+    // Particles of the effects, null if the world has none
+    private ParticleSystem particleSystem;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Creates a world whose random sequence depends only on the given seed.
+     * Stages are created on first use.
+     *
+     * @param seed seed of the random number generator of this world
+     */
+    public World(long seed) {
+        this(new RandomXS128(seed), seed);
+    }
+
+    private World(Random random) {
+        this(random, 0);
+    }
+
+    private World(Random random, long seed) {
+        this.random = random;
+        this.seed = seed;
+        bounds = new Rectangle();
+        interpolationAlpha = 1;
+        pools = new ObjectMap<Class<?>, ActorPool<?>>();
+        commands = new CommandBuffer();
+    }
+
+    /*------------------------------------------------------------------*\
+   	|*							Static methods							*|
+   	\*------------------------------------------------------------------*/
+
+    /**
+     * @param stage stage of an actor, may be null
+     * @return world owning the stage, the default world if none does
+     */
+    public static World of(Stage stage) {
+        if (stage instanceof WorldStage) return ((WorldStage) stage).world;
+        return defaultWorld;
+    }
+
+    /**
+     * @return world of the actors placed on stages which do not belong to a world
+     */
+    public static World getDefault() {
+        return defaultWorld;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return stage of the game actors, created on first call
+     */
+    public Stage getMainStage() {
+        if (mainStage == null) mainStage = new WorldStage(this);
+        return mainStage;
+    }
+
+    /**
+     * @return stage of the user interface, created on first call
+     */
+    public Stage getUiStage() {
+        if (uiStage == null) uiStage = new WorldStage(this);
+        return uiStage;
+    }
+
+    /**
+     * @return size of the world, used by boundToWorld, wrapAroundWorld and alignCamera (do not modify)
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    /**
+     * @return true if the opposite edges of the world bounds are joined, see <code>setToroidal</code>
+     */
+    public boolean isToroidal() {
+        return toroidal;
+    }
+
+    /**
+     * @return random number generator of this world; use it instead of <code>MathUtils.random</code>
+     * to keep the world reproducible from its seed
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * @return seed given at construction (0 for the default world)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return input polled by the actors of this world
+     */
+    public Input getInput() {
+        return input != null ? input : Gdx.input;
+    }
+
+    /**
+     * @return fraction of the current tick elapsed, while the main stage is drawn
+     */
+    public float getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    /**
+     * @return probe measuring the allocations of the screen rendering this world, null if none
+     */
+    public AllocationProbe getAllocationProbe() {
+        return allocationProbe;
+    }
+
+    /**
+     * @return buffer of the spawns and removals requested during the current tick, and their counts
+     */
+    public CommandBuffer getCommands() {
+        return commands;
+    }
+
+    /**
+     * @param type pooled class
+     * @return pool of the class in this world, null if none has been set
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseActor> ActorPool<T> getPool(Class<T> type) {
+        return (ActorPool<T>) pools.get(type);
+    }
+
+    /**
+     * @return culler of the main stage, with its counts of actors drawn and culled; null if culling is off
+     */
+    public ViewCuller getViewCuller() {
+        return viewCuller;
+    }
+
+    /**
+     * @return particle system the actors of this world emit their effects into, null if none
+     */
+    public ParticleSystem getParticleSystem() {
+        return particleSystem;
+    }
+
+	/*------------------------------*\
+	|*				Setters			*|
+	\*------------------------------*/
+
+    /**
+     * @param width  width of world
+     * @param height height of world
+     */
+    public void setBounds(float width, float height) {
+        bounds.set(0, 0, width, height);
+    }
+
+    /**
+     * @param ba whose size determines the world bounds (typically a background image)
+     */
+    public void setBounds(BaseActor ba) {
+        setBounds(ba.getWidth(), ba.getHeight());
+    }
+
+    /**
+     * Joins the opposite edges of the world bounds, so that the world has no seam:
+     * <code>wrapAroundWorld</code> moves an actor to the other side as soon as its center crosses an edge,
+     * the main stage actors straddling an edge are also drawn on the other side, and the broadphase
+     * of the screen finds the pairs overlapping across an edge. Actors must be smaller than half the world.
+     *
+     * @param toroidal true to join the edges, false (default) to leave them apart
+     */
+    public void setToroidal(boolean toroidal) {
+        this.toroidal = toroidal;
+    }
+
+    /**
+     * Gives this world its own input, e.g. a bot or a replay, instead of <code>Gdx.input</code>.
+     *
+     * @param input input polled by the actors of this world, null for <code>Gdx.input</code>
+     */
+    public void setInput(Input input) {
+        this.input = input;
+    }
+
+    /**
+     * Measures the allocations of each frame of the screen rendering this world,
+     * and the actors spawned in it. Off by default.
+     *
+     * @param probe probe created on the rendering thread, null to stop probing
+     */
+    public void setAllocationProbe(AllocationProbe probe) {
+        allocationProbe = probe;
+    }
+
+    /**
+     * @param type pooled class
+     * @param pool pool recycling the instances of the class in this world
+     */
+    public <T extends BaseActor> void setPool(Class<T> type, ActorPool<T> pool) {
+        pools.put(type, pool);
+    }
+
+    /**
+     * @param particles particle system placed on the main stage, shared by the actors of this world
+     */
+    public void setParticleSystem(ParticleSystem particles) {
+        particleSystem = particles;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * @param range upper bound, inclusive
+     * @return random number between 0 and range, like <code>MathUtils.random(int)</code>
+     */
+    public int random(int range) {
+        return random.nextInt(range + 1);
+    }
+
+    /**
+     * @param range upper bound, exclusive
+     * @return random number between 0 and range, like <code>MathUtils.random(float)</code>
+     */
+    public float random(float range) {
+        return random.nextFloat() * range;
+    }
+
+    /**
+     * Releases the animations loaded by the actors of this world, then disposes the stages and pools.
+     */
+    public void dispose() {
+        if (mainStage != null) dispose(mainStage);
+        if (uiStage != null) dispose(uiStage);
+        for (ActorPool<?> pool : pools.values()) pool.dispose();
+        pools.clear();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Package Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @return pool integrating the actors of the main stage in parallel, null if they integrate in act
+     */
+    ForkJoinPool getActPool() {
+        return actPool;
+    }
+
+    /**
+     * @return random number generator of this world, whose state snapshots save and restore;
+     * null if it is not a RandomXS128 (the default world after <code>MathUtils.random</code> was replaced)
+     */
+    RandomXS128 getRandomXS128() {
+        return random instanceof RandomXS128 ? (RandomXS128) random : null;
+    }
+
+    /**
+     * @param stage stage of this world, or any stage which does not belong to a world for the default world
+     * @return index of the actors placed on the stage, by class; created on first use for a foreign stage
+     */
+    ActorRegistry getRegistry(Stage stage) {
+        if (stage instanceof WorldStage) return ((WorldStage) stage).registry;
+        if (foreignRegistries == null) foreignRegistries = new WeakHashMap<Stage, ActorRegistry>();
+        ActorRegistry registry = foreignRegistries.get(stage);
+        if (registry == null) {
+            registry = new ActorRegistry();
+            foreignRegistries.put(stage, registry);
+        }
+        return registry;
+    }
+
+    /**
+     * Called by BaseScreen.setParallelAct.
+     */
+    void setActPool(ForkJoinPool pool) {
+        actPool = pool;
+    }
+
+    /**
+     * Called by BaseScreen.setViewCulling; the previous culler forgets the actors it listed.
+     */
+    void setViewCuller(ViewCuller culler) {
+        if (viewCuller != null) viewCuller.clear();
+        viewCuller = culler;
+    }
+
+    /**
+     * Called by BaseScreen around the drawing of the main stage when it runs with a fixed timestep.
+     *
+     * @param alpha 0 draws actors as they were at the start of the tick, 1 as they are now
+     */
+    void setInterpolationAlpha(float alpha) {
+        interpolationAlpha = alpha;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private static void dispose(Stage stage) {
+        for (Actor actor : stage.getActors()) {
+            if (actor instanceof BaseActor) ((BaseActor) actor).releaseAnimations();
+        }
+        // pooled actors go back to their pool here, and are released with it
+        stage.dispose();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Classes 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Stage knowing the world it belongs to, and indexing its actors.
+     */
+    private static class WorldStage extends Stage {
+
+        final World world;
+        final ActorRegistry registry;
+
+        WorldStage(World world) {
+            super();
+            this.world = world;
+            registry = new ActorRegistry();
+        }
+    }
+}
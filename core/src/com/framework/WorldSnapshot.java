@@ -0,0 +1,217 @@
+package com.framework;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.SnapshotArray;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Saves the state of a world into a ByteBuffer, and restores it in place, without rebuilding the screen.
+ * A snapshot holds the state of the random number generator, then the state of the registered parts
+ * (screen variables, e.g. a score), then each actor of a registered class placed on the main stage,
+ * in stage order: its class (one byte) and what its <code>writeState</code> writes.
+ * <p>
+ * Restoring reads the parts, removes the actors of the registered classes from the main stage, then
+ * creates one per actor of the snapshot with the factory of its class, and reads its state. A factory may return
+ * an existing actor (e.g. a player, chosen from what the parts read), and registers the actors with the broadphase if needed.
+ * Actors of other classes (e.g. a background) are left as they are. Running actions and child
+ * actors are not saved: actors restart the actions of their factory.
+ * <p>
+ * Snapshots must be written and restored between ticks (see {@link CommandBuffer}).
+ */
+public class WorldSnapshot {
+
+    /**
+     * Creates the actors of a class when a snapshot is restored.
+     */
+    public interface Factory {
+        /**
+         * @param stage main stage of the world
+         * @return actor placed on the stage, whose state is then read from the snapshot
+         */
+        BaseActor create(Stage stage);
+    }
+
+    /**
+     * State of the world kept outside its actors, e.g. by the screen.
+     */
+    public interface Part {
+        void write(ByteBuffer buffer);
+
+        void read(ByteBuffer buffer);
+    }
+
+    private static final byte VERSION = 2;
+
+    private final World world;
+    private final ObjectIntMap<Class<?>> typeIds;
+    private final Array<Factory> factories;
+    private final Array<Part> parts;
+
+    // Statistics
+    private int lastBytes;
+    private long lastWriteNanos;
+    private long lastReadNanos;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param world world to save and restore
+     */
+    public WorldSnapshot(World world) {
+        this.world = world;
+        typeIds = new ObjectIntMap<Class<?>>();
+        factories = new Array<Factory>();
+        parts = new Array<Part>();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return size of the last snapshot written (bytes)
+     */
+    public int getLastBytes() {
+        return lastBytes;
+    }
+
+    /**
+     * @return time taken by the last write (nanoseconds)
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    /**
+     * @return time taken by the last restore (nanoseconds)
+     */
+    public long getLastReadNanos() {
+        return lastReadNanos;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * Saves the actors of exactly this class (not its subclasses); classes must be registered
+     * in the same order wherever a snapshot is restored.
+     *
+     * @param type    actor class
+     * @param factory creates the actors of the class when restoring
+     */
+    public void register(Class<? extends BaseActor> type, Factory factory) {
+        if (typeIds.containsKey(type)) throw new IllegalArgumentException(type.getSimpleName() + " is already registered");
+        if (factories.size == 255) throw new IllegalStateException("Too many actor classes");
+        typeIds.put(type, factories.size);
+        factories.add(factory);
+    }
+
+    /**
+     * @param part state saved before the actors, in the order the parts are added
+     */
+    public void addPart(Part part) {
+        parts.add(part);
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Writes a snapshot from the position of the buffer, which is left after it.
+     *
+     * @param buffer buffer to write to
+     * @return size of the snapshot (bytes)
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public int write(ByteBuffer buffer) {
+        checkBetweenTicks();
+        long start = System.nanoTime();
+        int begin = buffer.position();
+
+        RandomXS128 random = random();
+        buffer.put(VERSION);
+        buffer.putLong(random.getState(0)).putLong(random.getState(1));
+        for (int i = 0; i < parts.size; i++) parts.get(i).write(buffer);
+
+        SnapshotArray<Actor> actors = world.getMainStage().getRoot().getChildren();
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            int type = typeIds.get(actor.getClass(), -1);
+            if (type < 0) continue;
+            buffer.put((byte) type);
+            ((BaseActor) actor).writeState(buffer);
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+
+        lastBytes = buffer.position() - begin;
+        lastWriteNanos = System.nanoTime() - start;
+        return lastBytes;
+    }
+
+    /**
+     * Restores the snapshot at the position of the buffer, which is left after it.
+     *
+     * @param buffer buffer holding a snapshot written by this class, with the same registrations
+     * @throws IllegalArgumentException if the buffer does not hold a snapshot
+     */
+    public void read(ByteBuffer buffer) {
+        checkBetweenTicks();
+        long start = System.nanoTime();
+        if (buffer.get() != VERSION) throw new IllegalArgumentException("Not a snapshot of this version");
+        long state0 = buffer.getLong();
+        long state1 = buffer.getLong();
+        for (int i = 0; i < parts.size; i++) parts.get(i).read(buffer);
+
+        Stage stage = world.getMainStage();
+        SnapshotArray<Actor> actors = stage.getRoot().getChildren();
+        // forwards: the stage finds each actor at the front of the remaining ones
+        for (int i = 0; i < actors.size; ) {
+            Actor actor = actors.get(i);
+            if (typeIds.containsKey(actor.getClass())) actor.remove();
+            else i++;
+        }
+
+        for (int count = buffer.getInt(); count > 0; count--) {
+            int type = buffer.get() & 0xff;
+            if (type >= factories.size) throw new IllegalArgumentException("Unknown actor class " + type);
+            factories.get(type).create(stage).readState(buffer);
+        }
+
+        // after the factories, which may draw random numbers
+        random().setState(state0, state1);
+        lastReadNanos = System.nanoTime() - start;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    private RandomXS128 random() {
+        RandomXS128 random = world.getRandomXS128();
+        if (random == null) throw new IllegalStateException("The random number generator of the world cannot be saved");
+        return random;
+    }
+
+    private void checkBetweenTicks() {
+        if (world.getCommands().isDeferring()) {
+            throw new IllegalStateException("Snapshots are taken and restored between ticks");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.spacerocks;
+
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.ParticleEffect;
+import com.framework.ParticleSystem;
+import com.framework.World;
+
+/**
+ * Particle effects of the game: explosions, and the exhaust of the thrusters (see {@link Thrusters}),
+ * emitted into the particle system of the world.
+ */
+public final class Effects {
+
+    // Effects, in the order they are added to the particle system
+    public static final int EXPLOSION = 0;
+    public static final int DEBRIS = 1;
+    public static final int FIRE = 2;
+    public static final int GAZ = 3;
+
+    // Particles alive at once: a few hundred explosions with their debris
+    public static final int MAX_PARTICLES = 4096;
+
+    private static final int DEBRIS_PER_EXPLOSION = 8;
+
+    // Look of the strafe thrusters, whose gas was drawn at 3/4 scale and half opacity: carried by its particles
+    private static final float GAZ_SCALE = 0.75f;
+    private static final float GAZ_OPACITY = 0.5f;
+
+    private Effects() {
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Static methods							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Creates the particle system of a world, with the effects of the game.
+     *
+     * @param s main stage of the world
+     * @return particle system, also given to the world
+     */
+    public static ParticleSystem createParticleSystem(Stage s) {
+        ParticleSystem particles = new ParticleSystem(s, MAX_PARTICLES);
+
+        // the explosion sheet, played once where the explosion happens
+        particles.addEffect(particles.loadAnimationFromSheet("explosion.png", 6, 6, 0.03f, false));
+
+        ParticleEffect debris = particles.addEffect(particles.loadTexture("rock.png"));
+        debris.setLife(0.5f, 0.9f);
+        debris.setSpeed(60, 180);
+        debris.setSpin(360);
+        debris.setScale(0.2f, 0.1f);
+        debris.setFade(true);
+
+        ParticleEffect fire = particles.addEffect(particles.loadTexture("fire.png"));
+        fire.setLife(0.15f, 0.25f);
+        fire.setSpeed(150, 250);
+        fire.setSpread(20);
+        fire.setAligned(true);
+        fire.setScale(0.6f, 0.2f);
+        fire.setFade(true);
+
+        ParticleEffect gaz = particles.addEffect(particles.loadTexture("gaz.png"));
+        gaz.setLife(0.2f, 0.35f);
+        gaz.setSpeed(80, 140);
+        gaz.setSpread(30);
+        gaz.setAligned(true);
+        gaz.setScale(GAZ_SCALE * 0.4f, GAZ_SCALE * 0.8f);
+        gaz.setOpacity(GAZ_OPACITY);
+        gaz.setFade(true);
+
+        World.of(s).setParticleSystem(particles);
+        return particles;
+    }
+
+    /**
+     * Plays an explosion, throwing debris around.
+     *
+     * @param particles particle system of the world
+     * @param centerX   x-coordinate of the center of the explosion
+     * @param centerY   y-coordinate of the center of the explosion
+     */
+    public static void explode(ParticleSystem particles, float centerX, float centerY) {
+        particles.burst(particles.getEffect(EXPLOSION), centerX, centerY, 1);
+        particles.burst(particles.getEffect(DEBRIS), centerX, centerY, DEBRIS_PER_EXPLOSION);
+    }
+}
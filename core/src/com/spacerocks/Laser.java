@@ -1,11 +1,16 @@
 package com.spacerocks;
 
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.framework.ActorPool;
 import com.framework.BaseActor;
+import com.framework.World;
 
 public class Laser extends BaseActor {
 
+    // Lifetime (seconds): flies, then fades out and vanishes
+    private static final float DELAY = .25f;
+    private static final float FADE = .5f;
+
 	/*------------------------------------------------------------------*\
 	|*							Constructors							*|
 	\*------------------------------------------------------------------*/
@@ -14,21 +19,69 @@ public class Laser extends BaseActor {
         super(x, y, s);
         loadTexture("laser.png");
 
-        addAction(Actions.delay(.25f));
-        addAction(Actions.after(Actions.fadeOut(.5f)));
-        addAction(Actions.after(Actions.removeActor()));
-
-        setSpeed(2000);
         setMaxSpeed(2000);
         setDeceleration(0);
+
+        // fast enough to tunnel through rocks between two ticks
+        setContinuousCollision(true);
+        setLifetime(DELAY + FADE, FADE);
+
+        launch();
+    }
+
+    /*------------------------------------------------------------------*\
+   	|*							Static methods							*|
+   	\*------------------------------------------------------------------*/
+
+    /**
+     * Reuses a laser which has faded out, or creates one.
+     *
+     * @param x x-coordinate of the lower left corner
+     * @param y y-coordinate of the lower left corner
+     * @param s stage to add the laser to
+     * @return laser ready to fly
+     */
+    public static Laser obtain(float x, float y, Stage s) {
+        Laser laser = getPool(s).obtain(s);
+        laser.setPosition(x, y);
+        return laser;
+    }
+
+    /**
+     * @param s stage of the world whose pool is requested
+     * @return pool of lasers of the world, created on first use
+     */
+    public static ActorPool<Laser> getPool(Stage s) {
+        World world = World.of(s);
+        ActorPool<Laser> pool = world.getPool(Laser.class);
+        if (pool == null) {
+            pool = new ActorPool<Laser>() {
+                @Override
+                protected Laser newActor(Stage s) {
+                    return new Laser(0, 0, s);
+                }
+            };
+            world.setPool(Laser.class, pool);
+        }
+        return pool;
     }
 
 	/*------------------------------------------------------------------*\
 	|*							Public Methods 							*|
 	\*------------------------------------------------------------------*/
 
-    public void act(float dt) {
-        super.act(dt);
+    @Override
+    public void reset() {
+        super.reset();
+        launch();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    protected void integrate(float dt) {
         applyPhysics(dt);
         wrapAroundWorld();
     }
@@ -37,6 +90,10 @@ public class Laser extends BaseActor {
 	|*							Private Methods 						*|
 	\*------------------------------------------------------------------*/
 
+    private void launch() {
+        setSpeed(2000);
+    }
+
 	/*------------------------------------------------------------------*\
 	|*							Private Attributs 						*|
 	\*------------------------------------------------------------------*/
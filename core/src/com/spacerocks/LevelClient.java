@@ -0,0 +1,100 @@
+package com.spacerocks;
+
+import com.framework.NetClient;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Remote pilot of a game served by {@link LevelServer}: sends the controls held and the shots, warps
+ * and strafes requested, and receives the state of the game (see LevelServer for its fields).
+ * Call <code>update</code> once per tick.
+ */
+public class LevelClient {
+
+    private final NetClient client;
+    private final ByteBuffer input;
+
+    // Held controls, and events requested since the start (sent as counters, modulo 256)
+    private int controls;
+    private int shots;
+    private int warps;
+    private int strafesLeft;
+    private int strafesRight;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * @param server address of the LevelServer, e.g. on the loopback address
+     */
+    public LevelClient(InetSocketAddress server) {
+        client = new NetClient(server, LevelServer.FIELDS);
+        input = ByteBuffer.allocate(LevelServer.INPUT_BYTES);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return connection to the server, holding the state received and the statistics
+     */
+    public NetClient getClient() {
+        return client;
+    }
+
+    /*------------------------------*\
+   	|*				Setters			*|
+   	\*------------------------------*/
+
+    /**
+     * @param controls held controls, a combination of Spaceship.TURN_LEFT, TURN_RIGHT and THRUST
+     */
+    public void setControls(int controls) {
+        this.controls = controls;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    public void shoot() {
+        shots++;
+    }
+
+    public void warp() {
+        warps++;
+    }
+
+    /**
+     * @param left true to push towards the left of the ship, false towards the right
+     */
+    public void strafe(boolean left) {
+        if (left) strafesLeft++;
+        else strafesRight++;
+    }
+
+    /**
+     * Sends the input, then reads the states received.
+     *
+     * @return true if a newer state was received
+     */
+    public boolean update() {
+        input.clear();
+        input.put((byte) controls).put((byte) shots).put((byte) warps);
+        input.put((byte) strafesLeft).put((byte) strafesRight);
+        input.flip();
+        client.send(input);
+        return client.poll();
+    }
+
+    public void close() {
+        client.close();
+    }
+}
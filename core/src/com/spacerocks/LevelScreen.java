@@ -1,37 +1,119 @@
 package com.spacerocks;
 
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
 import com.framework.BaseActor;
 import com.framework.BaseScreen;
+import com.framework.Broadphase;
+import com.framework.ParticleSystem;
+import com.framework.SnapshotRing;
+import com.framework.UniformGridBroadphase;
+import com.framework.UnpooledActions;
+import com.framework.WaveDirector;
+import com.framework.World;
+import com.framework.WorldSnapshot;
 
-public class LevelScreen extends BaseScreen {
+import java.nio.ByteBuffer;
 
-    private Spaceship spaceship;
+public class LevelScreen extends BaseScreen implements Broadphase.Listener {
+
+    // Collision categories
+    private static final int SPACESHIP = 1;
+    private static final int ROCK = 2;
+    private static final int LASER = 4;
+
+    // Rewind history, when enabled: seconds kept, and snapshots per second at 60 ticks per second
+    private static final int REWIND_SECONDS = 10;
+    private static final int SNAPSHOTS_PER_SECOND = 10;
+
+    private static final String[] END_MESSAGES = {"message-win.png", "message-lose.png"};
+
+    // Waves (see startWave) larger than DENSE_WAVE go to the rock field
+    private static final int DENSE_WAVE = 256;
+
+    // Wave spawns per tick, and time after which a tick stops spawning: 2 ms of the 16.7 ms of a frame
+    private static final int SPAWNS_PER_TICK = 256;
+    private static final long SPAWN_NANOS_PER_TICK = 2000000;
+
+    // Players: 0 flies with the keyboard, the others are remote
+    public static final int MAX_PLAYERS = 8;
+
+    private Spaceship spaceship; // player 0
+    private Array<Spaceship> spaceships;
+    private RockField rockField;
+    private ParticleSystem particles;
+    private WaveDirector waves;
     private boolean gameOver;
+    private BaseActor endMessage;
+    private int endMessageIndex;
+
+    // Saves and restores the game; quick save (F5, restored by F9), null unless the rewind is enabled
+    private WorldSnapshot snapshot;
+    private SnapshotRing quickSave;
+    private int restoredPlayers; // players in the game restored, and next one to restore
+    private int restoredPlayer;
 
 	/*------------------------------------------------------------------*\
 	|*							Constructors							*|
 	\*------------------------------------------------------------------*/
 
+    public LevelScreen() {
+        super();
+    }
+
+    /**
+     * @param world world to play in, e.g. seeded for a reproducible game
+     */
+    public LevelScreen(World world) {
+        super(world);
+    }
+
     public void initialize() {
         BaseActor space = new BaseActor(0, 0, mainStage);
         space.loadTexture("space.png");
         space.setSize(1920, 1080);
-        BaseActor.setWorldBounds(space);
+        world.setBounds(space);
+        // space has no edges: actors collide and are drawn across them
+        world.setToroidal(true);
 
         gameOver = false;
 
+        setBroadphase(new UniformGridBroadphase(128));
+        setFixedTimestep(60, 5);
+
+        rockField = new RockField(mainStage);
+        particles = Effects.createParticleSystem(mainStage);
+
+        spaceships = new Array<Spaceship>(MAX_PLAYERS);
         spaceship = new Spaceship(400, 300, mainStage);
+        broadphase.add(spaceship, SPACESHIP, ROCK);
+        spaceships.add(spaceship);
+
+        waves = new WaveDirector(world, new WaveDirector.Spawner() {
+            @Override
+            public void spawn(float centerX, float centerY, int waveSize) {
+                float x = centerX - rockField.getRockWidth() / 2;
+                float y = centerY - rockField.getRockHeight() / 2;
+                if (waveSize > DENSE_WAVE) rockField.spawn(x, y);
+                else addRock(x, y);
+            }
+        });
+        waves.setBudget(SPAWNS_PER_TICK, SPAWN_NANOS_PER_TICK);
+        waves.avoid(spaceship);
 
-        new Rock(600, 500, mainStage);
-        new Rock(600, 300, mainStage);
-        new Rock(600, 100, mainStage);
-        new Rock(400, 100, mainStage);
-        new Rock(200, 100, mainStage);
-        new Rock(200, 300, mainStage);
-        new Rock(200, 500, mainStage);
-        new Rock(400, 500, mainStage);
+        // opening: a ring of rocks around the spaceship
+        addRock(600, 500);
+        addRock(600, 300);
+        addRock(600, 100);
+        addRock(400, 100);
+        addRock(200, 100);
+        addRock(200, 300);
+        addRock(200, 500);
+        addRock(400, 500);
+
+        snapshot = newSnapshot();
     }
 
 	/*------------------------------------------------------------------*\
@@ -39,32 +121,110 @@ public class LevelScreen extends BaseScreen {
 	\*------------------------------------------------------------------*/
 
     public void update(float dt) {
-        for (BaseActor rockActor : BaseActor.getList(mainStage, Rock.class.getCanonicalName())) {
-            if (rockActor.overlaps(spaceship)) {
-                if (spaceship.getShieldPower() <= 0) {
-                    Explosion e = new Explosion(0, 0, mainStage);
-                    e.centerAtActor(spaceship);
-                    spaceship.remove();
-                    spaceship.setPosition(-10000, -10000);
-                    setEndGame("message-lose.png");
-                } else {
-                    spaceship.setShieldPower(spaceship.getShieldPower() - 34);
-                    Explosion e = new Explosion(0, 0, mainStage);
-                    e.centerAtActor(rockActor);
-                    rockActor.remove();
-                }
-            }
-            for (BaseActor laserActor : BaseActor.getList(mainStage, Laser.class.getCanonicalName())) {
-                if (laserActor.overlaps(rockActor)) {
-                    Explosion e = new Explosion(0, 0, mainStage);
-                    e.centerAtActor(rockActor);
-                    laserActor.remove();
-                    rockActor.remove();
-                }
-            }
+        findOverlaps(this);
+        collideRockField();
+        waves.update();
+        if (!gameOver && !waves.isSpawning() && BaseActor.count(mainStage, Rock.class) + rockField.size() == 0) {
+            setEndGame(0);
         }
-        if (!gameOver && BaseActor.count(mainStage, Rock.class.getCanonicalName()) == 0) {
-            setEndGame("message-win.png");
+    }
+
+    /**
+     * Sends a wave of rocks, spawned over the next ticks away from the spaceships; a wave of more than
+     * 256 rocks goes to the rock field. The game sends none by itself: the game is won once the rocks
+     * placed at the start, and those of the waves sent, are destroyed.
+     *
+     * @param rocks number of rocks
+     * @throws IllegalStateException if the previous wave is still spawning
+     */
+    public void startWave(int rocks) {
+        waves.startWave(rocks);
+    }
+
+    /**
+     * @return director of the waves, e.g. to set their density and spawn budget
+     */
+    public WaveDirector getWaves() {
+        return waves;
+    }
+
+    /**
+     * @return rocks of the waves larger than 256, not actors
+     */
+    public RockField getRockField() {
+        return rockField;
+    }
+
+    /**
+     * Adds a spaceship flown by a remote pilot (see <code>Spaceship.setRemoteControls</code>),
+     * away from the rocks placed at the start. The game is lost once every spaceship is destroyed.
+     *
+     * @return player index of the spaceship
+     * @throws IllegalStateException if there are MAX_PLAYERS players already
+     */
+    public int addPlayer() {
+        int player = spaceships.size;
+        if (player == MAX_PLAYERS) throw new IllegalStateException("No more than " + MAX_PLAYERS + " players");
+        Spaceship ship = new Spaceship(880 + 120 * player, 540, mainStage);
+        ship.setRemoteControls(0);
+        broadphase.add(ship, SPACESHIP, ROCK);
+        spaceships.add(ship);
+        waves.avoid(ship);
+        return player;
+    }
+
+    /**
+     * @return number of players, the local one included
+     */
+    public int getPlayerCount() {
+        return spaceships.size;
+    }
+
+    /**
+     * @param player index of a player, 0 for the local one
+     * @return its spaceship, off the stage once destroyed
+     */
+    public Spaceship getSpaceship(int player) {
+        return spaceships.get(player);
+    }
+
+    /**
+     * Fires a laser from the spaceship of a player, if it is still in the game.
+     */
+    public void shoot(int player) {
+        Laser laser = spaceships.get(player).shoot();
+        if (laser != null) broadphase.add(laser, LASER, ROCK);
+    }
+
+    /**
+     * @return serializer saving and restoring the game between ticks, e.g. for a quick save
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return true if the game keeps a rewind history and a quick save (see {@link #setRewindEnabled})
+     */
+    public boolean isRewindEnabled() {
+        return quickSave != null;
+    }
+
+    /**
+     * Enables or disables the rewind, a debugging aid off by default: the game keeps its last 10 seconds
+     * (see {@link #getRewindBuffer}), BACKSPACE rewinds one second, F5 quick saves and F9 restores the quick save.
+     * While enabled, a snapshot is taken every 6 ticks.
+     *
+     * @param enabled true to record the history and take the keys, false to drop the history and the quick save
+     */
+    public void setRewindEnabled(boolean enabled) {
+        if (enabled == isRewindEnabled()) return;
+        if (enabled) {
+            setRewindBuffer(new SnapshotRing(snapshot, REWIND_SECONDS * SNAPSHOTS_PER_SECOND, 60 / SNAPSHOTS_PER_SECOND));
+            quickSave = new SnapshotRing(snapshot, 1, 1);
+        } else {
+            setRewindBuffer(null);
+            quickSave = null;
         }
     }
 
@@ -75,20 +235,215 @@ public class LevelScreen extends BaseScreen {
     @Override
     public boolean keyDown(int keycode) {
         if (keycode == Input.Keys.X) spaceship.warp();
-        if (keycode == Input.Keys.CONTROL_LEFT) spaceship.shoot();
+        if (keycode == Input.Keys.PAGE_UP) spaceship.strafe(true);
+        if (keycode == Input.Keys.PAGE_DOWN) spaceship.strafe(false);
+        if (keycode == Input.Keys.CONTROL_LEFT) shoot(0);
+        if (isRewindEnabled()) {
+            if (keycode == Input.Keys.F5) quickSave.record();
+            if (keycode == Input.Keys.F9) quickSave.rewind(1);
+            if (keycode == Input.Keys.BACKSPACE) getRewindBuffer().rewind(SNAPSHOTS_PER_SECOND);
+        }
         return false;
     }
 
+    /**
+     * Called by the broadphase for each overlapping pair.
+     */
+    @Override
+    public void overlap(BaseActor a, BaseActor b) {
+        // a previous pair of this pass may already have destroyed one of them
+        if (a.isRemoved() || b.isRemoved()) return;
+
+        BaseActor rockActor = a instanceof Rock ? a : b;
+        BaseActor other = rockActor == a ? b : a;
+
+        if (other instanceof Spaceship) {
+            if (shieldSpaceship((Spaceship) other)) destroyRock(rockActor);
+        } else {
+            other.remove();
+            destroyRock(rockActor);
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Places a rock, reusing a destroyed one, colliding with the spaceship and the lasers.
+     *
+     * @param x x-coordinate of the lower left corner
+     * @param y y-coordinate of the lower left corner
+     */
+    protected void addRock(float x, float y) {
+        Rock rock = Rock.obtain(mainStage);
+        rock.setPosition(x, y);
+        rock.drift(world);
+        broadphase.add(rock, ROCK, SPACESHIP | LASER);
+    }
+
 	/*------------------------------------------------------------------*\
 	|*							Private Attributs 						*|
 	\*------------------------------------------------------------------*/
 
-    private void setEndGame(String textureName) {
-        BaseActor messageLose = new BaseActor(0, 0, uiStage);
-        messageLose.loadTexture(textureName);
-        messageLose.centerAtPosition(1920/2, 1080/2);
-        messageLose.setOpacity(0);
-        messageLose.addAction(Actions.fadeIn(1));
+    /**
+     * Tests the spaceships and the lasers against the rocks of the field.
+     */
+    private void collideRockField() {
+        int rock;
+        for (int i = 0; i < spaceships.size; i++) {
+            Spaceship ship = spaceships.get(i);
+            rock = rockField.findOverlap(ship);
+            if (rock >= 0 && shieldSpaceship(ship)) destroyRock(rock);
+        }
+
+        // removed lasers stay listed until the end of the tick, and are skipped by findOverlap
+        SnapshotArray<Laser> lasers = BaseActor.getList(mainStage, Laser.class);
+        for (int i = 0; i < lasers.size; i++) {
+            Laser laser = lasers.get(i);
+            rock = rockField.findOverlap(laser);
+            if (rock >= 0) {
+                laser.remove();
+                destroyRock(rock);
+            }
+        }
+    }
+
+    /**
+     * Called when a rock hits a spaceship: the shield absorbs the hit,
+     * or the spaceship explodes, and the game is lost if it was the last one.
+     *
+     * @return true if the shield absorbed the hit (the rock has to be destroyed)
+     */
+    private boolean shieldSpaceship(Spaceship ship) {
+        if (ship.getShieldPower() <= 0) {
+            explode(ship);
+            ship.remove();
+            ship.setPosition(-10000, -10000);
+            if (!gameOver && alivePlayers() == 0) setEndGame(1);
+            return false;
+        }
+        ship.setShieldPower(ship.getShieldPower() - 34);
+        return true;
+    }
+
+    /**
+     * @return bit mask of the players whose spaceship is in the game
+     */
+    private int alivePlayers() {
+        int alive = 0;
+        for (int i = 0; i < spaceships.size; i++) {
+            if (!spaceships.get(i).isRemoved()) alive |= 1 << i;
+        }
+        return alive;
+    }
+
+    private void destroyRock(BaseActor rockActor) {
+        explode(rockActor);
+        rockActor.remove();
+    }
+
+    private void destroyRock(int fieldIndex) {
+        Effects.explode(particles, rockField.getRockCenterX(fieldIndex), rockField.getRockCenterY(fieldIndex));
+        rockField.removeRock(fieldIndex);
+    }
+
+    private void explode(BaseActor actor) {
+        Effects.explode(particles, actor.getX() + actor.getWidth() / 2, actor.getY() + actor.getHeight() / 2);
+    }
+
+    /**
+     * @param message index in END_MESSAGES of the message to fade in
+     */
+    private void setEndGame(int message) {
+        endMessage = new BaseActor(0, 0, uiStage);
+        endMessage.loadTexture(END_MESSAGES[message]);
+        endMessage.centerAtPosition(1920/2, 1080/2);
+        endMessage.setOpacity(0);
+        endMessage.addAction(UnpooledActions.fadeIn(1));
+        endMessageIndex = message;
         gameOver = true;
     }
+
+    /**
+     * Saves whether the game is over, which players are in and the waves, the rocks, the spaceships,
+     * the lasers and effects. Restored actors are registered with the broadphase again.
+     * Players who joined after a snapshot are out of the game it restores.
+     */
+    private WorldSnapshot newSnapshot() {
+        WorldSnapshot snapshot = new WorldSnapshot(world);
+        snapshot.register(RockField.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                stage.addActor(rockField);
+                return rockField;
+            }
+        });
+        snapshot.register(Spaceship.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                // spaceships are saved in player order, since they never leave the stage order
+                while ((restoredPlayers & 1 << restoredPlayer) == 0) restoredPlayer++;
+                Spaceship ship = spaceships.get(restoredPlayer++);
+                stage.addActor(ship);
+                broadphase.add(ship, SPACESHIP, ROCK);
+                return ship;
+            }
+        });
+        snapshot.register(Rock.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                Rock rock = Rock.obtain(stage);
+                broadphase.add(rock, ROCK, SPACESHIP | LASER);
+                return rock;
+            }
+        });
+        snapshot.register(Laser.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                Laser laser = Laser.obtain(0, 0, stage);
+                broadphase.add(laser, LASER, ROCK);
+                return laser;
+            }
+        });
+        snapshot.register(ParticleSystem.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                stage.addActor(particles);
+                return particles;
+            }
+        });
+        snapshot.register(Warp.class, new WorldSnapshot.Factory() {
+            @Override
+            public BaseActor create(Stage stage) {
+                return Warp.obtain(0, 0, stage);
+            }
+        });
+        snapshot.addPart(new WorldSnapshot.Part() {
+            @Override
+            public void write(ByteBuffer buffer) {
+                buffer.put((byte) (gameOver ? endMessageIndex + 1 : 0));
+                buffer.put((byte) alivePlayers());
+                waves.write(buffer);
+            }
+
+            @Override
+            public void read(ByteBuffer buffer) {
+                int end = buffer.get();
+                restoredPlayers = buffer.get() & 0xff;
+                restoredPlayer = 0;
+                waves.read(buffer);
+                if (endMessage != null) {
+                    endMessage.remove();
+                    endMessage = null;
+                }
+                gameOver = false;
+                if (end == 0) return;
+                setEndGame(end - 1);
+                endMessage.clearActions();
+                endMessage.setOpacity(1);
+            }
+        });
+        return snapshot;
+    }
 }
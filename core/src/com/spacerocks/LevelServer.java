@@ -0,0 +1,320 @@
+package com.spacerocks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.framework.BaseActor;
+import com.framework.BaseScreen;
+import com.framework.LatencyHistogram;
+import com.framework.NetServer;
+import com.framework.NetSnapshot;
+import com.framework.ParticleSystem;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Serves a LevelScreen to remote players: the screen stays the authoritative simulation, each client
+ * flies a spaceship of its own (see <code>LevelScreen.addPlayer</code>) and receives the state of the game,
+ * quantized, after every few ticks. Input received is applied at the start of the next tick.
+ * <p>
+ * Each rock, spaceship, laser and effect is sent as an entity of FIELDS fields: its type, its position
+ * in 1/POSITION_SCALE pixels, its angle in 1/256 turns, its opacity (0 to 255), and for spaceships
+ * the shield power and the player index. Rocks of the rock field have negative ids. Of the particles,
+ * explosions only are sent, placed by the lower left corner of their frame like an actor; debris and exhaust
+ * are left to the client.
+ * A client sends, each tick, its held controls and counters of its shots, warps and strafes (see
+ * {@link LevelClient}); counters rather than events, so that a lost datagram delays an event instead of losing it.
+ */
+public class LevelServer implements BaseScreen.TickListener, NetServer.Listener {
+
+    // Fields of an entity
+    public static final int TYPE = 0;
+    public static final int X = 1;
+    public static final int Y = 2;
+    public static final int ROTATION = 3;
+    public static final int ALPHA = 4;
+    public static final int SHIELD = 5;
+    public static final int PLAYER = 6;
+    public static final int FIELDS = 7;
+
+    // Entity types
+    public static final int ROCK = 1;
+    public static final int SPACESHIP = 2;
+    public static final int LASER = 3;
+    public static final int EXPLOSION = 4;
+    public static final int WARP = 5;
+
+    public static final int POSITION_SCALE = 8;
+
+    // Input datagram: held controls, then counters of shots, warps, left and right strafes (one byte each)
+    static final int INPUT_BYTES = 5;
+    private static final int COUNTERS = 4;
+
+    private final LevelScreen screen;
+    private final NetServer server;
+    private final int sendInterval;
+
+    // State sent, and ids of the actors in the last one
+    private final NetSnapshot state;
+    private ObjectIntMap<Actor> ids;
+    private ObjectIntMap<Actor> nextIds;
+    private IntIntMap particleIds;
+    private IntIntMap nextParticleIds;
+    private int lastId;
+    private final ObjectIntMap<Class<?>> types;
+
+    // Players with a client, and the last counters each sent
+    private final boolean[] connected;
+    private final int[] counters;
+    private final int[] events;
+
+    // Statistics
+    private final LatencyHistogram captureLatency;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Starts serving: the server is polled before each tick of the screen, and the state sent after.
+     *
+     * @param screen       game to serve, whose player 0 stays local
+     * @param server       server created with FIELDS fields
+     * @param sendInterval number of ticks between two states sent, e.g. 2 for 30 states per second at 60 ticks
+     */
+    public LevelServer(LevelScreen screen, NetServer server, int sendInterval) {
+        this.screen = screen;
+        this.server = server;
+        this.sendInterval = sendInterval;
+
+        state = new NetSnapshot(FIELDS);
+        ids = new ObjectIntMap<Actor>();
+        nextIds = new ObjectIntMap<Actor>();
+        particleIds = new IntIntMap();
+        nextParticleIds = new IntIntMap();
+        types = new ObjectIntMap<Class<?>>();
+        types.put(Rock.class, ROCK);
+        types.put(Spaceship.class, SPACESHIP);
+        types.put(Laser.class, LASER);
+        types.put(Warp.class, WARP);
+
+        connected = new boolean[LevelScreen.MAX_PLAYERS];
+        counters = new int[LevelScreen.MAX_PLAYERS * COUNTERS];
+        events = new int[COUNTERS];
+        captureLatency = new LatencyHistogram();
+
+        server.setListener(this);
+        screen.setTickListener(this);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    public NetServer getServer() {
+        return server;
+    }
+
+    /**
+     * @return state last sent
+     */
+    public NetSnapshot getState() {
+        return state;
+    }
+
+    /**
+     * @return time taken to quantize the game into a state (nanoseconds)
+     */
+    public LatencyHistogram getCaptureLatency() {
+        return captureLatency;
+    }
+
+    /*------------------------------*\
+   	|*				Tools   		*|
+   	\*------------------------------*/
+
+    /**
+     * Stops serving and closes the server.
+     */
+    public void close() {
+        screen.setTickListener(null);
+        server.close();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							TickListener interface					*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    public void beforeTick(float dt) {
+        server.poll();
+    }
+
+    @Override
+    public void afterTick(float dt) {
+        int tick = (int) screen.getTicks();
+        if (tick % sendInterval != 0) return;
+        long start = System.nanoTime();
+        capture();
+        captureLatency.record(System.nanoTime() - start);
+        server.send(tick, state);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							NetServer.Listener interface			*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Gives the client the spaceship of a player who left, or a new one.
+     */
+    @Override
+    public int join(SocketAddress address) {
+        int player = -1;
+        for (int i = 1; i < screen.getPlayerCount() && player < 0; i++) {
+            if (!connected[i]) player = i;
+        }
+        if (player < 0) {
+            if (screen.getPlayerCount() == LevelScreen.MAX_PLAYERS) return -1;
+            player = screen.addPlayer();
+        }
+        connected[player] = true;
+        for (int i = 0; i < COUNTERS; i++) counters[player * COUNTERS + i] = 0;
+        return player;
+    }
+
+    @Override
+    public void input(int player, ByteBuffer input) {
+        if (input.remaining() < INPUT_BYTES) return;
+        int controls = input.get();
+        int first = player * COUNTERS;
+        for (int i = 0; i < COUNTERS; i++) {
+            int counter = input.get() & 0xff;
+            events[i] = (counter - counters[first + i]) & 0xff;
+            // an older datagram, arrived out of order
+            if (events[i] >= 128) return;
+        }
+        for (int i = 0; i < COUNTERS; i++) counters[first + i] = (counters[first + i] + events[i]) & 0xff;
+
+        Spaceship ship = screen.getSpaceship(player);
+        ship.setRemoteControls(controls);
+        for (int i = 0; i < events[0]; i++) screen.shoot(player);
+        for (int i = 0; i < events[1]; i++) ship.warp();
+        if (events[2] > 0) ship.strafe(true);
+        if (events[3] > 0) ship.strafe(false);
+    }
+
+    /**
+     * The spaceship drifts until another client takes it.
+     */
+    @Override
+    public void leave(int player) {
+        connected[player] = false;
+        screen.getSpaceship(player).setRemoteControls(0);
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Quantizes the actors of the main stage into the state. An actor keeps its id while it stays
+     * on the stage; a pooled actor obtained again gets a new one.
+     */
+    private void capture() {
+        state.clear();
+        SnapshotArray<Actor> actors = screen.getWorld().getMainStage().getRoot().getChildren();
+        for (int i = 0; i < actors.size; i++) {
+            Actor actor = actors.get(i);
+            if (actor instanceof RockField) {
+                captureField((RockField) actor);
+                continue;
+            }
+            if (actor instanceof ParticleSystem) {
+                captureExplosions((ParticleSystem) actor);
+                continue;
+            }
+            int type = types.get(actor.getClass(), 0);
+            if (type == 0 || ((BaseActor) actor).isRemoved()) continue;
+
+            int id = ids.get(actor, 0);
+            if (id == 0) id = ++lastId;
+            nextIds.put(actor, id);
+
+            int entity = state.add(id);
+            state.set(entity, TYPE, type);
+            state.set(entity, X, MathUtils.round(actor.getX() * POSITION_SCALE));
+            state.set(entity, Y, MathUtils.round(actor.getY() * POSITION_SCALE));
+            state.set(entity, ROTATION, angle(actor.getRotation()));
+            state.set(entity, ALPHA, actor.isVisible() ? MathUtils.round(actor.getColor().a * 255) : 0);
+            if (type == SPACESHIP) {
+                Spaceship ship = (Spaceship) actor;
+                state.set(entity, SHIELD, ship.getShieldPower());
+                state.set(entity, PLAYER, playerOf(ship));
+            }
+        }
+
+        // forget the actors which left the stage
+        ObjectIntMap<Actor> swap = ids;
+        ids = nextIds;
+        nextIds = swap;
+        nextIds.clear();
+        IntIntMap particleSwap = particleIds;
+        particleIds = nextParticleIds;
+        nextParticleIds = particleSwap;
+        nextParticleIds.clear();
+    }
+
+    private void captureField(RockField field) {
+        for (int i = 0; i < field.size(); i++) {
+            int entity = state.add(-field.getRockId(i));
+            state.set(entity, TYPE, ROCK);
+            state.set(entity, X, MathUtils.round(field.getRockX(i) * POSITION_SCALE));
+            state.set(entity, Y, MathUtils.round(field.getRockY(i) * POSITION_SCALE));
+            state.set(entity, ROTATION, angle(field.getRockRotation(i)));
+            state.set(entity, ALPHA, 255);
+        }
+    }
+
+    /**
+     * Quantizes the explosion particles; a particle keeps its id while it lives.
+     */
+    private void captureExplosions(ParticleSystem particles) {
+        float width = particles.getEffect(Effects.EXPLOSION).getWidth();
+        float height = particles.getEffect(Effects.EXPLOSION).getHeight();
+        for (int i = 0; i < particles.getLiveCount(); i++) {
+            if (particles.getParticleEffect(i) != Effects.EXPLOSION) continue;
+            int particle = particles.getParticleId(i);
+            int id = particleIds.get(particle, 0);
+            if (id == 0) id = ++lastId;
+            nextParticleIds.put(particle, id);
+
+            int entity = state.add(id);
+            state.set(entity, TYPE, EXPLOSION);
+            state.set(entity, X, MathUtils.round((particles.getParticleX(i) - width / 2) * POSITION_SCALE));
+            state.set(entity, Y, MathUtils.round((particles.getParticleY(i) - height / 2) * POSITION_SCALE));
+            state.set(entity, ROTATION, angle(particles.getParticleRotation(i)));
+            state.set(entity, ALPHA, MathUtils.round(particles.getParticleOpacity(i) * 255));
+        }
+    }
+
+    private int playerOf(Spaceship ship) {
+        for (int i = 0; i < screen.getPlayerCount(); i++) {
+            if (screen.getSpaceship(i) == ship) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return angle in 1/256 turns, from 0 to 255
+     */
+    private static int angle(float degrees) {
+        return MathUtils.round(degrees * 256 / 360) & 0xff;
+    }
+}
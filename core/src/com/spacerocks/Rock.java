@@ -1,9 +1,9 @@
 package com.spacerocks;
 
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.framework.ActorPool;
 import com.framework.BaseActor;
+import com.framework.World;
 
 public class Rock extends BaseActor {
 
@@ -11,29 +11,87 @@ public class Rock extends BaseActor {
 	|*							Constructors							*|
 	\*------------------------------------------------------------------*/
 
+    /**
+     * Rock drifting at a random spin, speed and direction.
+     */
     public Rock(float x, float y, Stage s) {
         super(x, y, s);
         loadTexture("rock.png");
+        drift(World.of(s));
+    }
+
+    /**
+     * Rock at rest at position (0, 0), created by the pool, whose user places it and draws its drift.
+     */
+    Rock(Stage s) {
+        super(0, 0, s);
+        loadTexture("rock.png");
+    }
+
+    /*------------------------------------------------------------------*\
+   	|*							Static methods							*|
+   	\*------------------------------------------------------------------*/
+
+    /**
+     * Reuses a removed rock, or creates one; used to restore snapshots, which then set the state of the rock.
+     *
+     * @param s stage to add the rock to
+     * @return rock at position (0, 0), at rest if reused
+     */
+    public static Rock obtain(Stage s) {
+        return getPool(s).obtain(s);
+    }
 
-        float random = MathUtils.random(30);
+    /**
+     * @param s stage of the world whose pool is requested
+     * @return pool of rocks of the world, created on first use
+     */
+    public static ActorPool<Rock> getPool(Stage s) {
+        World world = World.of(s);
+        ActorPool<Rock> pool = world.getPool(Rock.class);
+        if (pool == null) {
+            // large enough to restore a dense field of rock actors
+            pool = new ActorPool<Rock>(16384) {
+                @Override
+                protected Rock newActor(Stage s) {
+                    return new Rock(s);
+                }
+            };
+            world.setPool(Rock.class, pool);
+        }
+        return pool;
+    }
 
-        addAction(Actions.forever(Actions.rotateBy(30 + random, 1)));
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Gives the rock a random spin, speed and direction, as a new rock; e.g. after <code>obtain</code>,
+     * which returns a rock at rest.
+     *
+     * @param world world drawing the random numbers; a rock obtained during a tick is not on its stage yet
+     */
+    public void drift(World world) {
+        float random = world.random(30);
+
+        setAngularSpeed(30 + random);
 
         setSpeed(50 + random);
         setMaxSpeed(50 + random);
         setDeceleration(0);
 
-        setMotionAngle(MathUtils.random(360));
+        setMotionAngle(world.random(360));
     }
 
 	/*------------------------------------------------------------------*\
-	|*							Public Methods 							*|
+	|*							Protected Methods 						*|
 	\*------------------------------------------------------------------*/
 
-	public void act(float dt) {
-	    super.act(dt);
-	    applyPhysics(dt);
-	    wrapAroundWorld();
+    @Override
+    protected void integrate(float dt) {
+        applyPhysics(dt);
+        wrapAroundWorld();
     }
 
 	/*------------------------------------------------------------------*\
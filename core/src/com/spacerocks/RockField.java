@@ -0,0 +1,453 @@
+package com.spacerocks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.framework.BaseActor;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Dense asteroid field: a single actor storing its rocks in primitive arrays
+ * (structure of arrays) instead of one Rock actor per asteroid.
+ * Rocks behave like Rock (drift at 50-80 px/s, spin, wrap around the world);
+ * they are moved in one loop, drawn in one pass, and indexed in a spatial hash
+ * so that collision queries only look at nearby rocks.
+ * In a toroidal world they wrap like Rock too, and collide and are drawn across the edges.
+ */
+public class RockField extends BaseActor {
+
+    private static final float CELL_SIZE = 128;
+
+    // Rocks (x, y is the lower left corner, like the position of an actor)
+    private float[] x;
+    private float[] y;
+    private float[] velocityX;
+    private float[] velocityY;
+    private float[] rotation;
+    private float[] angularSpeed;
+    private int[] ids;
+    private int size;
+    private int lastId;
+
+    // Spatial hash of rock centers, rebuilt every tick: rocks of bucket b are
+    // order[bucketStart[b]] to order[bucketStart[b + 1] - 1]
+    private int[] bucketStart;
+    private int[] order;
+    private int[] rockBucket;
+
+    private final TextureRegion region;
+    private final float rockWidth;
+    private final float rockHeight;
+    private final float rockRadius;
+
+    // Stand-in actor placed on a rock to reuse the BaseActor narrowphase
+    private final BaseActor probe;
+
+	/*------------------------------------------------------------------*\
+	|*							Constructors							*|
+	\*------------------------------------------------------------------*/
+
+    public RockField(Stage s) {
+        super(0, 0, s);
+        Animation<TextureRegion> anim = loadTexture("rock.png");
+        region = anim.getKeyFrame(0);
+        rockWidth = getWidth();
+        rockHeight = getHeight();
+
+        probe = new BaseActor(0, 0, s);
+        probe.setAnimation(anim);
+        probe.remove();
+        rockRadius = probe.getBoundingRadius();
+
+        x = new float[64];
+        y = new float[64];
+        velocityX = new float[64];
+        velocityY = new float[64];
+        rotation = new float[64];
+        angularSpeed = new float[64];
+        ids = new int[64];
+        rockBucket = new int[64];
+        order = new int[64];
+        bucketStart = new int[65];
+        size = 0;
+    }
+
+	/*------------------------------*\
+	|*				Getters			*|
+	\*------------------------------*/
+
+    /**
+     * @return number of rocks in the field
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return width of a rock, the width of the rock texture
+     */
+    public float getRockWidth() {
+        return rockWidth;
+    }
+
+    /**
+     * @return height of a rock, the height of the rock texture
+     */
+    public float getRockHeight() {
+        return rockHeight;
+    }
+
+    /**
+     * @param index of a rock
+     * @return x-coordinate of the center of the rock
+     */
+    public float getRockCenterX(int index) {
+        return x[index] + rockWidth / 2;
+    }
+
+    /**
+     * @param index of a rock
+     * @return y-coordinate of the center of the rock
+     */
+    public float getRockCenterY(int index) {
+        return y[index] + rockHeight / 2;
+    }
+
+    /**
+     * @param index of a rock
+     * @return x-coordinate of the lower left corner of the rock
+     */
+    public float getRockX(int index) {
+        return x[index];
+    }
+
+    /**
+     * @param index of a rock
+     * @return y-coordinate of the lower left corner of the rock
+     */
+    public float getRockY(int index) {
+        return y[index];
+    }
+
+    /**
+     * @param index of a rock
+     * @return rotation of the rock (degrees)
+     */
+    public float getRockRotation(int index) {
+        return rotation[index];
+    }
+
+    /**
+     * @param index of a rock
+     * @return id of the rock, from 1, unique in the field and kept while the index changes
+     */
+    public int getRockId(int index) {
+        return ids[index];
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Public Methods 							*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Adds a rock with random speed, direction and spin, like <code>Rock.drift</code>.
+     * The rock becomes visible to collision queries after the next tick.
+     *
+     * @param rockX x-coordinate of the lower left corner
+     * @param rockY y-coordinate of the lower left corner
+     * @return index of the new rock
+     */
+    public int spawn(float rockX, float rockY) {
+        if (size == x.length) grow(size * 2);
+
+        float random = getWorld().random(30);
+        float angle = getWorld().random(360);
+        float speed = 50 + random;
+
+        x[size] = rockX;
+        y[size] = rockY;
+        velocityX[size] = speed * MathUtils.cosDeg(angle);
+        velocityY[size] = speed * MathUtils.sinDeg(angle);
+        rotation[size] = 0;
+        angularSpeed[size] = 30 + random;
+        ids[size] = ++lastId;
+        rockBucket[size] = -1;
+        return size++;
+    }
+
+    /**
+     * Removes a rock; the last rock takes its index.
+     *
+     * @param index of the rock to remove
+     */
+    public void removeRock(int index) {
+        int last = --size;
+        // keep the spatial hash consistent until the next rebuild
+        relink(index, -1);
+        if (index == last) return;
+
+        x[index] = x[last];
+        y[index] = y[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        rotation[index] = rotation[last];
+        angularSpeed[index] = angularSpeed[last];
+        ids[index] = ids[last];
+        relink(last, index);
+        rockBucket[index] = rockBucket[last];
+    }
+
+    /**
+     * Finds a rock whose collision polygon overlaps the given actor,
+     * using continuous collision if the actor has it enabled.
+     *
+     * @param actor BaseActor to test
+     * @return index of an overlapping rock, -1 if none
+     */
+    public int findOverlap(BaseActor actor) {
+        if (size == 0 || actor.isRemoved()) return -1;
+
+        // centers of rocks which may touch the actor, including its last step
+        Rectangle r = actor.getBoundingRectangle();
+        float minX = r.x - Math.max(actor.getSweepX(), 0) - rockRadius;
+        float minY = r.y - Math.max(actor.getSweepY(), 0) - rockRadius;
+        float maxX = r.x + r.width - Math.min(actor.getSweepX(), 0) + rockRadius;
+        float maxY = r.y + r.height - Math.min(actor.getSweepY(), 0) + rockRadius;
+        int rock = findOverlap(actor, minX, minY, maxX, maxY, 0, 0);
+        if (rock >= 0 || !getWorld().isToroidal()) return rock;
+
+        // rock centers are kept within the bounds: look on the other side of the edges the region crosses
+        Rectangle world = getWorld().getBounds();
+        float shiftX = minX < 0 ? world.width : maxX > world.width ? -world.width : 0;
+        float shiftY = minY < 0 ? world.height : maxY > world.height ? -world.height : 0;
+        if (shiftX != 0) rock = findOverlap(actor, minX, minY, maxX, maxY, shiftX, 0);
+        if (rock < 0 && shiftY != 0) rock = findOverlap(actor, minX, minY, maxX, maxY, 0, shiftY);
+        if (rock < 0 && shiftX != 0 && shiftY != 0) rock = findOverlap(actor, minX, minY, maxX, maxY, shiftX, shiftY);
+        return rock;
+    }
+
+	/*------------------------------*\
+	|*				Overriden		*|
+	\*------------------------------*/
+
+    /**
+     * Moves, spins and wraps every rock, then rebuilds the spatial hash.
+     *
+     * @param dt elapsed time (second) since last tick
+     */
+    @Override
+    public void act(float dt) {
+        super.act(dt);
+
+        Rectangle world = getWorld().getBounds();
+        float worldWidth = world.width;
+        float worldHeight = world.height;
+        boolean toroidal = getWorld().isToroidal();
+
+        for (int i = 0; i < size; i++) {
+            float rockX = x[i] + velocityX[i] * dt;
+            float rockY = y[i] + velocityY[i] * dt;
+            // same rules as wrapAroundWorld
+            if (toroidal) {
+                float centerX = rockX + rockWidth / 2;
+                float centerY = rockY + rockHeight / 2;
+                if (centerX < 0) rockX += worldWidth;
+                else if (centerX >= worldWidth) rockX -= worldWidth;
+                if (centerY < 0) rockY += worldHeight;
+                else if (centerY >= worldHeight) rockY -= worldHeight;
+            } else {
+                if (rockX + rockWidth < 0) rockX = worldWidth;
+                else if (rockX > worldWidth) rockX = -rockWidth;
+                if (rockY + rockHeight < 0) rockY = worldHeight;
+                else if (rockY > worldHeight) rockY = -rockHeight;
+            }
+            x[i] = rockX;
+            y[i] = rockY;
+            rotation[i] += angularSpeed[i] * dt;
+        }
+
+        rebuildHash();
+    }
+
+    /**
+     * Draws every rock with the rock texture in a single pass; in a toroidal world,
+     * the rocks straddling an edge are also drawn on the other side.
+     */
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        if (!isVisible()) return;
+        Color c = getColor();
+        batch.setColor(c.r, c.g, c.b, c.a * parentAlpha);
+
+        float originX = rockWidth / 2;
+        float originY = rockHeight / 2;
+        if (!getWorld().isToroidal()) {
+            for (int i = 0; i < size; i++) {
+                batch.draw(region, x[i], y[i], originX, originY, rockWidth, rockHeight, 1, 1, rotation[i]);
+            }
+            return;
+        }
+
+        Rectangle world = getWorld().getBounds();
+        // at least half the diagonal, whatever the rotation
+        float extent = (rockWidth + rockHeight) / 2;
+        for (int i = 0; i < size; i++) {
+            float rockX = x[i];
+            float rockY = y[i];
+            batch.draw(region, rockX, rockY, originX, originY, rockWidth, rockHeight, 1, 1, rotation[i]);
+
+            float centerX = rockX + originX;
+            float centerY = rockY + originY;
+            if (centerX >= extent && centerX <= world.width - extent
+                    && centerY >= extent && centerY <= world.height - extent) continue;
+            // near an edge: half the extent of the rotated rock along each axis
+            float cos = Math.abs(MathUtils.cosDeg(rotation[i]));
+            float sin = Math.abs(MathUtils.sinDeg(rotation[i]));
+            float extentX = originX * cos + originY * sin;
+            float extentY = originX * sin + originY * cos;
+            float ghostX = centerX < extentX ? world.width : centerX > world.width - extentX ? -world.width : 0;
+            float ghostY = centerY < extentY ? world.height : centerY > world.height - extentY ? -world.height : 0;
+            if (ghostX != 0) {
+                batch.draw(region, rockX + ghostX, rockY, originX, originY, rockWidth, rockHeight, 1, 1, rotation[i]);
+            }
+            if (ghostY != 0) {
+                batch.draw(region, rockX, rockY + ghostY, originX, originY, rockWidth, rockHeight, 1, 1, rotation[i]);
+            }
+            if (ghostX != 0 && ghostY != 0) {
+                batch.draw(region, rockX + ghostX, rockY + ghostY, originX, originY,
+                        rockWidth, rockHeight, 1, 1, rotation[i]);
+            }
+        }
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Writes the rocks after the state of the field actor: 28 bytes per rock.
+     */
+    @Override
+    protected void writeState(ByteBuffer buffer) {
+        super.writeState(buffer);
+        buffer.putInt(size).putInt(lastId);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(x[i]).putFloat(y[i]).putFloat(velocityX[i]).putFloat(velocityY[i]);
+            buffer.putFloat(rotation[i]).putFloat(angularSpeed[i]).putInt(ids[i]);
+        }
+    }
+
+    @Override
+    protected void readState(ByteBuffer buffer) {
+        super.readState(buffer);
+        size = buffer.getInt();
+        lastId = buffer.getInt();
+        if (size > x.length) grow(MathUtils.nextPowerOfTwo(size));
+        for (int i = 0; i < size; i++) {
+            x[i] = buffer.getFloat();
+            y[i] = buffer.getFloat();
+            velocityX[i] = buffer.getFloat();
+            velocityY[i] = buffer.getFloat();
+            rotation[i] = buffer.getFloat();
+            angularSpeed[i] = buffer.getFloat();
+            ids[i] = buffer.getInt();
+        }
+        rebuildHash();
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Private Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    /**
+     * Finds a rock whose center lies in the given region moved by a shift, and whose collision polygon,
+     * moved back by the shift, overlaps the actor.
+     */
+    private int findOverlap(BaseActor actor, float minX, float minY, float maxX, float maxY,
+                            float shiftX, float shiftY) {
+        minX += shiftX;
+        maxX += shiftX;
+        minY += shiftY;
+        maxY += shiftY;
+        int mask = bucketStart.length - 2;
+        for (int cy = MathUtils.floor(minY / CELL_SIZE); cy <= MathUtils.floor(maxY / CELL_SIZE); cy++) {
+            for (int cx = MathUtils.floor(minX / CELL_SIZE); cx <= MathUtils.floor(maxX / CELL_SIZE); cx++) {
+                int bucket = hash(cx, cy) & mask;
+                for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                    int rock = order[i];
+                    if (rock < 0) continue;
+                    float centerX = x[rock] + rockWidth / 2;
+                    float centerY = y[rock] + rockHeight / 2;
+                    if (centerX < minX || centerX > maxX || centerY < minY || centerY > maxY) continue;
+
+                    probe.setPosition(x[rock], y[rock]);
+                    probe.setRotation(rotation[rock]);
+                    if (actor.overlaps(probe, -shiftX, -shiftY)) return rock;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counting sort of the rocks by bucket of their center.
+     */
+    private void rebuildHash() {
+        int buckets = MathUtils.nextPowerOfTwo(Math.max(64, size));
+        if (bucketStart.length != buckets + 1) bucketStart = new int[buckets + 1];
+        Arrays.fill(bucketStart, 0);
+
+        for (int i = 0; i < size; i++) {
+            int cx = MathUtils.floor((x[i] + rockWidth / 2) / CELL_SIZE);
+            int cy = MathUtils.floor((y[i] + rockHeight / 2) / CELL_SIZE);
+            int bucket = hash(cx, cy) & (buckets - 1);
+            rockBucket[i] = bucket;
+            bucketStart[bucket]++;
+        }
+        // end of each bucket, then fill it backwards down to its start
+        for (int b = 1; b <= buckets; b++) bucketStart[b] += bucketStart[b - 1];
+        for (int i = size - 1; i >= 0; i--) {
+            order[--bucketStart[rockBucket[i]]] = i;
+        }
+        bucketStart[buckets] = size;
+    }
+
+    /**
+     * Replaces a rock in its bucket of the spatial hash.
+     *
+     * @param rock        index of the rock in the hash
+     * @param replacement new index, -1 to drop the rock
+     */
+    private void relink(int rock, int replacement) {
+        int bucket = rockBucket[rock];
+        if (bucket < 0) return;
+        for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+            if (order[i] == rock) {
+                order[i] = replacement;
+                return;
+            }
+        }
+    }
+
+    private static int hash(int cx, int cy) {
+        return (cx * 73856093) ^ (cy * 19349663);
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        angularSpeed = Arrays.copyOf(angularSpeed, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        rockBucket = Arrays.copyOf(rockBucket, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -1,8 +1,6 @@
 package com.spacerocks;
 
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.framework.BaseActor;
 
 public class Shield extends BaseActor {
@@ -14,8 +12,8 @@ public class Shield extends BaseActor {
     public Shield(float x, float y, Stage s) {
         super(x, y, s);
         loadTexture("shields.png");
-        Action pulse = Actions.sequence(Actions.scaleTo(1.05f, 1.05f, 1), Actions.scaleTo(0.95f, 0.95f, 1));
-        addAction(Actions.forever(pulse));
+        // from 1.05 down to 0.95 and back in 2 seconds
+        setPulse(0.05f, 2);
     }
 
 	/*------------------------------*\
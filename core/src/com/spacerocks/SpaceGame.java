@@ -1,11 +1,56 @@
 package com.spacerocks;
 
+import com.badlogic.gdx.Gdx;
 import com.framework.BaseGame;
+import com.framework.InputRecorder;
+import com.framework.NetServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 
 public class SpaceGame extends BaseGame {
 
+    // Local file the session is recorded to, null when not recording
+    private final String recordPath;
+
+    // Loopback port remote players join on, 0 when not serving
+    private final int servePort;
+    private LevelServer server;
+
+    public SpaceGame() {
+        this(null);
+    }
+
+    /**
+     * @param recordPath local file to record the session to, for a headless replay; null not to record
+     */
+    public SpaceGame(String recordPath) {
+        this(recordPath, 0);
+    }
+
+    /**
+     * @param recordPath local file to record the session to, for a headless replay; null not to record
+     * @param servePort  loopback UDP port to serve the game on, to remote players (see LevelClient); 0 not to serve
+     */
+    public SpaceGame(String recordPath, int servePort) {
+        this.recordPath = recordPath;
+        this.servePort = servePort;
+    }
+
 	public void create() {
 	    super.create();
-	    setActiveScreen(new LevelScreen());
+	    LevelScreen screen = new LevelScreen();
+	    if (recordPath != null) screen.setInputRecorder(new InputRecorder(Gdx.files.local(recordPath)));
+	    if (servePort != 0) {
+	        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), servePort);
+	        server = new LevelServer(screen, new NetServer(address, LevelServer.FIELDS), 1);
+	    }
+	    setActiveScreen(screen);
+    }
+
+    @Override
+    public void dispose() {
+        if (server != null) server.close();
+        super.dispose();
     }
 }
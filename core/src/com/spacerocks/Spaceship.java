@@ -1,13 +1,22 @@
 package com.spacerocks;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.framework.BaseActor;
 
+import java.nio.ByteBuffer;
+
 public class Spaceship extends BaseActor {
 
+    // Held controls of a remote pilot
+    public static final int TURN_LEFT = 1;
+    public static final int TURN_RIGHT = 2;
+    public static final int THRUST = 4;
+
+    // Exhaust particles emitted per tick of thrust, and per strafe
+    private static final int THRUST_PARTICLES = 2;
+    private static final int STRAFE_PARTICLES = 6;
+
     private Thrusters mainThruster;
     private Thrusters leftThruster;
     private Thrusters rightThruster;
@@ -15,6 +24,13 @@ public class Spaceship extends BaseActor {
     private Shield shield;
     private int shieldPower;
 
+    // Side impulses requested by key presses, applied on the next tick
+    private boolean strafeLeft;
+    private boolean strafeRight;
+
+    // Controls held by a remote pilot, -1 when flown with the keyboard
+    private int controls = -1;
+
     private final float rotationSpeed = 240;
     // private final float baseShieldOpacity = .70f;
 
@@ -40,16 +56,12 @@ public class Spaceship extends BaseActor {
 
         // left thruster
         leftThruster = new Thrusters(0, 0, s, true);
-        leftThruster.setOpacity(.5f);
-        leftThruster.setScale(.75f);
         addActor(leftThruster);
         leftThruster.setPosition(0, getHeight());
         leftThruster.rotateBy(-90);
 
         // right thruster
         rightThruster = new Thrusters(0, 0, s, true);
-        rightThruster.setOpacity(.5f);
-        rightThruster.setScale(.75f);
         addActor(rightThruster);
         rightThruster.setPosition(0, -getHeight() / 4);
         rightThruster.rotateBy(90);
@@ -69,6 +81,13 @@ public class Spaceship extends BaseActor {
         return shieldPower;
     }
 
+    /**
+     * @return true if flown by a remote pilot rather than the keyboard
+     */
+    public boolean isRemote() {
+        return controls >= 0;
+    }
+
 
     /*------------------------------*\
    	|*				Setters			*|
@@ -78,6 +97,15 @@ public class Spaceship extends BaseActor {
         this.shieldPower = shieldPower;
     }
 
+    /**
+     * Flies the ship with the controls of a remote pilot instead of the keyboard, from the next tick.
+     *
+     * @param controls held controls, a combination of TURN_LEFT, TURN_RIGHT and THRUST
+     */
+    public void setRemoteControls(int controls) {
+        this.controls = controls & (TURN_LEFT | TURN_RIGHT | THRUST);
+    }
+
 	/*------------------------------------------------------------------*\
 	|*							Public Methods 							*|
 	\*------------------------------------------------------------------*/
@@ -95,21 +123,60 @@ public class Spaceship extends BaseActor {
     }
 
     public void warp() {
-        if (getStage() == null) return;
+        if (isRemoved()) return;
 
-        Warp w1 = new Warp(0, 0, getStage());
+        Warp w1 = Warp.obtain(0, 0, getStage());
         w1.centerAtActor(this);
-        setPosition(MathUtils.random(1920), MathUtils.random(1080));
-        Warp w2 = new Warp(0, 0, getStage());
+        setPosition(getWorld().random(1920), getWorld().random(1080));
+        resetInterpolation();
+        Warp w2 = Warp.obtain(0, 0, getStage());
         w2.centerAtActor(this);
     }
 
-    public void shoot() {
-        if (getStage() == null) return;
-        Laser laser = new Laser(0, 0, this.getStage());
+    public Laser shoot() {
+        if (isRemoved()) return null;
+        Laser laser = Laser.obtain(0, 0, this.getStage());
         laser.centerAtActor(this);
         laser.setRotation(getRotation());
         laser.setMotionAngle(getRotation());
+        return laser;
+    }
+
+    /**
+     * Requests a side impulse, applied on the next simulation tick.
+     * Key presses are events, so they are queued rather than polled: a frame may run
+     * zero or several ticks with a fixed timestep.
+     *
+     * @param left true to push towards the left of the ship, false towards the right
+     */
+    public void strafe(boolean left) {
+        if (left) strafeLeft = true;
+        else strafeRight = true;
+    }
+
+	/*------------------------------------------------------------------*\
+	|*							Protected Methods 						*|
+	\*------------------------------------------------------------------*/
+
+    @Override
+    protected void writeState(ByteBuffer buffer) {
+        super.writeState(buffer);
+        buffer.putInt(shieldPower);
+        buffer.put((byte) ((strafeLeft ? 1 : 0) | (strafeRight ? 2 : 0)));
+        buffer.put((byte) controls);
+    }
+
+    @Override
+    protected void readState(ByteBuffer buffer) {
+        super.readState(buffer);
+        shieldPower = buffer.getInt();
+        byte strafe = buffer.get();
+        strafeLeft = (strafe & 1) != 0;
+        strafeRight = (strafe & 2) != 0;
+        controls = buffer.get();
+
+        shield.setOpacity(shieldPower / 100f);
+        shield.setVisible(shieldPower > 0);
     }
 
     /*------------------------------------------------------------------*\
@@ -117,32 +184,39 @@ public class Spaceship extends BaseActor {
    	\*------------------------------------------------------------------*/
 
     private void spaceShipControl(float dt) {
-        if (Gdx.input.isKeyPressed(Input.Keys.LEFT)) rotateBy(rotationSpeed * dt);
-        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT)) rotateBy(-rotationSpeed * dt);
+        boolean left, right, thrust;
+        if (controls >= 0) {
+            left = (controls & TURN_LEFT) != 0;
+            right = (controls & TURN_RIGHT) != 0;
+            thrust = (controls & THRUST) != 0;
+        } else {
+            Input input = getWorld().getInput();
+            left = input.isKeyPressed(Input.Keys.LEFT);
+            right = input.isKeyPressed(Input.Keys.RIGHT);
+            thrust = input.isKeyPressed(Input.Keys.UP);
+        }
+        if (left) rotateBy(rotationSpeed * dt);
+        if (right) rotateBy(-rotationSpeed * dt);
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.PAGE_UP)) {
+        if (strafeLeft) {
+            strafeLeft = false;
             setAcceleration(2000);
             accelerateAtAngle(getRotation() - 90);
             setAcceleration(400);
-            leftThruster.setVisible(true);
-        } else {
-            leftThruster.setVisible(false);
+            leftThruster.fire(STRAFE_PARTICLES);
         }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.PAGE_DOWN)) {
+        if (strafeRight) {
+            strafeRight = false;
             setAcceleration(2000);
             accelerateAtAngle(getRotation() + 90);
             setAcceleration(400);
-            rightThruster.setVisible(true);
-        } else {
-            rightThruster.setVisible(false);
+            rightThruster.fire(STRAFE_PARTICLES);
         }
 
-        if (Gdx.input.isKeyPressed(Input.Keys.UP)) {
+        if (thrust) {
             accelerateAtAngle(getRotation());
-            mainThruster.setVisible(true);
-        } else {
-            mainThruster.setVisible(false);
+            mainThruster.fire(THRUST_PARTICLES);
         }
     }
 }
@@ -1,10 +1,20 @@
 package com.spacerocks;
 
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.framework.BaseActor;
+import com.framework.ParticleSystem;
 
+/**
+ * Thruster of a spaceship, placed as its child: its image only gives where the exhaust leaves from,
+ * since the exhaust is drawn as particles (see {@link Effects}).
+ */
 public class Thrusters extends BaseActor {
 
+    private final int effect;
+    private final Vector2 nozzle = new Vector2();
+
 	/*------------------------------------------------------------------*\
 	|*							Constructors							*|
 	\*------------------------------------------------------------------*/
@@ -12,11 +22,15 @@ public class Thrusters extends BaseActor {
     public Thrusters(float x, float y, Stage s) {
         super(x, y, s);
         loadTexture("fire.png");
+        setVisible(false);
+        effect = Effects.FIRE;
     }
 
     public Thrusters(float x, float y, Stage s, boolean gaz) {
         super(x, y, s);
         loadTexture("gaz.png");
+        setVisible(false);
+        effect = Effects.GAZ;
     }
 
 	/*------------------------------*\
@@ -27,6 +41,25 @@ public class Thrusters extends BaseActor {
 	|*							Public Methods 							*|
 	\*------------------------------------------------------------------*/
 
+    /**
+     * Emits exhaust particles from the center of the thruster, away from the spaceship,
+     * carried along at the velocity of the spaceship.
+     *
+     * @param count number of particles
+     */
+    public void fire(int count) {
+        ParticleSystem particles = getWorld().getParticleSystem();
+        if (particles == null) return;
+
+        BaseActor ship = (BaseActor) getParent();
+        localToStageCoordinates(nozzle.set(getWidth() / 2, getHeight() / 2));
+        float angle = ship.getRotation() + getRotation() + 180;
+        float speed = ship.getSpeed();
+        float motion = ship.getMotionAngle();
+        particles.emit(particles.getEffect(effect), nozzle.x, nozzle.y, angle,
+                speed * MathUtils.cosDeg(motion), speed * MathUtils.sinDeg(motion), count);
+    }
+
 	/*------------------------------------------------------------------*\
 	|*							Private Methods 						*|
 	\*------------------------------------------------------------------*/
@@ -1,11 +1,16 @@
 package com.spacerocks;
 
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
+import com.framework.ActorPool;
 import com.framework.BaseActor;
+import com.framework.World;
 
 public class Warp extends BaseActor {
 
+    // Lifetime (seconds): shows, then fades out and vanishes
+    private static final float DELAY = 1;
+    private static final float FADE = 0.5f;
+
 	/*------------------------------------------------------------------*\
 	|*							Constructors							*|
 	\*------------------------------------------------------------------*/
@@ -13,13 +18,43 @@ public class Warp extends BaseActor {
     public Warp(float x, float y, Stage s) {
         super(x, y, s);
         loadAnimationFromSheet("warp.png", 4, 8, 0.05f, true);
-        addAction(Actions.delay(1));
-        addAction(Actions.after(Actions.fadeOut(0.5f)));
-        addAction(Actions.after(Actions.removeActor()));
+        setLifetime(DELAY + FADE, FADE);
     }
 
-	/*------------------------------------------------------------------*\
-	|*							Private Methods 						*|
-	\*------------------------------------------------------------------*/
+    /*------------------------------------------------------------------*\
+   	|*							Static methods							*|
+   	\*------------------------------------------------------------------*/
 
+    /**
+     * Reuses a warp effect which has faded out, or creates one.
+     *
+     * @param x x-coordinate of the lower left corner
+     * @param y y-coordinate of the lower left corner
+     * @param s stage to add the effect to
+     * @return warp effect starting from its first frame
+     */
+    public static Warp obtain(float x, float y, Stage s) {
+        Warp warp = getPool(s).obtain(s);
+        warp.setPosition(x, y);
+        return warp;
+    }
+
+    /**
+     * @param s stage of the world whose pool is requested
+     * @return pool of warp effects of the world, created on first use
+     */
+    public static ActorPool<Warp> getPool(Stage s) {
+        World world = World.of(s);
+        ActorPool<Warp> pool = world.getPool(Warp.class);
+        if (pool == null) {
+            pool = new ActorPool<Warp>() {
+                @Override
+                protected Warp newActor(Stage s) {
+                    return new Warp(0, 0, s);
+                }
+            };
+            world.setPool(Warp.class, pool);
+        }
+        return pool;
+    }
 }
@@ -6,7 +6,15 @@ import com.spacerocks.SpaceGame;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
-		Game myGame = new SpaceGame();
+		// --record <file> records the session for a headless replay
+		// --serve <port> serves the game to remote players on the loopback address
+		String record = null;
+		int serve = 0;
+		for (int i = 0; i + 1 < arg.length; i += 2) {
+			if (arg[i].equals("--record")) record = arg[i + 1];
+			else if (arg[i].equals("--serve")) serve = Integer.parseInt(arg[i + 1]);
+		}
+		Game myGame = new SpaceGame(record, serve);
 		LwjglApplication laucher = new LwjglApplication(myGame, "Space Rocks", 1920, 1080);
 	}
 }